@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@code VectorApiKernels} implements {@link MathKernels} with the incubating
+ * JDK Vector API. It is compiled against Java 17 and packaged under
+ * {@code META-INF/versions/17}; {@link MathKernels} loads it reflectively so
+ * that the base library stays Java 8 compatible.
+ * <p>
+ * Matrices and packed vec4 streams use 128 bit vectors, one row or one vector
+ * per register. The {@link Vector4fArray} loops use the preferred species and
+ * finish the tail with the scalar code. Every kernel performs the same
+ * operations in the same order as its scalar counterpart, never fusing a
+ * multiply and an add, so the results are bit-identical.
+ * 
+ * @author Jason Taylor
+ */
+final class VectorApiKernels extends MathKernels {
+
+  private static final VectorSpecies<Float> S128 = FloatVector.SPECIES_128;
+  private static final VectorSpecies<Float> S = FloatVector.SPECIES_PREFERRED;
+
+  @Override
+  boolean accelerated() {
+    return S.vectorBitSize() >= 128;
+  }
+
+  @Override
+  void mult4x4(float[] a, int aOff, float[] b, int bOff, float[] dst, int dstOff, int count) {
+    for (int n = 0; n < count; n++, aOff += 16, bOff += 16, dstOff += 16) {
+      FloatVector b0 = FloatVector.fromArray(S128, b, bOff);
+      FloatVector b1 = FloatVector.fromArray(S128, b, bOff + 4);
+      FloatVector b2 = FloatVector.fromArray(S128, b, bOff + 8);
+      FloatVector b3 = FloatVector.fromArray(S128, b, bOff + 12);
+      FloatVector r0 = row(a, aOff, b0, b1, b2, b3);
+      FloatVector r1 = row(a, aOff + 4, b0, b1, b2, b3);
+      FloatVector r2 = row(a, aOff + 8, b0, b1, b2, b3);
+      FloatVector r3 = row(a, aOff + 12, b0, b1, b2, b3);
+      r0.intoArray(dst, dstOff);
+      r1.intoArray(dst, dstOff + 4);
+      r2.intoArray(dst, dstOff + 8);
+      r3.intoArray(dst, dstOff + 12);
+    }
+  }
+
+  private static FloatVector row(float[] a, int off, FloatVector b0, FloatVector b1, FloatVector b2, FloatVector b3) {
+    return b0.mul(a[off]).add(b1.mul(a[off + 1])).add(b2.mul(a[off + 2])).add(b3.mul(a[off + 3]));
+  }
+
+  @Override
+  void transform4(Matrix4f mat, float[] src, int srcOff, float[] dst, int dstOff, int count) {
+    FloatVector c0 = column(mat.m00, mat.m10, mat.m20, mat.m30);
+    FloatVector c1 = column(mat.m01, mat.m11, mat.m21, mat.m31);
+    FloatVector c2 = column(mat.m02, mat.m12, mat.m22, mat.m32);
+    FloatVector c3 = column(mat.m03, mat.m13, mat.m23, mat.m33);
+    for (int i = 0, s = srcOff, d = dstOff; i < count; i++, s += 4, d += 4) {
+      float vx = src[s], vy = src[s + 1], vz = src[s + 2], vw = src[s + 3];
+      c0.mul(vx).add(c1.mul(vy)).add(c2.mul(vz)).add(c3.mul(vw)).intoArray(dst, d);
+    }
+  }
+
+  private static FloatVector column(float e0, float e1, float e2, float e3) {
+    return FloatVector.fromArray(S128, new float[] { e0, e1, e2, e3 }, 0);
+  }
+
+  @Override
+  void dot4(Vector4fArray a, Vector4fArray b, float[] store, int offset, int length) {
+    float[] x = a.x, y = a.y, z = a.z, w = a.w;
+    float[] vx = b.x, vy = b.y, vz = b.z, vw = b.w;
+    int i = offset;
+    int upper = offset + S.loopBound(length);
+    for (; i < upper; i += S.length()) {
+      FloatVector r = FloatVector.fromArray(S, x, i).mul(FloatVector.fromArray(S, vx, i));
+      r = r.add(FloatVector.fromArray(S, y, i).mul(FloatVector.fromArray(S, vy, i)));
+      r = r.add(FloatVector.fromArray(S, z, i).mul(FloatVector.fromArray(S, vz, i)));
+      r = r.add(FloatVector.fromArray(S, w, i).mul(FloatVector.fromArray(S, vw, i)));
+      r.intoArray(store, i);
+    }
+    super.dot4(a, b, store, i, offset + length - i);
+  }
+
+  @Override
+  void normalize4(Vector4fArray a, int offset, int length) {
+    float[] x = a.x, y = a.y, z = a.z, w = a.w;
+    int i = offset;
+    int upper = offset + S.loopBound(length);
+    for (; i < upper; i += S.length()) {
+      FloatVector vx = FloatVector.fromArray(S, x, i);
+      FloatVector vy = FloatVector.fromArray(S, y, i);
+      FloatVector vz = FloatVector.fromArray(S, z, i);
+      FloatVector vw = FloatVector.fromArray(S, w, i);
+      FloatVector len = vx.mul(vx).add(vy.mul(vy)).add(vz.mul(vz)).add(vw.mul(vw));
+      VectorMask<Float> keep = len.compare(VectorOperators.EQ, 1f).or(len.compare(VectorOperators.EQ, 0f));
+      FloatVector scale = FloatVector.broadcast(S, 1f).div(len.lanewise(VectorOperators.SQRT)).blend(1f, keep);
+      vx.mul(scale).intoArray(x, i);
+      vy.mul(scale).intoArray(y, i);
+      vz.mul(scale).intoArray(z, i);
+      vw.mul(scale).intoArray(w, i);
+    }
+    super.normalize4(a, i, offset + length - i);
+  }
+
+  @Override
+  void atan2(float[] y, float[] x, float[] out, int off, int len) {
+    int i = off;
+    int upper = off + S.loopBound(len);
+    for (; i < upper; i += S.length()) {
+      FloatVector xi = FloatVector.fromArray(S, x, i);
+      FloatVector yi = FloatVector.fromArray(S, y, i);
+      FloatVector ax = xi.abs(), ay = yi.abs();
+      FloatVector max = ax.max(ay);
+      FloatVector s = ax.min(ay).div(max);
+      FloatVector t = s.mul(s);
+      FloatVector u = FloatVector.broadcast(S, 2.82363896258175373077393e-3f);
+      u = u.mul(t).sub(1.59569028764963150024414e-2f);
+      u = u.mul(t).add(4.25049886107444763183594e-2f);
+      u = u.mul(t).sub(7.48900920152664184570312e-2f);
+      u = u.mul(t).add(1.06347933411598205566406e-1f);
+      u = u.mul(t).sub(1.42027363181114196777344e-1f);
+      u = u.mul(t).add(1.99926957488059997558594e-1f);
+      u = u.mul(t).sub(3.33331018686294555664062e-1f);
+      FloatVector r = u.mul(t).mul(s).add(s);
+      r = r.blend(FloatVector.broadcast(S, FastMath.HALF_PI).sub(r), ay.compare(VectorOperators.GT, ax));
+      r = r.blend(FloatVector.broadcast(S, FastMath.PI).sub(r), xi.compare(VectorOperators.LT, 0f));
+      r = r.blend(0f, max.compare(VectorOperators.EQ, 0f));
+      // copy the sign bit of y, r is never negative here
+      r = r.blend(r.neg(), yi.reinterpretAsInts().compare(VectorOperators.LT, 0).cast(S));
+      r.intoArray(out, i);
+    }
+    super.atan2(y, x, out, i, off + len - i);
+  }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+/**
+ * Compares the java.lang.Math backed exp, log and pow in {@link FastMath}
+ * against the polynomials in {@link FastMath.Approx}, over {@code count}
+ * random inputs.
+ * 
+ * @author Jason Taylor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ApproxBenchmark {
+
+  @Param({ "1024" })
+  public int count;
+
+  private float[] exponents;
+  private float[] values;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    exponents = new float[count];
+    values = new float[count];
+    for (int i = 0; i < count; i++) {
+      exponents[i] = (random.nextFloat() * 2 - 1) * 16;
+      values[i] = random.nextFloat() * 100;
+    }
+  }
+
+  @Benchmark
+  public float expFastMath() {
+    float sum = 0;
+    for (int i = 0; i < exponents.length; i++) {
+      sum += FastMath.exp(exponents[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float exp2Approx() {
+    float sum = 0;
+    for (int i = 0; i < exponents.length; i++) {
+      sum += FastMath.Approx.exp2(exponents[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float logFastMath() {
+    float sum = 0;
+    for (int i = 0; i < values.length; i++) {
+      sum += FastMath.log(values[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float log2Approx() {
+    float sum = 0;
+    for (int i = 0; i < values.length; i++) {
+      sum += FastMath.Approx.log2(values[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float powFastMath() {
+    float sum = 0;
+    for (int i = 0; i < values.length; i++) {
+      sum += FastMath.pow(values[i], exponents[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float powApprox() {
+    float sum = 0;
+    for (int i = 0; i < values.length; i++) {
+      sum += FastMath.Approx.pow(values[i], exponents[i]);
+    }
+    return sum;
+  }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks computing the hexes visible within a radius on a map with random
+ * walls, with {@link HexFieldOfView} and with a
+ * {@link HexMath#lineCube(Vector3i, Vector3i, List)} from the origin to every
+ * hex in range.
+ * 
+ * @author Jason Taylor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HexFieldOfViewBenchmark {
+
+  @Param({ "12" })
+  public int radius;
+
+  private HexIntMap walls;
+  private HexOpacity opacity;
+  private HexFieldOfView fov;
+  private Vector3i origin;
+  private List<Vector3i> range;
+  private List<Vector3i> line;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(1);
+    walls = new HexIntMap();
+    for (int q = -2 * radius; q <= 2 * radius; q++) {
+      for (int r = -2 * radius; r <= 2 * radius; r++) {
+        if (random.nextInt(7) == 0) {
+          walls.put(q, r, 1);
+        }
+      }
+    }
+    walls.remove(0, 0);
+    opacity = new HexOpacity() {
+      @Override
+      public boolean isOpaque(int q, int r) {
+        return walls.get(q, r) != 0;
+      }
+    };
+    fov = new HexFieldOfView();
+    origin = new Vector3i();
+    range = HexMath.rangeCube(origin, radius);
+    line = new ArrayList<Vector3i>();
+  }
+
+  @Benchmark
+  public int fieldOfView() {
+    return fov.compute(0, 0, radius, opacity).getVisibleCount();
+  }
+
+  @Benchmark
+  public int lineCube() {
+    int visible = 0;
+    for (int i = 0; i < range.size(); i++) {
+      line.clear();
+      HexMath.lineCube(origin, range.get(i), line);
+      boolean clear = true;
+      for (int j = 1; j < line.size() - 1; j++) {
+        Vector3i hex = line.get(j);
+        if (opacity.isOpaque(hex.x, hex.z)) {
+          clear = false;
+          break;
+        }
+      }
+      if (clear) {
+        visible++;
+      }
+    }
+    return visible;
+  }
+
+}
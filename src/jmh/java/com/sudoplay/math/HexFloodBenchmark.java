@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks a multi-source distance field and connected component labels
+ * over a square odd-r map with random walls, with {@link HexFlood} and, for
+ * the distance field, with a breadth-first search over {@link Hex2i} keys, a
+ * {@code HashMap} and an {@code ArrayDeque}.
+ * 
+ * @author Jason Taylor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HexFloodBenchmark {
+
+  @Param({ "1024" })
+  public int size;
+
+  @Param({ "64" })
+  public int sourceCount;
+
+  private HexGrid grid;
+  private HexGrid out;
+  private HexCellPredicate passable;
+  private HexFlood flood;
+  private int[] sources;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(1);
+    grid = new HexGrid(size, size, HexGrid.Layout.ODD_R);
+    for (int row = 0; row < size; row++) {
+      for (int col = 0; col < size; col++) {
+        grid.set(grid.index(col, row), random.nextInt(3) == 0 ? 1 : 0);
+      }
+    }
+    out = new HexGrid(size, size, HexGrid.Layout.ODD_R, 2);
+    passable = new HexCellPredicate() {
+      @Override
+      public boolean test(int index) {
+        return grid.get(index) == 0;
+      }
+    };
+    flood = new HexFlood(grid);
+    sources = new int[sourceCount];
+    for (int i = 0; i < sourceCount; i++) {
+      sources[i] = grid.index(random.nextInt(size), random.nextInt(size));
+    }
+  }
+
+  @Benchmark
+  public int distanceField() {
+    return flood.distanceField(sources, sourceCount, passable, Integer.MAX_VALUE, out, 0, 1);
+  }
+
+  @Benchmark
+  public int hashMapDistanceField() {
+    HashMap<Hex2i, Integer> distances = new HashMap<Hex2i, Integer>();
+    ArrayDeque<Hex2i> queue = new ArrayDeque<Hex2i>();
+    for (int i = 0; i < sourceCount; i++) {
+      Hex2i hex = new Hex2i(grid.getCol(sources[i]), grid.getRow(sources[i]));
+      if (!distances.containsKey(hex)) {
+        distances.put(hex, 0);
+        queue.add(hex);
+      }
+    }
+    while (!queue.isEmpty()) {
+      Hex2i hex = queue.poll();
+      int d = distances.get(hex);
+      for (int direction = 0; direction < 6; direction++) {
+        Hex2i neighbor = HexMath.neighborOddR(hex, direction, new Hex2i());
+        int index = grid.index(neighbor.q, neighbor.r);
+        if (index != -1 && passable.test(index) && !distances.containsKey(neighbor)) {
+          distances.put(neighbor, d + 1);
+          queue.add(neighbor);
+        }
+      }
+    }
+    return distances.size();
+  }
+
+  @Benchmark
+  public int labelComponents() {
+    return flood.labelComponents(passable, out, 0);
+  }
+
+  @Benchmark
+  public int labelComponentsParallel() {
+    return flood.labelComponents(passable, out, 0, ForkJoinPool.commonPool());
+  }
+
+}
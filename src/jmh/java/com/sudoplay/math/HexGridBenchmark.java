@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks summing the six neighbors of every cell of a square odd-r map,
+ * stored in a {@link HexGrid} with index arithmetic, and in a
+ * {@link HexIntMap} and a {@code HashMap<Hex2i, Integer>} with
+ * {@link HexMath#neighborOddR} lookups.
+ * 
+ * @author Jason Taylor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HexGridBenchmark {
+
+  @Param({ "256" })
+  public int size;
+
+  private HexGrid grid;
+  private HexIntMap map;
+  private HashMap<Hex2i, Integer> hashMap;
+  private int[] neighbors;
+  private Hex2i hex;
+  private Hex2i neighbor;
+
+  @Setup
+  public void setup() {
+    for (HexGrid.Layout layout : HexGrid.Layout.values()) {
+      checkNeighbors(layout);
+    }
+    grid = new HexGrid(size, size, HexGrid.Layout.ODD_R);
+    map = new HexIntMap(size * size);
+    hashMap = new HashMap<Hex2i, Integer>();
+    for (int row = 0; row < size; row++) {
+      for (int col = 0; col < size; col++) {
+        grid.set(grid.index(col, row), col ^ row);
+        map.put(col, row, col ^ row);
+        hashMap.put(new Hex2i(col, row), col ^ row);
+      }
+    }
+    hex = new Hex2i();
+    neighbor = new Hex2i();
+    neighbors = new int[6];
+  }
+
+  /**
+   * Throws if a neighbor of some cell of a small grid is not adjacent to it,
+   * or if {@link HexGrid#neighbors(int, int[])} disagrees with
+   * {@link HexGrid#neighbor(int, int)}.
+   * 
+   * @param layout
+   */
+  private static void checkNeighbors(HexGrid.Layout layout) {
+    HexGrid grid = new HexGrid(40, 40, layout);
+    int[] store = new int[6];
+    Vector3i cube = new Vector3i();
+    Vector3i neighborCube = new Vector3i();
+    for (int row = 0; row < 40; row++) {
+      for (int col = 0; col < 40; col++) {
+        int index = grid.index(col, row);
+        grid.getCube(index, cube);
+        grid.neighbors(index, store);
+        for (int direction = 0; direction < 6; direction++) {
+          int n = grid.neighbor(index, direction);
+          if (n != store[direction] || (n != -1 && HexMath.distanceCube(cube, grid.getCube(n, neighborCube)) != 1)) {
+            throw new IllegalStateException(layout + " neighbor " + direction + " of " + col + "," + row + " is not adjacent");
+          }
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public int gridNeighbors() {
+    int sum = 0;
+    for (int row = 0; row < size; row++) {
+      for (int col = 0; col < size; col++) {
+        int index = grid.index(col, row);
+        for (int direction = 0; direction < 6; direction++) {
+          int n = grid.neighbor(index, direction);
+          if (n != -1) {
+            sum += grid.get(n);
+          }
+        }
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int gridNeighborsBulk() {
+    int sum = 0;
+    int[] n = neighbors;
+    for (int row = 0; row < size; row++) {
+      for (int col = 0; col < size; col++) {
+        grid.neighbors(grid.index(col, row), n);
+        for (int direction = 0; direction < 6; direction++) {
+          if (n[direction] != -1) {
+            sum += grid.get(n[direction]);
+          }
+        }
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int hashMapNeighbors() {
+    int sum = 0;
+    for (int row = 0; row < size; row++) {
+      for (int col = 0; col < size; col++) {
+        hex.set(col, row);
+        for (int direction = 0; direction < 6; direction++) {
+          Integer value = hashMap.get(HexMath.neighborOddR(hex, direction, new Hex2i()));
+          if (value != null) {
+            sum += value;
+          }
+        }
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int mapNeighbors() {
+    int sum = 0;
+    for (int row = 0; row < size; row++) {
+      for (int col = 0; col < size; col++) {
+        hex.set(col, row);
+        for (int direction = 0; direction < 6; direction++) {
+          HexMath.neighborOddR(hex, direction, neighbor);
+          sum += map.get(neighbor.q, neighbor.r);
+        }
+      }
+    }
+    return sum;
+  }
+
+}
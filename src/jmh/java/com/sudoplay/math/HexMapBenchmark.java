@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link HexIntMap} against a {@code HashMap<Hex2i, Integer>}
+ * holding the same square patch of hexes: random lookups, and reading all
+ * hexes within a range of a center hex.
+ * 
+ * @author Jason Taylor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HexMapBenchmark {
+
+  private static final int LOOKUPS = 1024;
+
+  @Param({ "100000", "1000000" })
+  public int size;
+
+  @Param({ "8" })
+  public int range;
+
+  private HashMap<Hex2i, Integer> hashMap;
+  private HexIntMap hexMap;
+  private int[] lookupQ;
+  private int[] lookupR;
+  private Vector3i center;
+  private int[] rangeStore;
+  private Hex2i key;
+
+  @Setup
+  public void setup() {
+    int side = (int) Math.sqrt(size);
+    hashMap = new HashMap<Hex2i, Integer>();
+    hexMap = new HexIntMap();
+    for (int q = 0; q < side; q++) {
+      for (int r = 0; r < side; r++) {
+        hashMap.put(new Hex2i(q, r), q * r);
+        hexMap.put(q, r, q * r);
+      }
+    }
+
+    Random random = new Random(42);
+    lookupQ = new int[LOOKUPS];
+    lookupR = new int[LOOKUPS];
+    for (int i = 0; i < LOOKUPS; i++) {
+      lookupQ[i] = random.nextInt(side);
+      lookupR[i] = random.nextInt(side);
+    }
+
+    center = new Vector3i(side / 2, 0, side / 2);
+    center.y = -center.x - center.z;
+    rangeStore = new int[HexMath.rangeCubeSize(range)];
+    key = new Hex2i();
+  }
+
+  @Benchmark
+  public int hashMapGet() {
+    int sum = 0;
+    for (int i = 0; i < LOOKUPS; i++) {
+      sum += hashMap.get(key.set(lookupQ[i], lookupR[i]));
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int hexIntMapGet() {
+    int sum = 0;
+    for (int i = 0; i < LOOKUPS; i++) {
+      sum += hexMap.get(lookupQ[i], lookupR[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int hashMapRange() {
+    int sum = 0;
+    for (int x = -range; x <= range; x++) {
+      for (int y = Math.max(-range, -x - range); y <= Math.min(range, -x + range); y++) {
+        Integer value = hashMap.get(key.set(x + center.x, -x - y + center.z));
+        if (value != null) {
+          sum += value;
+        }
+      }
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int[] hexIntMapRange() {
+    return hexMap.getRange(center, range, rangeStore, 0);
+  }
+
+}
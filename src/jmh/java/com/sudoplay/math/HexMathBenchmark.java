@@ -0,0 +1,166 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the {@link HexMath} range, ring, intersect and line
+ * generators. The store list is reused between invocations so the gc profiler
+ * reports the per-hex allocations made by the generators themselves; the
+ * visitor and {@link HexCursor} variants walk the same hexes without
+ * allocating.
+ * 
+ * @author Jason Taylor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HexMathBenchmark {
+
+  @Param({ "8", "64" })
+  public int range;
+
+  private Vector3i center;
+  private Vector3i other;
+  private Vector3i lineEnd;
+  private List<Vector3i> store;
+  private HexCursor cursor;
+  private SumVisitor visitor;
+
+  private static final class SumVisitor implements HexVisitor {
+    int sum;
+
+    @Override
+    public void visit(int q, int r, int s) {
+      sum += q * 31 + r;
+    }
+  }
+
+  @Setup
+  public void setup() {
+    center = new Vector3i(3, -7, 4);
+    other = new Vector3i(3 + range / 2, -7 - range / 2, 4);
+    lineEnd = new Vector3i(3 + range, -7 - range / 2, 4 - range + range / 2);
+    store = new ArrayList<Vector3i>();
+    cursor = new HexCursor();
+    visitor = new SumVisitor();
+  }
+
+  @Benchmark
+  public List<Vector3i> rangeCube() {
+    store.clear();
+    return HexMath.rangeCube(center, range, store);
+  }
+
+  @Benchmark
+  public List<Vector3i> ringCube() {
+    store.clear();
+    return HexMath.ringCube(center, range, store);
+  }
+
+  @Benchmark
+  public List<Vector3i> intersectCube() {
+    store.clear();
+    return HexMath.intersectCube(center, other, range, range, store);
+  }
+
+  @Benchmark
+  public List<Vector3i> lineCube() {
+    store.clear();
+    return HexMath.lineCube(center, lineEnd, store);
+  }
+
+  @Benchmark
+  public int forEachInRange() {
+    visitor.sum = 0;
+    HexMath.forEachInRange(center, range, visitor);
+    return visitor.sum;
+  }
+
+  @Benchmark
+  public int forEachInRing() {
+    visitor.sum = 0;
+    HexMath.forEachInRing(center, range, visitor);
+    return visitor.sum;
+  }
+
+  @Benchmark
+  public int forEachOnLine() {
+    visitor.sum = 0;
+    HexMath.forEachOnLine(center, lineEnd, visitor);
+    return visitor.sum;
+  }
+
+  @Benchmark
+  public int cursorRange() {
+    int sum = 0;
+    HexCursor c = cursor.range(center, range);
+    while (c.next()) {
+      sum += c.getQ() * 31 + c.getR();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int cursorRing() {
+    int sum = 0;
+    HexCursor c = cursor.ring(center, range);
+    while (c.next()) {
+      sum += c.getQ() * 31 + c.getR();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int cursorLine() {
+    int sum = 0;
+    HexCursor c = cursor.line(center, lineEnd);
+    while (c.next()) {
+      sum += c.getQ() * 31 + c.getR();
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int distanceCube() {
+    return HexMath.distanceCube(center, lineEnd);
+  }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.HashMap;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks routing a batch of agents across a square odd-r map with random
+ * step costs and blocked cells, with {@link HexPathfinder} one query at a
+ * time, with {@link HexPathfinder#findNextSteps} and with an A* over
+ * {@link Hex2i} keys, a {@code HashMap} and a {@code PriorityQueue}.
+ * 
+ * @author Jason Taylor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HexPathfinderBenchmark {
+
+  @Param({ "1024" })
+  public int size;
+
+  @Param({ "256" })
+  public int agents;
+
+  @Param({ "16" })
+  public int goalCount;
+
+  @Param({ "30" })
+  public int distance;
+
+  private HexGrid grid;
+  private HexPathCost cost;
+  private HexPathfinder pathfinder;
+  private int[] starts;
+  private int[] goals;
+  private int[] next;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(1);
+    grid = new HexGrid(size, size, HexGrid.Layout.ODD_R);
+    for (int row = 0; row < size; row++) {
+      for (int col = 0; col < size; col++) {
+        grid.set(grid.index(col, row), random.nextInt(8) == 0 ? -1 : 1 + random.nextInt(3));
+      }
+    }
+    cost = new HexPathCost() {
+      @Override
+      public float cost(int from, int to) {
+        return grid.get(to);
+      }
+    };
+    pathfinder = new HexPathfinder(grid).setMaxExpanded(20000);
+
+    int[] goalPool = new int[goalCount];
+    for (int i = 0; i < goalCount; i++) {
+      goalPool[i] = grid.index(distance + random.nextInt(size - 2 * distance), distance + random.nextInt(size - 2 * distance));
+      grid.set(goalPool[i], 1);
+    }
+    starts = new int[agents];
+    goals = new int[agents];
+    next = new int[agents];
+    for (int i = 0; i < agents; i++) {
+      goals[i] = goalPool[random.nextInt(goalCount)];
+      int col = grid.getCol(goals[i]) + random.nextInt(2 * distance + 1) - distance;
+      int row = grid.getRow(goals[i]) + random.nextInt(2 * distance + 1) - distance;
+      starts[i] = grid.index(col, row);
+    }
+  }
+
+  @Benchmark
+  public int findPath() {
+    int sum = 0;
+    for (int i = 0; i < agents; i++) {
+      sum += pathfinder.findPath(starts[i], goals[i], cost);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public int findNextSteps() {
+    return pathfinder.findNextSteps(starts, goals, agents, cost, next);
+  }
+
+  @Benchmark
+  public int hashMapAStar() {
+    int sum = 0;
+    for (int i = 0; i < agents; i++) {
+      sum += hashMapAStar(grid.getCol(starts[i]), grid.getRow(starts[i]), grid.getCol(goals[i]), grid.getRow(goals[i]));
+    }
+    return sum;
+  }
+
+  private static final class Node implements Comparable<Node> {
+    final Hex2i hex;
+    final float f;
+
+    Node(Hex2i hex, float f) {
+      this.hex = hex;
+      this.f = f;
+    }
+
+    @Override
+    public int compareTo(Node o) {
+      return Float.compare(f, o.f);
+    }
+  }
+
+  private int hashMapAStar(int startCol, int startRow, int goalCol, int goalRow) {
+    Hex2i start = new Hex2i(startCol, startRow);
+    Hex2i goal = new Hex2i(goalCol, goalRow);
+    HashMap<Hex2i, Float> costs = new HashMap<Hex2i, Float>();
+    HashMap<Hex2i, Hex2i> parents = new HashMap<Hex2i, Hex2i>();
+    PriorityQueue<Node> open = new PriorityQueue<Node>();
+    costs.put(start, 0f);
+    open.add(new Node(start, 0));
+    int expanded = 0;
+    while (!open.isEmpty() && expanded < 20000) {
+      Node node = open.poll();
+      Hex2i hex = node.hex;
+      float g = costs.get(hex);
+      if (node.f > g + HexMath.distanceOddR(hex, goal)) {
+        continue;
+      }
+      expanded++;
+      if (hex.equals(goal)) {
+        int length = 1;
+        for (Hex2i h = hex; parents.containsKey(h); h = parents.get(h)) {
+          length++;
+        }
+        return length;
+      }
+      for (int direction = 0; direction < 6; direction++) {
+        Hex2i neighbor = HexMath.neighborOddR(hex, direction, new Hex2i());
+        if (!grid.contains(neighbor.q, neighbor.r)) {
+          continue;
+        }
+        int step = grid.get(grid.index(neighbor.q, neighbor.r));
+        if (step < 0) {
+          continue;
+        }
+        Float old = costs.get(neighbor);
+        float gn = g + step;
+        if (old == null || gn < old) {
+          costs.put(neighbor, gn);
+          parents.put(neighbor, hex);
+          open.add(new Node(neighbor, gn + HexMath.distanceOddR(neighbor, goal)));
+        }
+      }
+    }
+    return -1;
+  }
+
+}
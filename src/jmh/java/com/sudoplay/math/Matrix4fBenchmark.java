@@ -0,0 +1,236 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link Matrix4f} and {@link Matrix3f} multiply, invert and
+ * vector transform, the bulk and packed variants, and for writing matrices
+ * into a direct buffer.
+ * 
+ * @author Jason Taylor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Matrix4fBenchmark {
+
+  private Matrix4f a;
+  private Matrix4f b;
+  private Matrix4f store;
+  private Matrix3f a3;
+  private Matrix3f b3;
+  private Matrix3f store3;
+  private Vector3f vector;
+  private Vector3f vectorStore;
+  private Vector4f vector4;
+  private Vector4f vector4Store;
+  private FloatBuffer buffer;
+  private Matrix4fView view;
+  private Vector3f[] points;
+  private float[] packedPoints;
+  private float[] packedStore;
+  private float[] wStore;
+  private float[] packedVectors;
+  private float[] packedVectorStore;
+  private float[] packedMatrices;
+  private float[] packedMatrixStore;
+
+  @Param({ "1024" })
+  private int count;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    Quaternion rotation = new Quaternion().fromAngles(random.nextFloat(), random.nextFloat(), random.nextFloat());
+    Vector3f translation = new Vector3f(random.nextFloat(), random.nextFloat(), random.nextFloat());
+    Vector3f scale = new Vector3f(1 + random.nextFloat(), 1 + random.nextFloat(), 1 + random.nextFloat());
+
+    a = new Matrix4f();
+    a.setTransform(translation, scale, rotation.toRotationMatrix());
+    b = new Matrix4f();
+    b.setTransform(translation, scale, rotation.inverse().toRotationMatrix());
+    store = new Matrix4f();
+
+    a3 = rotation.toRotationMatrix();
+    b3 = rotation.inverse().toRotationMatrix();
+    store3 = new Matrix3f();
+
+    vector = new Vector3f(random.nextFloat(), random.nextFloat(), random.nextFloat());
+    vectorStore = new Vector3f();
+    vector4 = new Vector4f(random.nextFloat(), random.nextFloat(), random.nextFloat(), 1);
+    vector4Store = new Vector4f();
+
+    buffer = ByteBuffer.allocateDirect(16 * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    view = new Matrix4fView(buffer, 0, Matrix4f.Order.COLUMN_MAJOR);
+
+    points = new Vector3f[count];
+    packedPoints = new float[count * 3];
+    packedStore = new float[count * 3];
+    wStore = new float[count];
+    for (int i = 0; i < count; i++) {
+      points[i] = new Vector3f(random.nextFloat(), random.nextFloat(), random.nextFloat());
+      packedPoints[i * 3] = points[i].x;
+      packedPoints[i * 3 + 1] = points[i].y;
+      packedPoints[i * 3 + 2] = points[i].z;
+    }
+
+    float[] tmp16 = new float[16];
+    packedVectors = new float[count * 4];
+    packedVectorStore = new float[count * 4];
+    for (int i = 0; i < packedVectors.length; i++) {
+      packedVectors[i] = random.nextFloat();
+    }
+    packedMatrices = new float[count * 16];
+    packedMatrixStore = new float[count * 16];
+    for (int i = 0; i < count; i++) {
+      a.fillFloatArray(tmp16, Matrix4f.Order.ROW_MAJOR);
+      System.arraycopy(tmp16, 0, packedMatrices, i * 16, 16);
+    }
+  }
+
+  @Benchmark
+  public Matrix4f mult() {
+    return a.mult(b, store);
+  }
+
+  @Benchmark
+  public Matrix4f multAllocating() {
+    return a.mult(b);
+  }
+
+  @Benchmark
+  public Matrix4f invert() {
+    return a.invert(store);
+  }
+
+  @Benchmark
+  public Matrix4f multAffine() {
+    return a.multAffine(b, store);
+  }
+
+  @Benchmark
+  public Matrix4f invertAffine() {
+    return a.invertAffine(store);
+  }
+
+  @Benchmark
+  public Vector3f multVector3f() {
+    return a.mult(vector, vectorStore);
+  }
+
+  @Benchmark
+  public Vector3f multNormal() {
+    return a.multNormal(vector, vectorStore);
+  }
+
+  @Benchmark
+  public float multProj() {
+    return a.multProj(vector, vectorStore);
+  }
+
+  @Benchmark
+  public Vector4f multVector4f() {
+    return a.mult(vector4, vector4Store);
+  }
+
+  @Benchmark
+  public Matrix3f mult3() {
+    return a3.mult(b3, store3);
+  }
+
+  @Benchmark
+  public Matrix3f invert3() {
+    return a3.invert(store3);
+  }
+
+  @Benchmark
+  public FloatBuffer fillFloatBuffer() {
+    buffer.clear();
+    return a.fillFloatBuffer(buffer, Matrix4f.Order.COLUMN_MAJOR);
+  }
+
+  @Benchmark
+  public Matrix4fView viewSet() {
+    return view.set(a);
+  }
+
+  @Benchmark
+  public Vector3f viewMultVector3f() {
+    return view.mult(vector, vectorStore);
+  }
+
+  @Benchmark
+  public Vector3f arrayMultVector3f() {
+    Vector3f[] p = points;
+    for (int i = 0; i < p.length; i++) {
+      a.mult(p[i], vectorStore);
+    }
+    return vectorStore;
+  }
+
+  @Benchmark
+  public float[] transformPoints() {
+    return a.transformPoints(packedPoints, 0, packedStore, 0, count);
+  }
+
+  @Benchmark
+  public float[] transformNormals() {
+    return a.transformNormals(packedPoints, 0, packedStore, 0, count);
+  }
+
+  @Benchmark
+  public float[] transformProject() {
+    return a.transformProject(packedPoints, 0, packedStore, 0, wStore, 0, count);
+  }
+
+  @Benchmark
+  public float[] transformVectors() {
+    return a.transformVectors(packedVectors, 0, packedVectorStore, 0, count);
+  }
+
+  @Benchmark
+  public float[] multPacked() {
+    return Matrix4f.mult(packedMatrices, 0, packedMatrices, 0, packedMatrixStore, 0, count);
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for {@link Quaternion} multiply, slerp and vector rotation.
+ * 
+ * @author Jason Taylor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QuaternionBenchmark {
+
+  private Quaternion a;
+  private Quaternion b;
+  private Quaternion store;
+  private Vector3f vector;
+  private Vector3f vectorStore;
+  private float t;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    a = new Quaternion().fromAngles(random.nextFloat(), random.nextFloat(), random.nextFloat());
+    b = new Quaternion().fromAngles(random.nextFloat(), random.nextFloat(), random.nextFloat());
+    store = new Quaternion();
+    vector = new Vector3f(random.nextFloat(), random.nextFloat(), random.nextFloat());
+    vectorStore = new Vector3f();
+    t = random.nextFloat();
+  }
+
+  @Benchmark
+  public Quaternion mult() {
+    return a.mult(b, store);
+  }
+
+  @Benchmark
+  public Quaternion slerp() {
+    return store.slerp(a, b, t);
+  }
+
+  @Benchmark
+  public Quaternion nlerp() {
+    store.set(a).nlerp(b, t);
+    return store;
+  }
+
+  @Benchmark
+  public Vector3f multVector3f() {
+    return a.mult(vector, vectorStore);
+  }
+
+  @Benchmark
+  public Matrix3f toRotationMatrix() {
+    return a.toRotationMatrix();
+  }
+
+  @Benchmark
+  public Quaternion normalize() {
+    return store.set(a).normalizeLocal();
+  }
+
+}
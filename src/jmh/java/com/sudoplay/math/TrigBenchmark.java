@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the java.lang.Math backed trig in {@link FastMath} against the
+ * lookup tables in {@link TrigLUT} and {@link TrigLUT.Table} and the
+ * polynomials in {@link FastMath.Approx}. Each benchmark evaluates
+ * {@code count} random angles so the numbers reflect a tight loop rather than
+ * a single call.
+ * 
+ * @author Jason Taylor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TrigBenchmark {
+
+  @Param({ "1024" })
+  public int count;
+
+  private float[] angles;
+  private float[] ys;
+  private float[] xs;
+  private TrigLUT.Table nearest;
+  private TrigLUT.Table interpolated;
+  private Vector2f sinCosStore;
+  private float[] sinOut;
+  private float[] cosOut;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    angles = new float[count];
+    ys = new float[count];
+    xs = new float[count];
+    for (int i = 0; i < count; i++) {
+      angles[i] = (random.nextFloat() * 2 - 1) * FastMath.TWO_PI;
+      ys[i] = random.nextFloat() * 2 - 1;
+      xs[i] = random.nextFloat() * 2 - 1;
+    }
+    nearest = new TrigLUT.Table(12, false);
+    interpolated = new TrigLUT.Table(12, true);
+    sinCosStore = new Vector2f();
+    sinOut = new float[count];
+    cosOut = new float[count];
+  }
+
+  @Benchmark
+  public float sinFastMath() {
+    float sum = 0;
+    for (int i = 0; i < angles.length; i++) {
+      sum += FastMath.sin(angles[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float sinTrigLUT() {
+    float sum = 0;
+    for (int i = 0; i < angles.length; i++) {
+      sum += TrigLUT.sin(angles[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float cosFastMath() {
+    float sum = 0;
+    for (int i = 0; i < angles.length; i++) {
+      sum += FastMath.cos(angles[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float cosTrigLUT() {
+    float sum = 0;
+    for (int i = 0; i < angles.length; i++) {
+      sum += TrigLUT.cos(angles[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float atan2FastMath() {
+    float sum = 0;
+    for (int i = 0; i < ys.length; i++) {
+      sum += FastMath.atan2(ys[i], xs[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float atan2TrigLUT() {
+    float sum = 0;
+    for (int i = 0; i < ys.length; i++) {
+      sum += TrigLUT.atan2(ys[i], xs[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float sinTableNearest() {
+    float sum = 0;
+    for (int i = 0; i < angles.length; i++) {
+      sum += nearest.sin(angles[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float sinTableInterpolated() {
+    float sum = 0;
+    for (int i = 0; i < angles.length; i++) {
+      sum += interpolated.sin(angles[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float sinCosTableInterpolated() {
+    float sum = 0;
+    for (int i = 0; i < angles.length; i++) {
+      Vector2f sc = interpolated.sinCos(angles[i], sinCosStore);
+      sum += sc.x + sc.y;
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float atan2TableInterpolated() {
+    float sum = 0;
+    for (int i = 0; i < ys.length; i++) {
+      sum += interpolated.atan2(ys[i], xs[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float asinTableInterpolated() {
+    float sum = 0;
+    for (int i = 0; i < ys.length; i++) {
+      sum += interpolated.asin(ys[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float sinApprox() {
+    float sum = 0;
+    for (int i = 0; i < angles.length; i++) {
+      sum += FastMath.Approx.sin(angles[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float cosApprox() {
+    float sum = 0;
+    for (int i = 0; i < angles.length; i++) {
+      sum += FastMath.Approx.cos(angles[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float atan2Approx() {
+    float sum = 0;
+    for (int i = 0; i < ys.length; i++) {
+      sum += FastMath.Approx.atan2(ys[i], xs[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float[] sinBulk() {
+    return FastMath.sin(angles, sinOut, 0, count);
+  }
+
+  @Benchmark
+  public float[] sinCosBulk() {
+    FastMath.sinCos(angles, sinOut, cosOut);
+    return cosOut;
+  }
+
+  @Benchmark
+  public float[] sinCosTrigLUTLoop() {
+    for (int i = 0; i < angles.length; i++) {
+      sinOut[i] = FastMath.sinLUT(angles[i]);
+      cosOut[i] = FastMath.cosLUT(angles[i]);
+    }
+    return cosOut;
+  }
+
+  @Benchmark
+  public float[] atan2Bulk() {
+    return FastMath.atan2(ys, xs, sinOut);
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for evaluating the {@link Tween} functions, both through the
+ * virtual {@link Tween#tween(float, float, float, float)} call and through
+ * the static helpers.
+ * 
+ * @author Jason Taylor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TweenBenchmark {
+
+  @Param({ "LINEAR", "EASE_INOUT_CUBIC", "EASE_INOUT_SINUSOIDAL", "EASE_INOUT_EXPONENTIAL", "EASE_OUT_BOUNCE", "EASE_INOUT_ELASTIC" })
+  public String function;
+
+  @Param({ "1024" })
+  public int count;
+
+  private Tween tween;
+  private float[] times;
+
+  @Setup
+  public void setup() throws Exception {
+    tween = (Tween) Tween.class.getField(function).get(null);
+    Random random = new Random(42);
+    times = new float[count];
+    for (int i = 0; i < count; i++) {
+      times[i] = random.nextFloat();
+    }
+  }
+
+  @Benchmark
+  public float tween() {
+    Tween tween = this.tween;
+    float sum = 0;
+    for (int i = 0; i < times.length; i++) {
+      sum += tween.tween(times[i], 0, 1, 1);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public float easeInOutCubicStatic() {
+    float sum = 0;
+    for (int i = 0; i < times.length; i++) {
+      sum += Tween.easeInOutCubic(times[i], 0, 1, 1);
+    }
+    return sum;
+  }
+
+}
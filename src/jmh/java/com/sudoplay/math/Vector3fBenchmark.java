@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the per-object {@link Vector3f} and {@link Vector4f}
+ * operations, both on a single instance and looped over an array of instances
+ * the way simulation code uses them, against the same loops over a
+ * {@link Vector3fArray}.
+ * 
+ * @author Jason Taylor
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Vector3fBenchmark {
+
+  @Param({ "1024", "262144" })
+  public int count;
+
+  private Vector3f a;
+  private Vector3f b;
+  private Vector3f store;
+  private Vector4f a4;
+  private Vector4f b4;
+
+  private Vector3f[] vectors;
+  private Vector3f[] others;
+
+  private Vector3fArray vectorArray;
+  private Vector3fArray otherArray;
+  private Vector3fArray resultArray;
+  private float[] scratch;
+
+  @Setup
+  public void setup() {
+    Random random = new Random(42);
+    a = new Vector3f(random.nextFloat(), random.nextFloat(), random.nextFloat());
+    b = new Vector3f(random.nextFloat(), random.nextFloat(), random.nextFloat());
+    store = new Vector3f();
+    a4 = new Vector4f(random.nextFloat(), random.nextFloat(), random.nextFloat(), random.nextFloat());
+    b4 = new Vector4f(random.nextFloat(), random.nextFloat(), random.nextFloat(), random.nextFloat());
+
+    vectors = new Vector3f[count];
+    others = new Vector3f[count];
+    for (int i = 0; i < count; i++) {
+      vectors[i] = new Vector3f(random.nextFloat(), random.nextFloat(), random.nextFloat());
+      others[i] = new Vector3f(random.nextFloat(), random.nextFloat(), random.nextFloat());
+    }
+
+    vectorArray = new Vector3fArray(count);
+    otherArray = new Vector3fArray(count);
+    for (int i = 0; i < count; i++) {
+      vectorArray.set(i, vectors[i]);
+      otherArray.set(i, others[i]);
+    }
+    resultArray = new Vector3fArray(count);
+    scratch = new float[count];
+  }
+
+  @Benchmark
+  public Vector3f add() {
+    return a.add(b, store);
+  }
+
+  @Benchmark
+  public Vector3f addAllocating() {
+    return a.add(b);
+  }
+
+  @Benchmark
+  public float dot() {
+    return a.dot(b);
+  }
+
+  @Benchmark
+  public Vector3f cross() {
+    return a.cross(b, store);
+  }
+
+  @Benchmark
+  public Vector3f normalize() {
+    return store.set(a).normalizeLocal();
+  }
+
+  @Benchmark
+  public float dot4() {
+    return a4.dot(b4);
+  }
+
+  @Benchmark
+  public Vector4f normalize4() {
+    return a4.normalize();
+  }
+
+  @Benchmark
+  public void arrayScaleAdd(Blackhole blackhole) {
+    Vector3f[] v = vectors;
+    Vector3f[] o = others;
+    for (int i = 0; i < v.length; i++) {
+      v[i].scaleAdd(0.999f, o[i]);
+    }
+    blackhole.consume(v);
+  }
+
+  @Benchmark
+  public void arrayNormalize(Blackhole blackhole) {
+    Vector3f[] v = vectors;
+    for (int i = 0; i < v.length; i++) {
+      v[i].normalizeLocal();
+    }
+    blackhole.consume(v);
+  }
+
+  @Benchmark
+  public float arrayDot() {
+    Vector3f[] v = vectors;
+    Vector3f[] o = others;
+    float sum = 0;
+    for (int i = 0; i < v.length; i++) {
+      sum += v[i].dot(o[i]);
+    }
+    return sum;
+  }
+
+  @Benchmark
+  public Vector3fArray soaScaleAdd() {
+    return vectorArray.scaleAdd(0.999f, otherArray, 0, count);
+  }
+
+  @Benchmark
+  public Vector3fArray soaNormalize() {
+    return vectorArray.normalizeLocal(0, count);
+  }
+
+  @Benchmark
+  public float[] soaDot() {
+    return vectorArray.dot(otherArray, scratch, 0, count);
+  }
+
+  @Benchmark
+  public Vector3fArray soaCross() {
+    return vectorArray.cross(otherArray, resultArray, 0, count);
+  }
+
+}
@@ -0,0 +1,90 @@
+package com.sudoplay.math.delaunay;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for building and querying a {@link DT_CompactTriangulation} of
+ * uniformly random points, comparable to {@link DelaunayTriangulationBenchmark}.
+ */
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+@State(Scope.Benchmark)
+public class DT_CompactTriangulationBenchmark {
+
+  @Param({ "10000", "100000", "1000000", "10000000" })
+  public int pointCount;
+
+  private static final int QUERY_COUNT = 1024;
+  private static final double EXTENT = 1000.0;
+
+  private double[] xs, ys, zs;
+  private double[] queryX, queryY;
+  private DT_CompactTriangulation triangulation;
+
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(42);
+    xs = new double[pointCount];
+    ys = new double[pointCount];
+    zs = new double[pointCount];
+    for (int i = 0; i < pointCount; i++) {
+      xs[i] = random.nextDouble() * EXTENT;
+      ys[i] = random.nextDouble() * EXTENT;
+      zs[i] = random.nextDouble();
+    }
+    queryX = new double[QUERY_COUNT];
+    queryY = new double[QUERY_COUNT];
+    for (int i = 0; i < QUERY_COUNT; i++) {
+      queryX[i] = EXTENT * 0.1 + random.nextDouble() * EXTENT * 0.8;
+      queryY[i] = EXTENT * 0.1 + random.nextDouble() * EXTENT * 0.8;
+    }
+    triangulation = build();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public DT_CompactTriangulation build() {
+    DT_CompactTriangulation result = new DT_CompactTriangulation(pointCount);
+    result.insertPoints(xs, ys, zs, pointCount);
+    return result;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 3, time = 1)
+  @Measurement(iterations = 5, time = 1)
+  public int locate() {
+    int i = next++ & (QUERY_COUNT - 1);
+    return triangulation.locate(queryX[i], queryY[i]);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 3, time = 1)
+  @Measurement(iterations = 5, time = 1)
+  public double z() {
+    int i = next++ & (QUERY_COUNT - 1);
+    return triangulation.z(queryX[i], queryY[i]);
+  }
+
+}
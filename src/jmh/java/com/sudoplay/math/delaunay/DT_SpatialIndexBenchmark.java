@@ -0,0 +1,113 @@
+package com.sudoplay.math.delaunay;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks point location in a {@link DelaunayTriangulation} without an
+ * index, with a {@link DT_GridIndex} and with a {@link DT_QuadTreeIndex}, on
+ * uniform and on clustered points.
+ */
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+@State(Scope.Benchmark)
+public class DT_SpatialIndexBenchmark {
+
+  @Param({ "10000", "100000", "1000000" })
+  public int pointCount;
+
+  @Param({ "none", "grid", "quadtree" })
+  public String index;
+
+  @Param({ "uniform", "clustered" })
+  public String distribution;
+
+  private static final int QUERY_COUNT = 1024;
+  private static final int GRID_CELLS = 256;
+  private static final double EXTENT = 1000.0;
+
+  private DT_Point[] points;
+  private DT_Point[] queries;
+  private DelaunayTriangulation triangulation;
+
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(42);
+    points = new DT_Point[pointCount];
+    for (int i = 0; i < pointCount; i++) {
+      points[i] = point(random);
+    }
+    queries = new DT_Point[QUERY_COUNT];
+    for (int i = 0; i < QUERY_COUNT; i++) {
+      DT_Point p = point(random);
+      queries[i] = new DT_Point(p.x, p.y);
+    }
+    triangulation = build();
+  }
+
+  /**
+   * returns a uniform point, or a point of one of five gaussian clusters of
+   * very different spread.
+   */
+  private DT_Point point(Random random) {
+    if (distribution.equals("uniform")) {
+      return new DT_Point(random.nextDouble() * EXTENT, random.nextDouble()
+          * EXTENT, random.nextDouble());
+    }
+    int c = random.nextInt(5);
+    double spread = EXTENT * Math.pow(10, -c - 1);
+    return new DT_Point(EXTENT * (0.1 + 0.18 * c) + random.nextGaussian()
+        * spread, EXTENT * (0.9 - 0.17 * c) + random.nextGaussian() * spread,
+        random.nextDouble());
+  }
+
+  /**
+   * Inserts the points one by one in random order with the index attached.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public DelaunayTriangulation build() {
+    DelaunayTriangulation result = new DelaunayTriangulation();
+    int head = Math.min(pointCount, 16);
+    for (int i = 0; i < head; i++) {
+      result.insertPoint(points[i]);
+    }
+    if (index.equals("grid")) {
+      result.IndexData(GRID_CELLS, GRID_CELLS);
+    } else if (index.equals("quadtree")) {
+      result.IndexDataAdaptive();
+    }
+    for (int i = head; i < pointCount; i++) {
+      result.insertPoint(points[i]);
+    }
+    return result;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 3, time = 1)
+  @Measurement(iterations = 5, time = 1)
+  public DT_Triangle find() {
+    DT_Point query = queries[next++ & (QUERY_COUNT - 1)];
+    return triangulation.find(query);
+  }
+
+}
@@ -0,0 +1,250 @@
+package com.sudoplay.math.delaunay;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for building, querying and editing a
+ * {@link DelaunayTriangulation} of uniformly random points.
+ * <p>
+ * The larger point counts take a long time to build; restrict a run with
+ * {@code -p pointCount=10000}.
+ */
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g", "-Xss64m" })
+@State(Scope.Benchmark)
+public class DelaunayTriangulationBenchmark {
+
+  @Param({ "10000", "100000", "1000000", "10000000" })
+  public int pointCount;
+
+  private static final int QUERY_COUNT = 1024;
+  private static final int BATCH_COUNT = 1 << 20;
+  private static final int NEIGHBOR_COUNT = 16;
+  private static final int POLYLINE_COUNT = 10000;
+  private static final double EXTENT = 1000.0;
+
+  private DT_Point[] points;
+  private DT_Point[] queries;
+  private DT_Point[] batchQueries;
+  private double[] batchX, batchY, batchZ;
+  private DT_Triangle[] batchTriangles;
+  private DT_Point[] neighbors = new DT_Point[NEIGHBOR_COUNT];
+  private DT_Point[] polyline;
+  private DelaunayTriangulation triangulation;
+  private ForkJoinPool pool;
+  private DT_ParallelBuilder builder;
+
+  private int next;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    Random random = new Random(42);
+    points = new DT_Point[pointCount];
+    for (int i = 0; i < pointCount; i++) {
+      points[i] = new DT_Point(random.nextDouble() * EXTENT, random.nextDouble() * EXTENT, random.nextDouble());
+    }
+    queries = new DT_Point[QUERY_COUNT];
+    for (int i = 0; i < QUERY_COUNT; i++) {
+      // keep the queries off the hull so deletePoint has a full neighborhood
+      queries[i] = new DT_Point(EXTENT * 0.1 + random.nextDouble() * EXTENT * 0.8, EXTENT * 0.1 + random.nextDouble() * EXTENT * 0.8, random.nextDouble());
+    }
+    batchQueries = new DT_Point[BATCH_COUNT];
+    batchX = new double[BATCH_COUNT];
+    batchY = new double[BATCH_COUNT];
+    for (int i = 0; i < BATCH_COUNT; i++) {
+      batchX[i] = EXTENT * 0.1 + random.nextDouble() * EXTENT * 0.8;
+      batchY[i] = EXTENT * 0.1 + random.nextDouble() * EXTENT * 0.8;
+      batchQueries[i] = new DT_Point(batchX[i], batchY[i]);
+    }
+    // a random walk, crossing itself now and then like a digitized coastline
+    polyline = new DT_Point[POLYLINE_COUNT];
+    double x = EXTENT / 2, y = EXTENT / 2, angle = 0;
+    for (int i = 0; i < POLYLINE_COUNT; i++) {
+      angle += random.nextGaussian() * 0.3;
+      double nx = x + Math.cos(angle) * 2, ny = y + Math.sin(angle) * 2;
+      if (nx < 1 || nx > EXTENT - 1 || ny < 1 || ny > EXTENT - 1) {
+        // turn back at the border
+        angle += Math.PI;
+        nx = x + Math.cos(angle) * 2;
+        ny = y + Math.sin(angle) * 2;
+      }
+      x = nx;
+      y = ny;
+      polyline[i] = new DT_Point(x, y, random.nextDouble());
+    }
+    batchZ = new double[BATCH_COUNT];
+    batchTriangles = new DT_Triangle[BATCH_COUNT];
+    // the spatially sorted insertion of buildSpatialSort; the constructor is
+    // superlinear and would dominate the trial setup of every benchmark
+    triangulation = new DelaunayTriangulation();
+    triangulation.insertPoints(points);
+    pool = new ForkJoinPool();
+    builder = new DT_ParallelBuilder(pool);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    pool.shutdown();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public DelaunayTriangulation build() {
+    return new DelaunayTriangulation(points);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public DelaunayTriangulation buildSpatialSort() {
+    DelaunayTriangulation result = new DelaunayTriangulation();
+    result.insertPoints(points);
+    return result;
+  }
+
+  /**
+   * Builds like buildSpatialSort, then inserts the edges of a polyline as
+   * constrained edges.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public DelaunayTriangulation buildConstrained() {
+    DelaunayTriangulation result = new DelaunayTriangulation();
+    result.insertPoints(points);
+    for (int i = 1; i < POLYLINE_COUNT; i++) {
+      result.insertConstrainedEdge(polyline[i - 1], polyline[i]);
+    }
+    return result;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public DelaunayTriangulation buildParallel() {
+    return builder.build(points);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 3, time = 1)
+  @Measurement(iterations = 5, time = 1)
+  public DT_Triangle find() {
+    DT_Point query = queries[next++ & (QUERY_COUNT - 1)];
+    return triangulation.find(query);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 3, time = 1)
+  @Measurement(iterations = 5, time = 1)
+  public double z() {
+    DT_Point query = queries[next++ & (QUERY_COUNT - 1)];
+    return triangulation.z(query.x, query.y);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 3, time = 1)
+  @Measurement(iterations = 5, time = 1)
+  public DT_Point nearestVertex() {
+    DT_Point query = queries[next++ & (QUERY_COUNT - 1)];
+    return triangulation.nearestVertex(query.x, query.y);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 3, time = 1)
+  @Measurement(iterations = 5, time = 1)
+  public DT_Point[] kNearest() {
+    DT_Point query = queries[next++ & (QUERY_COUNT - 1)];
+    triangulation.kNearest(query.x, query.y, NEIGHBOR_COUNT, neighbors);
+    return neighbors;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public DT_Triangle[] findAll() {
+    triangulation.findAll(batchQueries, batchTriangles);
+    return batchTriangles;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public double[] zAll() {
+    triangulation.z(batchX, batchY, batchZ);
+    return batchZ;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public double[] zAllParallel() {
+    triangulation.z(batchX, batchY, batchZ, pool);
+    return batchZ;
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  @Warmup(iterations = 1)
+  @Measurement(iterations = 3)
+  public DT_VoronoiDiagram voronoi() {
+    return new DT_VoronoiDiagram(triangulation,
+        triangulation.getBoundingBox());
+  }
+
+  /**
+   * Inserts a query point and removes it again so that the triangulation is
+   * the same size on every invocation.
+   */
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  @Warmup(iterations = 3, time = 1)
+  @Measurement(iterations = 5, time = 1)
+  public void insertDelete(Blackhole blackhole) {
+    DT_Point query = queries[next++ & (QUERY_COUNT - 1)];
+    triangulation.insertPoint(query);
+    triangulation.deletePoint(query);
+    blackhole.consume(triangulation);
+  }
+
+}
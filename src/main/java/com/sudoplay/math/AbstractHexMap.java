@@ -0,0 +1,446 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.Arrays;
+
+/**
+ * Base class for the hex keyed maps {@link HexMap}, {@link HexIntMap} and
+ * {@link HexFloatMap}.
+ * <p>
+ * Keys are axial hex coordinates packed into a single {@code long} (see
+ * {@link #pack(int, int)}) and stored in a flat array with open addressing
+ * and linear probing; there are no entry objects, no boxing and no
+ * {@link Hex2i} instances. The values live in a parallel array in the
+ * subclass. Removal shifts the following entries back instead of leaving
+ * tombstones, so lookups stay short under churn.
+ * <p>
+ * The packed key 0, hex (0, 0), is used to mark free slots and is stored
+ * separately in the last slot of the arrays.
+ * <p>
+ * A slot of a {@link HexIntMap} takes 12 bytes, so at the default load factor
+ * of 0.75 an entry takes 16 to 32 bytes depending on how full the table is,
+ * against roughly 80 bytes for a {@code HashMap<Hex2i, Integer>}. The maps
+ * are not thread safe.
+ *
+ * @author Jason Taylor
+ */
+public abstract class AbstractHexMap {
+
+  /**
+   * The default load factor, 0.75.
+   */
+  public static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+  /**
+   * The default expected number of entries, 16.
+   */
+  public static final int DEFAULT_EXPECTED_SIZE = 16;
+
+  private static final int MAX_CAPACITY = 1 << 30;
+
+  final float loadFactor;
+
+  // keys[0..mask] are the hash slots; keys[mask + 1] is the slot of key 0
+  long[] keys;
+  int mask;
+  int maxFill;
+  int size;
+  boolean containsZero;
+
+  AbstractHexMap(int expectedSize, float loadFactor) {
+    if (expectedSize < 0) {
+      throw new IllegalArgumentException("Expected size must be non-negative: " + expectedSize);
+    }
+    if (!(loadFactor > 0f && loadFactor < 1f)) {
+      throw new IllegalArgumentException("Load factor must be greater than 0 and less than 1: " + loadFactor);
+    }
+    this.loadFactor = loadFactor;
+    int n = capacityFor(expectedSize, loadFactor);
+    this.keys = new long[n + 1];
+    this.mask = n - 1;
+    this.maxFill = maxFill(n, loadFactor);
+  }
+
+  /**
+   * Packs axial hex coordinates into the key used by the hex maps.
+   *
+   * @param q
+   * @param r
+   * @return the packed key
+   */
+  public static long pack(int q, int r) {
+    return ((long) q << 32) | (r & 0xFFFFFFFFL);
+  }
+
+  /**
+   * @param key
+   *          a packed key
+   * @return the axial q coordinate of the key
+   */
+  public static int unpackQ(long key) {
+    return (int) (key >>> 32);
+  }
+
+  /**
+   * @param key
+   *          a packed key
+   * @return the axial r coordinate of the key
+   */
+  public static int unpackR(long key) {
+    return (int) key;
+  }
+
+  /**
+   * @return the number of entries in this map
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return true if this map has no entries
+   */
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @param q
+   * @param r
+   * @return true if this map has an entry for hex (q, r)
+   */
+  public boolean containsKey(int q, int r) {
+    return indexOf(pack(q, r)) >= 0;
+  }
+
+  /**
+   * @param hex
+   * @return true if this map has an entry for {@code hex}
+   */
+  public boolean containsKey(Hex2i hex) {
+    return indexOf(pack(hex.q, hex.r)) >= 0;
+  }
+
+  /**
+   * Returns the number of hexes within {@code range} from center {@code cube}
+   * that have an entry in this map.
+   *
+   * @param cube
+   * @param range
+   * @return the number of entries in range
+   */
+  public int countInRange(Vector3i cube, int range) {
+    return rangeOp(RANGE_COUNT, cube, range, null, 0);
+  }
+
+  /**
+   * Passes the key of every entry in this map to {@code visitor}, in no
+   * particular order. The map must not be modified by the visitor.
+   *
+   * @param visitor
+   */
+  public void forEachKey(HexVisitor visitor) {
+    long[] keys = this.keys;
+    for (int i = 0; i <= mask; i++) {
+      long k = keys[i];
+      if (k != 0) {
+        int q = unpackQ(k);
+        int r = unpackR(k);
+        visitor.visit(q, r, -q - r);
+      }
+    }
+    if (containsZero) {
+      visitor.visit(0, 0, 0);
+    }
+  }
+
+  /**
+   * Removes all entries from this map; the capacity is kept.
+   */
+  public void clear() {
+    if (size == 0) {
+      return;
+    }
+    size = 0;
+    containsZero = false;
+    Arrays.fill(keys, 0);
+    clearValues();
+  }
+
+  /**
+   * Returns the slot of {@code k}, or -1 if it has no entry.
+   */
+  final int indexOf(long k) {
+    if (k == 0) {
+      return containsZero ? mask + 1 : -1;
+    }
+    long[] keys = this.keys;
+    int pos = mix(k) & mask;
+    long cur;
+    while ((cur = keys[pos]) != 0) {
+      if (cur == k) {
+        return pos;
+      }
+      pos = (pos + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Returns the slot of {@code k}; if it has no entry the key is claimed and
+   * the complement of the slot is returned. The caller must store the value
+   * and then call {@link #inserted()}.
+   */
+  final int insert(long k) {
+    if (k == 0) {
+      if (containsZero) {
+        return mask + 1;
+      }
+      containsZero = true;
+      return ~(mask + 1);
+    }
+    long[] keys = this.keys;
+    int pos = mix(k) & mask;
+    long cur;
+    while ((cur = keys[pos]) != 0) {
+      if (cur == k) {
+        return pos;
+      }
+      pos = (pos + 1) & mask;
+    }
+    keys[pos] = k;
+    return ~pos;
+  }
+
+  final void inserted() {
+    if (++size >= maxFill && mask + 1 < MAX_CAPACITY) {
+      rehash((mask + 1) << 1);
+    }
+  }
+
+  /**
+   * Removes the entry in slot {@code pos}, shifting back the entries that
+   * follow it in the probe sequence.
+   */
+  final void removeAt(int pos) {
+    size--;
+    if (pos == mask + 1) {
+      containsZero = false;
+      clearValue(pos);
+      return;
+    }
+    long[] keys = this.keys;
+    int last, slot;
+    long cur;
+    for (;;) {
+      pos = ((last = pos) + 1) & mask;
+      for (;;) {
+        if ((cur = keys[pos]) == 0) {
+          keys[last] = 0;
+          clearValue(last);
+          return;
+        }
+        slot = mix(cur) & mask;
+        if (last <= pos ? last >= slot || slot > pos : last >= slot && slot > pos) {
+          break;
+        }
+        pos = (pos + 1) & mask;
+      }
+      keys[last] = cur;
+      moveValue(pos, last);
+    }
+  }
+
+  private void rehash(int n) {
+    long[] oldKeys = keys;
+    int oldN = mask + 1;
+    Object oldValues = resizeValues(n + 1);
+    long[] newKeys = new long[n + 1];
+    int newMask = n - 1;
+    for (int i = 0; i < oldN; i++) {
+      long k = oldKeys[i];
+      if (k != 0) {
+        int pos = mix(k) & newMask;
+        while (newKeys[pos] != 0) {
+          pos = (pos + 1) & newMask;
+        }
+        newKeys[pos] = k;
+        copyValue(oldValues, i, pos);
+      }
+    }
+    copyValue(oldValues, oldN, n);
+    keys = newKeys;
+    mask = newMask;
+    maxFill = maxFill(n, loadFactor);
+  }
+
+  /**
+   * @return the length of the key and value arrays for a new map
+   */
+  final int arrayLength() {
+    return mask + 2;
+  }
+
+  /**
+   * Replaces the value array with a new, empty array of {@code length} and
+   * returns the old one.
+   */
+  abstract Object resizeValues(int length);
+
+  /**
+   * Copies the value in slot {@code src} of the old value array {@code from}
+   * into slot {@code dst} of the current value array.
+   */
+  abstract void copyValue(Object from, int src, int dst);
+
+  /**
+   * Copies the value in slot {@code pos}, or the default value if
+   * {@code pos} is negative, into element {@code dst} of the value array
+   * {@code to}.
+   */
+  abstract void readValue(int pos, Object to, int dst);
+
+  /**
+   * Stores the value of the running {@code fillRange} call in slot
+   * {@code pos}.
+   */
+  abstract void fillValue(int pos);
+
+  /**
+   * Moves the value in slot {@code src} to slot {@code dst}.
+   */
+  abstract void moveValue(int src, int dst);
+
+  abstract void clearValue(int pos);
+
+  abstract void clearValues();
+
+  // the operations of rangeOp
+  static final int RANGE_COUNT = 0;
+  static final int RANGE_GET = 1;
+  static final int RANGE_PUT = 2;
+  static final int RANGE_FILL = 3;
+  static final int RANGE_REMOVE = 4;
+
+  /**
+   * Applies {@code op} to the hexes within {@code range} from center
+   * {@code cube}, in {@link HexMath#rangeCube(Vector3i, int)} order; this is
+   * the loop of the range methods of the subclasses. {@code RANGE_GET} reads
+   * each value into the next element of the value array {@code array},
+   * starting at {@code offset}, and {@code RANGE_PUT} stores the next element.
+   * {@code RANGE_FILL} stores the fill value of the subclass into every hex
+   * (see fillValue), {@code array} is not used.
+   * {@code RANGE_REMOVE} removes the entries and {@code RANGE_COUNT} only
+   * counts them.
+   *
+   * @return the number of hexes that had an entry
+   */
+  final int rangeOp(int op, Vector3i cube, int range, Object array, int offset) {
+    int count = 0;
+    int i = offset;
+    for (int x = -range; x <= range; x++) {
+      int q = x + cube.x;
+      int ymax = Math.min(range, -x + range);
+      for (int y = Math.max(-range, -x - range); y <= ymax; y++) {
+        long k = pack(q, -x - y + cube.z);
+        if (op == RANGE_PUT) {
+          if (putValue(k, array, i++)) {
+            count++;
+          }
+        } else if (op == RANGE_FILL) {
+          if (fillKey(k)) {
+            count++;
+          }
+        } else {
+          int pos = indexOf(k);
+          if (op == RANGE_GET) {
+            readValue(pos, array, i++);
+          }
+          if (pos >= 0) {
+            count++;
+            if (op == RANGE_REMOVE) {
+              removeAt(pos);
+            }
+          }
+        }
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Stores element {@code src} of the value array {@code from} as the value
+   * of {@code k}; returns true if {@code k} already had an entry.
+   */
+  private boolean putValue(long k, Object from, int src) {
+    int pos = insert(k);
+    if (pos < 0) {
+      copyValue(from, src, ~pos);
+      inserted();
+      return false;
+    }
+    copyValue(from, src, pos);
+    return true;
+  }
+
+  /**
+   * Stores the fill value as the value of {@code k}; returns true if
+   * {@code k} already had an entry.
+   */
+  private boolean fillKey(long k) {
+    int pos = insert(k);
+    if (pos < 0) {
+      fillValue(~pos);
+      inserted();
+      return false;
+    }
+    fillValue(pos);
+    return true;
+  }
+
+  static void checkRange(int length, int offset, int range) {
+    int count = HexMath.rangeCubeSize(range);
+    if (offset < 0 || offset > length - count) {
+      throw new IndexOutOfBoundsException("Range " + range + " needs " + count + " elements from offset " + offset + ", array length " + length);
+    }
+  }
+
+  private static int mix(long k) {
+    long h = k * 0x9E3779B97F4A7C15L;
+    h ^= h >>> 32;
+    return (int) (h ^ (h >>> 16));
+  }
+
+  private static int capacityFor(int expectedSize, float loadFactor) {
+    long n = (long) Math.ceil(expectedSize / loadFactor);
+    if (n >= MAX_CAPACITY) {
+      return MAX_CAPACITY;
+    }
+    return Math.max(2, Integer.highestOneBit((int) n - 1) << 1);
+  }
+
+  private static int maxFill(int n, float loadFactor) {
+    return Math.min((int) Math.ceil(n * loadFactor), n - 1);
+  }
+
+}
@@ -0,0 +1,266 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+/**
+ * {@code HexCursor} is a reusable, allocation-free iterator over the same hex
+ * cube coordinates, in the same order, as {@link HexMath#rangeCube},
+ * {@link HexMath#intersectCube}, {@link HexMath#ringCube} and
+ * {@link HexMath#lineCube}. Instead of filling a list with new
+ * {@link Vector3i}s, the cursor is positioned with one of the reset methods
+ * and advanced with {@link #next()}:
+ * 
+ * <pre>
+ * HexCursor cursor = new HexCursor();
+ * cursor.range(center, 20);
+ * while (cursor.next()) {
+ *   map.get(cursor.getQ(), cursor.getR());
+ * }
+ * </pre>
+ * 
+ * A cursor can be reset any number of times and never allocates after
+ * construction. It is not thread safe.
+ * 
+ * @author Jason Taylor
+ */
+public final class HexCursor {
+
+  private static final int DONE = 0;
+  private static final int AREA = 1;
+  private static final int RING = 2;
+  private static final int LINE = 3;
+
+  private int mode = DONE;
+
+  // current hex in cube coordinates
+  private int cx, cy, cz;
+
+  // area: x up to xEnd, y up to yEnd for the current x, offset added to each
+  // hex
+  private int x, xEnd, y, yEnd;
+  private int ymin, ymax, zmin, zmax;
+  private int ox, oy, oz;
+
+  // ring and line: remaining hexes and the walk state
+  private int remaining;
+  private int side, step, range;
+  private final Vector3i walk = new Vector3i();
+
+  // line: accumulated float position and per step increment
+  private float lx, ly, lz, dx, dy, dz;
+  private boolean lineStart;
+
+  /**
+   * Positions this cursor before the hexes within {@code range} of
+   * {@code center}.
+   * 
+   * @param center
+   * @param range
+   * @return this
+   * @see HexMath#rangeCube(Vector3i, int, java.util.List)
+   */
+  public HexCursor range(Vector3i center, int range) {
+    return area(-range, range, -range, range, -range, range, center.x, center.y, center.z);
+  }
+
+  /**
+   * Positions this cursor before the hexes within range {@code r1} of
+   * {@code c1} and range {@code r2} of {@code c2}.
+   * 
+   * @param c1
+   * @param c2
+   * @param r1
+   * @param r2
+   * @return this
+   * @see HexMath#intersectCube(Vector3i, Vector3i, int, int, java.util.List)
+   */
+  public HexCursor intersection(Vector3i c1, Vector3i c2, int r1, int r2) {
+    return area(Math.max(c1.x - r1, c2.x - r2), Math.min(c1.x + r1, c2.x + r2), Math.max(c1.y - r1, c2.y - r2), Math.min(c1.y + r1, c2.y + r2),
+        Math.max(c1.z - r1, c2.z - r2), Math.min(c1.z + r1, c2.z + r2), 0, 0, 0);
+  }
+
+  private HexCursor area(int xmin, int xmax, int ymin, int ymax, int zmin, int zmax, int ox, int oy, int oz) {
+    this.mode = AREA;
+    this.x = xmin - 1;
+    this.xEnd = xmax;
+    this.y = 1;
+    this.yEnd = 0;
+    this.ymin = ymin;
+    this.ymax = ymax;
+    this.zmin = zmin;
+    this.zmax = zmax;
+    this.ox = ox;
+    this.oy = oy;
+    this.oz = oz;
+    return this;
+  }
+
+  /**
+   * Positions this cursor before the hexes in the ring with radius
+   * {@code range} around {@code center}.
+   * 
+   * @param center
+   * @param range
+   * @return this
+   * @see HexMath#ringCube(Vector3i, int, java.util.List)
+   */
+  public HexCursor ring(Vector3i center, int range) {
+    this.mode = RING;
+    this.range = range;
+    this.remaining = Math.max(0, range * 6);
+    this.side = 0;
+    this.step = 0;
+    HexMath.neighborCube(Vector3i.ZERO, 4, walk).multLocal(range).addLocal(center);
+    return this;
+  }
+
+  /**
+   * Positions this cursor before the hexes on the line from {@code start} to
+   * {@code end}, both included.
+   * 
+   * @param start
+   * @param end
+   * @return this
+   * @see HexMath#lineCube(Vector3i, Vector3i, java.util.List)
+   */
+  public HexCursor line(Vector3i start, Vector3i end) {
+    this.mode = LINE;
+    this.lineStart = true;
+    this.remaining = HexMath.distanceCube(start, end);
+    this.walk.set(start);
+    this.lx = start.x;
+    this.ly = start.y;
+    this.lz = start.z;
+    if (remaining > 0) {
+      float f = 1.0f / (float) remaining;
+      this.dx = (end.x - start.x) * f;
+      this.dy = (end.y - start.y) * f;
+      this.dz = (end.z - start.z) * f;
+    }
+    return this;
+  }
+
+  /**
+   * Advances this cursor to the next hex.
+   * 
+   * @return true if the cursor is on a hex, false if the iteration is
+   *         finished
+   */
+  public boolean next() {
+    switch (mode) {
+
+    case AREA:
+      while (y > yEnd) {
+        if (++x > xEnd) {
+          mode = DONE;
+          return false;
+        }
+        y = Math.max(ymin, -x - zmax);
+        yEnd = Math.min(ymax, -x - zmin);
+      }
+      cx = x + ox;
+      cy = y + oy;
+      cz = -x - y + oz;
+      y++;
+      return true;
+
+    case RING:
+      if (remaining == 0) {
+        mode = DONE;
+        return false;
+      }
+      cx = walk.x;
+      cy = walk.y;
+      cz = walk.z;
+      HexMath.neighborCube(walk, side, walk);
+      if (++step == range) {
+        step = 0;
+        side++;
+      }
+      remaining--;
+      return true;
+
+    case LINE:
+      if (lineStart) {
+        lineStart = false;
+      } else if (remaining == 0) {
+        mode = DONE;
+        return false;
+      } else {
+        lx += dx;
+        ly += dy;
+        lz += dz;
+        HexMath.roundCube(lx, ly, lz, walk);
+        remaining--;
+      }
+      cx = walk.x;
+      cy = walk.y;
+      cz = walk.z;
+      return true;
+
+    default:
+      return false;
+    }
+  }
+
+  /**
+   * @return the axial q coordinate (cube x) of the current hex
+   */
+  public int getQ() {
+    return cx;
+  }
+
+  /**
+   * @return the axial r coordinate (cube z) of the current hex
+   */
+  public int getR() {
+    return cz;
+  }
+
+  /**
+   * @return the cube y coordinate of the current hex, {@code -q - r}
+   */
+  public int getS() {
+    return cy;
+  }
+
+  /**
+   * Stores the cube coordinates of the current hex in {@code store}.
+   * 
+   * @param store
+   * @return store
+   */
+  public Vector3i get(Vector3i store) {
+    return store.set(cx, cy, cz);
+  }
+
+  /**
+   * Stores the axial coordinates of the current hex in {@code store}.
+   * 
+   * @param store
+   * @return store
+   */
+  public Hex2i get(Hex2i store) {
+    return store.set(cx, cz);
+  }
+
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.Arrays;
+
+/**
+ * {@code HexFieldOfView} computes the hexes visible from an origin hex within
+ * a radius.
+ * <p>
+ * A hex is visible if no hex strictly between it and the origin on the line
+ * of {@link #lineOfSight(int, int, int, int, HexOpacity)} is opaque; opaque
+ * hexes are visible themselves, and the opacity of the origin is ignored.
+ * <p>
+ * The lines from the origin to every hex within a radius are computed once
+ * per radius and cached in a tree of shared prefixes, in hex offsets from the
+ * origin, so computing a field of view calls the {@link HexOpacity} once per
+ * tree node in front of the first opaque hex of each ray, and never
+ * allocates. The result is kept in a bitset that is reused by the next
+ * computation.
+ * 
+ * <pre>
+ * HexFieldOfView fov = new HexFieldOfView();
+ * fov.compute(q, r, 12, opacity);
+ * if (fov.isVisible(enemyQ, enemyR)) {
+ *   ...
+ * }
+ * </pre>
+ * 
+ * A field of view is not thread safe; the cached ray tables are shared by all
+ * instances.
+ * 
+ * @author Jason Taylor
+ */
+public final class HexFieldOfView {
+
+  private HexRayTable table;
+  private int originQ;
+  private int originR;
+  private long[] bits = new long[0];
+
+  /**
+   * Constructor instantiates a new {@code HexFieldOfView} with no visible
+   * hexes.
+   */
+  public HexFieldOfView() {
+    //
+  }
+
+  /**
+   * Computes the hexes visible from {@code origin} within {@code radius}.
+   * 
+   * @param origin
+   * @param radius
+   * @param opacity
+   * @return this
+   */
+  public HexFieldOfView compute(Vector3i origin, int radius, HexOpacity opacity) {
+    return compute(origin.x, origin.z, radius, opacity);
+  }
+
+  /**
+   * Computes the hexes visible from axial hex (q, r) within {@code radius}.
+   * 
+   * @param q
+   * @param r
+   * @param radius
+   * @param opacity
+   * @return this
+   */
+  public HexFieldOfView compute(int q, int r, int radius, HexOpacity opacity) {
+    if (radius < 0) {
+      throw new IllegalArgumentException("Radius must not be negative: " + radius);
+    }
+    HexRayTable table = HexRayTable.get(radius);
+    int words = (table.cellCount + 63) >>> 6;
+    if (bits.length < words) {
+      bits = new long[words];
+    } else {
+      Arrays.fill(bits, 0, words, 0);
+    }
+    this.table = table;
+    this.originQ = q;
+    this.originR = r;
+
+    long[] bits = this.bits;
+    int[] nodeQ = table.nodeQ;
+    int[] nodeR = table.nodeR;
+    int[] cell = table.cell;
+    int[] skip = table.skip;
+    int n = cell.length;
+    int origin = cell[0] >>> 1;
+    bits[origin >>> 6] |= 1L << origin;
+    int i = 1;
+    while (i < n) {
+      int c = cell[i];
+      if ((c & 1) != 0) {
+        c >>>= 1;
+        bits[c >>> 6] |= 1L << c;
+      }
+      int next = skip[i];
+      // leaves have nothing behind them to hide
+      if (next != i + 1 && opacity.isOpaque(q + nodeQ[i], r + nodeR[i])) {
+        i = next;
+      } else {
+        i++;
+      }
+    }
+    return this;
+  }
+
+  /**
+   * @return the radius of the last computation, or -1 if nothing has been
+   *         computed
+   */
+  public int getRadius() {
+    return table == null ? -1 : table.radius;
+  }
+
+  /**
+   * @return the axial q coordinate of the origin of the last computation
+   */
+  public int getOriginQ() {
+    return originQ;
+  }
+
+  /**
+   * @return the axial r coordinate of the origin of the last computation
+   */
+  public int getOriginR() {
+    return originR;
+  }
+
+  /**
+   * @param q
+   * @param r
+   * @return true if axial hex (q, r) was visible in the last computation
+   */
+  public boolean isVisible(int q, int r) {
+    if (table == null) {
+      return false;
+    }
+    int c = table.localIndex(q - originQ, r - originR);
+    return c != -1 && (bits[c >>> 6] & 1L << c) != 0;
+  }
+
+  /**
+   * @param cube
+   * @return true if hex {@code cube} was visible in the last computation
+   */
+  public boolean isVisible(Vector3i cube) {
+    return isVisible(cube.x, cube.z);
+  }
+
+  /**
+   * @return the number of hexes visible in the last computation
+   */
+  public int getVisibleCount() {
+    if (table == null) {
+      return 0;
+    }
+    int count = 0;
+    for (int w = (table.cellCount + 63) >>> 6; --w >= 0;) {
+      count += Long.bitCount(bits[w]);
+    }
+    return count;
+  }
+
+  /**
+   * Visits the hexes visible in the last computation, in the order of
+   * {@link HexMath#rangeCube(Vector3i, int)} around the origin.
+   * 
+   * @param visitor
+   */
+  public void forEachVisible(HexVisitor visitor) {
+    if (table == null) {
+      return;
+    }
+    int[] cellQ = table.cellQ;
+    int[] cellR = table.cellR;
+    int words = (table.cellCount + 63) >>> 6;
+    for (int w = 0; w < words; w++) {
+      long word = bits[w];
+      while (word != 0) {
+        int c = w << 6 | Long.numberOfTrailingZeros(word);
+        word &= word - 1;
+        int q = originQ + cellQ[c];
+        int r = originR + cellR[c];
+        visitor.visit(q, r, -q - r);
+      }
+    }
+  }
+
+  /**
+   * Returns true if no hex strictly between axial hexes (q1, r1) and
+   * (q2, r2) is opaque. The hexes between are those of
+   * {@link HexMath#lineCube(Vector3i, Vector3i, java.util.List)}, computed
+   * from the offset between the hexes so that the result does not depend on
+   * where the hexes are; this matches {@link HexFieldOfView} visibility.
+   * 
+   * @param q1
+   * @param r1
+   * @param q2
+   * @param r2
+   * @param opacity
+   * @return true if there is a line of sight
+   */
+  public static boolean lineOfSight(int q1, int r1, int q2, int r2, HexOpacity opacity) {
+    int dq = q2 - q1;
+    int dr = r2 - r1;
+    int n = (Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr)) / 2;
+    if (n < 2) {
+      return true;
+    }
+    float f = 1.0f / (float) n;
+    float x1 = 0, y1 = 0, z1 = 0;
+    float x2 = dq * f;
+    float y2 = (-dq - dr) * f;
+    float z2 = dr * f;
+
+    for (int i = 1; i < n; i++) {
+      x1 += x2;
+      y1 += y2;
+      z1 += z2;
+      // HexMath.roundCube(x1, y1, z1, store) into locals
+      int rx = Math.round(x1);
+      int ry = Math.round(y1);
+      int rz = Math.round(z1);
+      if (rx + ry + rz != 0) {
+        float dx = Math.abs(rx - x1);
+        float dy = Math.abs(ry - y1);
+        float dz = Math.abs(rz - z1);
+        if (dx > dy && dx > dz) {
+          rx = -ry - rz;
+        } else if (dy > dz) {
+          ry = -rx - rz;
+        } else {
+          rz = -rx - ry;
+        }
+      }
+      if (opacity.isOpaque(q1 + rx, r1 + rz)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
@@ -0,0 +1,429 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * {@code HexFlood} runs breadth-first searches over the cells of a
+ * {@link HexGrid}: multi-source distance fields, flood fills and connected
+ * component labels.
+ * <p>
+ * Cells are addressed by grid index and the frontier is a primitive ring
+ * buffer queue. Results are written to a layer of an output grid with the
+ * same width and height as the searched grid, which may be the searched grid
+ * itself; the output layer also serves as the visited set, so a search
+ * allocates nothing once its queue has grown. Which cells can be entered is
+ * decided by a {@link HexCellPredicate}.
+ * <p>
+ * {@link #labelComponents(HexCellPredicate, HexGrid, int, ForkJoinPool)}
+ * splits the grid into bands of rows that are labeled in parallel and then
+ * joined; the predicate must be safe to call from several threads.
+ * <p>
+ * A {@code HexFlood} is not thread safe; use one per thread.
+ * 
+ * <pre>
+ * HexFlood flood = new HexFlood(grid);
+ * flood.distanceField(towns, towns.length, passable, 20, influence, 0, 1);
+ * int owner = influence.get(index, 1);
+ * </pre>
+ * 
+ * @author Jason Taylor
+ */
+public final class HexFlood {
+
+  /**
+   * The value of output cells that were not reached.
+   */
+  public static final int UNREACHED = -1;
+
+  private final HexGrid grid;
+  private final IntQueue queue = new IntQueue(1024);
+  private final int[] neighbors = new int[6];
+
+  /**
+   * Constructor instantiates a new {@code HexFlood} for {@code grid}.
+   * 
+   * @param grid
+   */
+  public HexFlood(HexGrid grid) {
+    this.grid = grid;
+  }
+
+  /**
+   * @return the grid searched by this flood
+   */
+  public HexGrid getGrid() {
+    return grid;
+  }
+
+  /**
+   * Writes the number of steps from the nearest of the first {@code count}
+   * cells of {@code sources} to every cell within {@code maxDistance} steps
+   * into {@code distanceLayer} of {@code out}; other cells are set to
+   * {@link #UNREACHED}.
+   * 
+   * @param sources
+   *          cell indices; sources are always reached, passable or not
+   * @param count
+   * @param passable
+   * @param maxDistance
+   * @param out
+   * @param distanceLayer
+   * @return the number of cells reached
+   */
+  public int distanceField(int[] sources, int count, HexCellPredicate passable, int maxDistance, HexGrid out, int distanceLayer) {
+    return distanceField(sources, count, passable, maxDistance, out, distanceLayer, -1);
+  }
+
+  /**
+   * Writes the number of steps from the nearest of the first {@code count}
+   * cells of {@code sources} to every cell within {@code maxDistance} steps
+   * into {@code distanceLayer} of {@code out}, and the position in
+   * {@code sources} of that nearest source into {@code ownerLayer}; other
+   * cells are set to {@link #UNREACHED} in both layers. A cell at the same
+   * distance from several sources is owned by the earliest of them in
+   * {@code sources}.
+   * 
+   * @param sources
+   *          cell indices; sources are always reached, passable or not
+   * @param count
+   * @param passable
+   * @param maxDistance
+   * @param out
+   * @param distanceLayer
+   * @param ownerLayer
+   *          the layer for source positions, or -1 for none
+   * @return the number of cells reached
+   */
+  public int distanceField(int[] sources, int count, HexCellPredicate passable, int maxDistance, HexGrid out, int distanceLayer,
+      int ownerLayer) {
+    checkOutput(out);
+    out.fill(distanceLayer, UNREACHED);
+    if (ownerLayer != -1) {
+      out.fill(ownerLayer, UNREACHED);
+    }
+    IntQueue queue = this.queue;
+    queue.clear();
+    int reached = 0;
+    for (int i = 0; i < count; i++) {
+      int source = sources[i];
+      if (out.get(source, distanceLayer) == UNREACHED) {
+        out.set(source, distanceLayer, 0);
+        if (ownerLayer != -1) {
+          out.set(source, ownerLayer, i);
+        }
+        queue.add(source);
+        reached++;
+      }
+    }
+
+    HexGrid grid = this.grid;
+    int[] neighbors = this.neighbors;
+    while (!queue.isEmpty()) {
+      int u = queue.remove();
+      int d = out.get(u, distanceLayer);
+      if (d >= maxDistance) {
+        continue;
+      }
+      int owner = ownerLayer == -1 ? 0 : out.get(u, ownerLayer);
+      grid.neighbors(u, neighbors);
+      for (int direction = 0; direction < 6; direction++) {
+        int v = neighbors[direction];
+        if (v == -1 || out.get(v, distanceLayer) != UNREACHED || !passable.test(v)) {
+          continue;
+        }
+        out.set(v, distanceLayer, d + 1);
+        if (ownerLayer != -1) {
+          out.set(v, ownerLayer, owner);
+        }
+        queue.add(v);
+        reached++;
+      }
+    }
+    return reached;
+  }
+
+  /**
+   * Sets {@code layer} of {@code out} to {@code label} for the cell at
+   * {@code start} and every passable cell connected to it. Cells that already
+   * hold {@code label} are treated as filled and are not passed through.
+   * 
+   * @param start
+   *          a cell index; the start cell is always filled, passable or not
+   * @param passable
+   * @param out
+   * @param layer
+   * @param label
+   * @return the number of cells filled
+   */
+  public int floodFill(int start, HexCellPredicate passable, HexGrid out, int layer, int label) {
+    checkOutput(out);
+    if (out.get(start, layer) == label) {
+      return 0;
+    }
+    IntQueue queue = this.queue;
+    queue.clear();
+    out.set(start, layer, label);
+    queue.add(start);
+    return fill(queue, passable, out, layer, label, 0, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Labels the connected components of passable cells: {@code layer} of
+   * {@code out} is set to the component number of each passable cell, and to
+   * {@link #UNREACHED} for every other cell. Components are numbered from 0
+   * in order of their first cell, row by row.
+   * 
+   * @param passable
+   * @param out
+   * @param layer
+   * @return the number of components
+   */
+  public int labelComponents(HexCellPredicate passable, HexGrid out, int layer) {
+    checkOutput(out);
+    out.fill(layer, UNREACHED);
+    HexGrid grid = this.grid;
+    IntQueue queue = this.queue;
+    int width = grid.getWidth();
+    int height = grid.getHeight();
+    int components = 0;
+    for (int row = 0; row < height; row++) {
+      for (int col = 0; col < width; col++) {
+        int index = grid.index(col, row);
+        if (out.get(index, layer) == UNREACHED && passable.test(index)) {
+          queue.clear();
+          out.set(index, layer, components);
+          queue.add(index);
+          fill(queue, passable, out, layer, components, 0, Integer.MAX_VALUE);
+          components++;
+        }
+      }
+    }
+    return components;
+  }
+
+  /**
+   * Labels the connected components of passable cells, as
+   * {@link #labelComponents(HexCellPredicate, HexGrid, int)}, using the
+   * threads of {@code pool}. The grid is split into bands of rows that are
+   * labeled separately and then joined along their edges, so the result is
+   * the same as that of the single threaded method. {@code passable} must be
+   * safe to call from several threads, and neither grid may be modified by
+   * other threads meanwhile.
+   * 
+   * @param passable
+   * @param out
+   * @param layer
+   * @param pool
+   * @return the number of components
+   */
+  public int labelComponents(HexCellPredicate passable, HexGrid out, int layer, ForkJoinPool pool) {
+    checkOutput(out);
+    int width = grid.getWidth();
+    int height = grid.getHeight();
+    int bandRows = Math.max(HexGrid.CHUNK_SIZE, (height + pool.getParallelism() * 4 - 1) / (pool.getParallelism() * 4));
+    int bands = (height + bandRows - 1) / bandRows;
+    if (bands == 1) {
+      return labelComponents(passable, out, layer);
+    }
+    // all chunks are allocated here, so that the bands only write to
+    // existing arrays
+    out.fill(layer, UNREACHED);
+
+    // each band labels its cells with the row-major position of the first
+    // cell of their component in the band; parents link those labels across
+    // bands, always toward the smaller label, and are -1 for other positions
+    int[] parents = new int[width * height];
+    Arrays.fill(parents, -1);
+    pool.invoke(new BandTask(passable, out, layer, parents, bandRows, 0, bands, false));
+
+    int[] neighbors = this.neighbors;
+    for (int band = 1; band < bands; band++) {
+      int row = band * bandRows - 1;
+      for (int col = 0; col < width; col++) {
+        int index = grid.index(col, row);
+        int a = out.get(index, layer);
+        if (a == UNREACHED) {
+          continue;
+        }
+        grid.neighbors(index, neighbors);
+        for (int direction = 0; direction < 6; direction++) {
+          int v = neighbors[direction];
+          if (v == -1 || grid.getRow(v) <= row) {
+            continue;
+          }
+          int b = out.get(v, layer);
+          if (b != UNREACHED) {
+            union(parents, a, b);
+          }
+        }
+      }
+    }
+
+    // number the roots in row-major order; every label links to a smaller
+    // one, so walking up the labels finds each parent already numbered, and
+    // numbers are stored as -(number + 2) to tell them from parents
+    int components = 0;
+    for (int i = 0, n = width * height; i < n; i++) {
+      int parent = parents[i];
+      if (parent == i) {
+        parents[i] = -(components++ + 2);
+      } else if (parent != -1) {
+        parents[i] = parents[parent];
+      }
+    }
+    pool.invoke(new BandTask(passable, out, layer, parents, bandRows, 0, bands, true));
+    return components;
+  }
+
+  private void checkOutput(HexGrid out) {
+    if (out.getWidth() != grid.getWidth() || out.getHeight() != grid.getHeight()) {
+      throw new IllegalArgumentException("Output grid must be " + grid.getWidth() + " x " + grid.getHeight() + ": " + out.getWidth()
+          + " x " + out.getHeight());
+    }
+  }
+
+  /**
+   * Fills from the cells in {@code queue}, which are already labeled, within
+   * rows {@code minRow} to {@code maxRow} exclusive.
+   */
+  private int fill(IntQueue queue, HexCellPredicate passable, HexGrid out, int layer, int label, int minRow, int maxRow) {
+    HexGrid grid = this.grid;
+    int[] neighbors = this.neighbors;
+    int filled = queue.size();
+    while (!queue.isEmpty()) {
+      grid.neighbors(queue.remove(), neighbors);
+      for (int direction = 0; direction < 6; direction++) {
+        int v = neighbors[direction];
+        if (v == -1) {
+          continue;
+        }
+        if (minRow > 0 || maxRow < Integer.MAX_VALUE) {
+          int row = grid.getRow(v);
+          if (row < minRow || row >= maxRow) {
+            continue;
+          }
+        }
+        if (out.get(v, layer) == label || !passable.test(v)) {
+          continue;
+        }
+        out.set(v, layer, label);
+        queue.add(v);
+        filled++;
+      }
+    }
+    return filled;
+  }
+
+  private static int find(int[] parents, int i) {
+    while (parents[i] != i) {
+      int parent = parents[parents[i]];
+      parents[i] = parent;
+      i = parent;
+    }
+    return i;
+  }
+
+  private static void union(int[] parents, int a, int b) {
+    a = find(parents, a);
+    b = find(parents, b);
+    if (a < b) {
+      parents[b] = a;
+    } else if (b < a) {
+      parents[a] = b;
+    }
+  }
+
+  /**
+   * Labels, or with {@code relabel} renumbers, the bands {@code from} to
+   * {@code to} exclusive.
+   */
+  private final class BandTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    private final HexCellPredicate passable;
+    private final HexGrid out;
+    private final int layer;
+    private final int[] parents;
+    private final int bandRows;
+    private final int from;
+    private final int to;
+    private final boolean relabel;
+
+    BandTask(HexCellPredicate passable, HexGrid out, int layer, int[] parents, int bandRows, int from, int to, boolean relabel) {
+      this.passable = passable;
+      this.out = out;
+      this.layer = layer;
+      this.parents = parents;
+      this.bandRows = bandRows;
+      this.from = from;
+      this.to = to;
+      this.relabel = relabel;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from > 1) {
+        int mid = (from + to) >>> 1;
+        invokeAll(new BandTask(passable, out, layer, parents, bandRows, from, mid, relabel),
+            new BandTask(passable, out, layer, parents, bandRows, mid, to, relabel));
+        return;
+      }
+      HexGrid grid = HexFlood.this.grid;
+      int width = grid.getWidth();
+      int minRow = from * bandRows;
+      int maxRow = Math.min(minRow + bandRows, grid.getHeight());
+      if (relabel) {
+        for (int row = minRow; row < maxRow; row++) {
+          for (int col = 0; col < width; col++) {
+            int index = grid.index(col, row);
+            int label = out.get(index, layer);
+            if (label != UNREACHED) {
+              out.set(index, layer, -parents[label] - 2);
+            }
+          }
+        }
+        return;
+      }
+      HexFlood flood = new HexFlood(grid);
+      IntQueue queue = flood.queue;
+      for (int row = minRow; row < maxRow; row++) {
+        for (int col = 0; col < width; col++) {
+          int index = grid.index(col, row);
+          if (out.get(index, layer) == UNREACHED && passable.test(index)) {
+            int label = row * width + col;
+            parents[label] = label;
+            queue.clear();
+            out.set(index, layer, label);
+            queue.add(index);
+            flood.fill(queue, passable, out, layer, label, minRow, maxRow);
+          }
+        }
+      }
+    }
+  }
+
+}
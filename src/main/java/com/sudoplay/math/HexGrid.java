@@ -0,0 +1,656 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.Arrays;
+
+/**
+ * {@code HexGrid} is dense, bounded storage for per-hex primitive values on a
+ * {@code width} by {@code height} map in offset coordinates.
+ * <p>
+ * The map is split into square chunks of {@link #CHUNK_SIZE} cells per side.
+ * Each chunk is one contiguous {@code int} array holding every layer of its
+ * cells, and is only allocated when a value in it is first set; reading a
+ * cell of an unallocated chunk returns the default value.
+ * <p>
+ * Cells are addressed by an {@code int} index, obtained from offset, axial or
+ * cube coordinates with {@link #index(int, int)}, {@link #indexAxial(int, int)}
+ * or {@link #indexCube(Vector3i)}. The index encodes the chunk and the cell
+ * within the chunk with shifts only, so {@link #neighbor(int, int)} and
+ * {@link #neighbors(int, int[])} are a few integer operations instead of a
+ * neighbor {@link Hex2i} and a hash lookup.
+ * Directions are those of the matching {@link HexMath} neighbor method for
+ * the grid's {@link Layout}, for example {@link HexMath#neighborOddR}.
+ * <p>
+ * Float values can be stored in any layer with {@link #getFloat(int, int)}
+ * and {@link #setFloat(int, int, float)}. A grid is not thread safe.
+ * 
+ * <pre>
+ * HexGrid grid = new HexGrid(1024, 1024, HexGrid.Layout.ODD_R);
+ * int index = grid.index(col, row);
+ * for (int direction = 0; direction &lt; 6; direction++) {
+ *   int n = grid.neighbor(index, direction);
+ *   if (n != -1) {
+ *     sum += grid.get(n);
+ *   }
+ * }
+ * </pre>
+ * 
+ * @author Jason Taylor
+ */
+public final class HexGrid {
+
+  /**
+   * The offset coordinate layouts, as described by the matching conversion
+   * methods in {@link HexMath}.
+   */
+  public enum Layout {
+
+    /**
+     * Pointy tops, odd rows shoved right; see
+     * {@link HexMath#convertCubeToOddR(Vector3i, Hex2i)}.
+     */
+    ODD_R {
+      @Override
+      public int toCol(int q, int r) {
+        return q + (r - (r & 1)) / 2;
+      }
+
+      @Override
+      public int toRow(int q, int r) {
+        return r;
+      }
+
+      @Override
+      public int toQ(int col, int row) {
+        return col - (row - (row & 1)) / 2;
+      }
+
+      @Override
+      public int toR(int col, int row) {
+        return row;
+      }
+
+      @Override
+      Hex2i neighbor(Hex2i hex, int direction, Hex2i store) {
+        return HexMath.neighborOddR(hex, direction, store);
+      }
+    },
+
+    /**
+     * Pointy tops, even rows shoved right; see
+     * {@link HexMath#convertCubeToEvenR(Vector3i, Hex2i)}.
+     */
+    EVEN_R {
+      @Override
+      public int toCol(int q, int r) {
+        return q + (r + (r & 1)) / 2;
+      }
+
+      @Override
+      public int toRow(int q, int r) {
+        return r;
+      }
+
+      @Override
+      public int toQ(int col, int row) {
+        return col - (row + (row & 1)) / 2;
+      }
+
+      @Override
+      public int toR(int col, int row) {
+        return row;
+      }
+
+      @Override
+      Hex2i neighbor(Hex2i hex, int direction, Hex2i store) {
+        return HexMath.neighborEvenR(hex, direction, store);
+      }
+    },
+
+    /**
+     * Flat tops, odd columns shoved down; see
+     * {@link HexMath#convertCubeToOddQ(Vector3i, Hex2i)}.
+     */
+    ODD_Q {
+      @Override
+      public int toCol(int q, int r) {
+        return q;
+      }
+
+      @Override
+      public int toRow(int q, int r) {
+        return r + (q - (q & 1)) / 2;
+      }
+
+      @Override
+      public int toQ(int col, int row) {
+        return col;
+      }
+
+      @Override
+      public int toR(int col, int row) {
+        return row - (col - (col & 1)) / 2;
+      }
+
+      @Override
+      Hex2i neighbor(Hex2i hex, int direction, Hex2i store) {
+        return HexMath.neighborOddQ(hex, direction, store);
+      }
+    },
+
+    /**
+     * Flat tops, even columns shoved down; see
+     * {@link HexMath#convertCubeToEvenQ(Vector3i, Hex2i)}.
+     */
+    EVEN_Q {
+      @Override
+      public int toCol(int q, int r) {
+        return q;
+      }
+
+      @Override
+      public int toRow(int q, int r) {
+        return r + (q + (q & 1)) / 2;
+      }
+
+      @Override
+      public int toQ(int col, int row) {
+        return col;
+      }
+
+      @Override
+      public int toR(int col, int row) {
+        return row - (col + (col & 1)) / 2;
+      }
+
+      @Override
+      Hex2i neighbor(Hex2i hex, int direction, Hex2i store) {
+        return HexMath.neighborEvenQ(hex, direction, store);
+      }
+    };
+
+    /**
+     * @param q
+     * @param r
+     * @return the offset column of axial hex (q, r)
+     */
+    public abstract int toCol(int q, int r);
+
+    /**
+     * @param q
+     * @param r
+     * @return the offset row of axial hex (q, r)
+     */
+    public abstract int toRow(int q, int r);
+
+    /**
+     * @param col
+     * @param row
+     * @return the axial q coordinate of offset hex (col, row)
+     */
+    public abstract int toQ(int col, int row);
+
+    /**
+     * @param col
+     * @param row
+     * @return the axial r coordinate of offset hex (col, row)
+     */
+    public abstract int toR(int col, int row);
+
+    abstract Hex2i neighbor(Hex2i hex, int direction, Hex2i store);
+
+    boolean isRowParity() {
+      return this == ODD_R || this == EVEN_R;
+    }
+  }
+
+  /**
+   * The number of cells per chunk side, 16.
+   */
+  public static final int CHUNK_SIZE = 16;
+
+  private static final int CHUNK_BITS = 4;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+  private static final int CELL_SHIFT = CHUNK_BITS * 2;
+  private static final int CELL_MASK = (1 << CELL_SHIFT) - 1;
+
+  private final int width;
+  private final int height;
+  private final Layout layout;
+  private final int layers;
+
+  private final int chunkXBits;
+  private final int chunkXMask;
+  private final boolean rowParity;
+
+  // column and row deltas by [parity * 6 + direction]
+  private final int[] neighborCol = new int[12];
+  private final int[] neighborRow = new int[12];
+  // index deltas of neighbors in the same chunk by [parity * 6 + direction]
+  private final int[] neighborDelta = new int[12];
+
+  private final int[][] chunks;
+  private int allocatedChunks;
+  private int defaultValue;
+
+  /**
+   * Constructor instantiates a new, empty {@code HexGrid} with one layer.
+   * 
+   * @param width
+   *          the number of columns
+   * @param height
+   *          the number of rows
+   * @param layout
+   */
+  public HexGrid(int width, int height, Layout layout) {
+    this(width, height, layout, 1);
+  }
+
+  /**
+   * Constructor instantiates a new, empty {@code HexGrid}.
+   * 
+   * @param width
+   *          the number of columns
+   * @param height
+   *          the number of rows
+   * @param layout
+   * @param layers
+   *          the number of values stored per cell
+   */
+  public HexGrid(int width, int height, Layout layout, int layers) {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Width and height must be positive: " + width + ", " + height);
+    }
+    if (layers <= 0) {
+      throw new IllegalArgumentException("Layers must be positive: " + layers);
+    }
+    this.width = width;
+    this.height = height;
+    this.layout = layout;
+    this.layers = layers;
+    this.rowParity = layout.isRowParity();
+
+    int chunksX = ((width - 1) >> CHUNK_BITS) + 1;
+    int chunksY = ((height - 1) >> CHUNK_BITS) + 1;
+    this.chunkXBits = 32 - Integer.numberOfLeadingZeros(chunksX - 1);
+    this.chunkXMask = (1 << chunkXBits) - 1;
+    long indexCount = ((long) chunksY << chunkXBits) << CELL_SHIFT;
+    if (indexCount > Integer.MAX_VALUE || (long) layers << CELL_SHIFT > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("Grid too large: " + width + " x " + height);
+    }
+    this.chunks = new int[chunksY << chunkXBits][];
+
+    Hex2i hex = new Hex2i();
+    Hex2i store = new Hex2i();
+    for (int parity = 0; parity < 2; parity++) {
+      if (rowParity) {
+        hex.set(0, parity);
+      } else {
+        hex.set(parity, 0);
+      }
+      for (int direction = 0; direction < 6; direction++) {
+        layout.neighbor(hex, direction, store);
+        neighborCol[parity * 6 + direction] = store.q - hex.q;
+        neighborRow[parity * 6 + direction] = store.r - hex.r;
+        neighborDelta[parity * 6 + direction] = (store.r - hex.r) * CHUNK_SIZE + store.q - hex.q;
+      }
+    }
+  }
+
+  /**
+   * @return the number of columns
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * @return the number of rows
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * @return the offset coordinate layout
+   */
+  public Layout getLayout() {
+    return layout;
+  }
+
+  /**
+   * @return the number of values stored per cell
+   */
+  public int getLayers() {
+    return layers;
+  }
+
+  /**
+   * @return the number of chunks that have been allocated
+   */
+  public int getAllocatedChunks() {
+    return allocatedChunks;
+  }
+
+  /**
+   * @return the value of cells that have not been set
+   */
+  public int getDefaultValue() {
+    return defaultValue;
+  }
+
+  /**
+   * Sets the value of cells that have not been set. Cells of chunks that are
+   * already allocated keep their values.
+   * 
+   * @param defaultValue
+   * @return this
+   */
+  public HexGrid setDefaultValue(int defaultValue) {
+    this.defaultValue = defaultValue;
+    return this;
+  }
+
+  /**
+   * @param col
+   * @param row
+   * @return true if offset hex (col, row) is on this grid
+   */
+  public boolean contains(int col, int row) {
+    return col >= 0 && row >= 0 && col < width && row < height;
+  }
+
+  /**
+   * @param col
+   * @param row
+   * @return the index of offset hex (col, row), or -1 if it is not on this
+   *         grid
+   */
+  public int index(int col, int row) {
+    if (col < 0 || row < 0 || col >= width || row >= height) {
+      return -1;
+    }
+    return encode(col, row);
+  }
+
+  /**
+   * @param q
+   * @param r
+   * @return the index of axial hex (q, r), or -1 if it is not on this grid
+   */
+  public int indexAxial(int q, int r) {
+    return index(layout.toCol(q, r), layout.toRow(q, r));
+  }
+
+  /**
+   * @param cube
+   * @return the index of hex {@code cube}, or -1 if it is not on this grid
+   */
+  public int indexCube(Vector3i cube) {
+    return indexAxial(cube.x, cube.z);
+  }
+
+  /**
+   * @param index
+   * @return the offset column of the cell at {@code index}
+   */
+  public int getCol(int index) {
+    return ((index >>> CELL_SHIFT) & chunkXMask) << CHUNK_BITS | (index & CHUNK_MASK);
+  }
+
+  /**
+   * @param index
+   * @return the offset row of the cell at {@code index}
+   */
+  public int getRow(int index) {
+    return ((index >>> CELL_SHIFT) >>> chunkXBits) << CHUNK_BITS | ((index >>> CHUNK_BITS) & CHUNK_MASK);
+  }
+
+  /**
+   * Stores the axial coordinates of the cell at {@code index} in
+   * {@code store}.
+   * 
+   * @param index
+   * @param store
+   * @return store
+   */
+  public Hex2i getAxial(int index, Hex2i store) {
+    int col = getCol(index);
+    int row = getRow(index);
+    return store.set(layout.toQ(col, row), layout.toR(col, row));
+  }
+
+  /**
+   * Stores the cube coordinates of the cell at {@code index} in
+   * {@code store}.
+   * 
+   * @param index
+   * @param store
+   * @return store
+   */
+  public Vector3i getCube(int index, Vector3i store) {
+    int col = getCol(index);
+    int row = getRow(index);
+    int q = layout.toQ(col, row);
+    int r = layout.toR(col, row);
+    return store.set(q, -q - r, r);
+  }
+
+  /**
+   * Returns the hex distance between the cells at {@code index1} and
+   * {@code index2}, as {@link HexMath#distanceCube(Vector3i, Vector3i)}.
+   * 
+   * @param index1
+   * @param index2
+   * @return the number of steps between the cells
+   */
+  public int distance(int index1, int index2) {
+    int col1 = getCol(index1);
+    int row1 = getRow(index1);
+    int col2 = getCol(index2);
+    int row2 = getRow(index2);
+    int dq = layout.toQ(col1, row1) - layout.toQ(col2, row2);
+    int dr = layout.toR(col1, row1) - layout.toR(col2, row2);
+    return (Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr)) / 2;
+  }
+
+  /**
+   * Returns one more than the largest index of this grid, for sizing arrays
+   * that are indexed by cell index. Not every index below the limit is a cell
+   * of the grid.
+   * 
+   * @return the index limit
+   */
+  public int getIndexLimit() {
+    return chunks.length << CELL_SHIFT;
+  }
+
+  /**
+   * Returns the index of the neighbor of the cell at {@code index} in
+   * {@code direction}, as given by the {@link HexMath} neighbor method of this
+   * grid's layout.
+   * 
+   * @param index
+   * @param direction
+   *          an integer from 0 to 5
+   * @return the index of the neighbor, or -1 if it is not on this grid
+   */
+  public int neighbor(int index, int direction) {
+    int col = getCol(index);
+    int row = getRow(index);
+    int d = ((rowParity ? row : col) & 1) * 6 + direction;
+    col += neighborCol[d];
+    row += neighborRow[d];
+    if (col < 0 || row < 0 || col >= width || row >= height) {
+      return -1;
+    }
+    return encode(col, row);
+  }
+
+  /**
+   * Stores the indices of the six neighbors of the cell at {@code index} in
+   * {@code store}, in direction order; neighbors that are not on this grid are
+   * stored as -1. This is faster than six calls to
+   * {@link #neighbor(int, int)} when the cell is not on the edge of its
+   * chunk.
+   * 
+   * @param index
+   * @param store
+   *          an array of at least six elements
+   * @return store
+   */
+  public int[] neighbors(int index, int[] store) {
+    int col = getCol(index);
+    int row = getRow(index);
+    int lc = col & CHUNK_MASK;
+    int lr = row & CHUNK_MASK;
+    int p = ((rowParity ? row : col) & 1) * 6;
+    if (lc - 1 >= 0 && lr - 1 >= 0 && lc + 1 <= CHUNK_MASK && lr + 1 <= CHUNK_MASK && col + 1 < width && row + 1 < height) {
+      int[] delta = neighborDelta;
+      store[0] = index + delta[p];
+      store[1] = index + delta[p + 1];
+      store[2] = index + delta[p + 2];
+      store[3] = index + delta[p + 3];
+      store[4] = index + delta[p + 4];
+      store[5] = index + delta[p + 5];
+      return store;
+    }
+    for (int direction = 0; direction < 6; direction++) {
+      int c = col + neighborCol[p + direction];
+      int r = row + neighborRow[p + direction];
+      store[direction] = (c < 0 || r < 0 || c >= width || r >= height) ? -1 : encode(c, r);
+    }
+    return store;
+  }
+
+  /**
+   * @param index
+   * @return the value of layer 0 of the cell at {@code index}
+   */
+  public int get(int index) {
+    int[] chunk = chunks[index >>> CELL_SHIFT];
+    return chunk == null ? defaultValue : chunk[index & CELL_MASK];
+  }
+
+  /**
+   * @param index
+   * @param layer
+   * @return the value of {@code layer} of the cell at {@code index}
+   */
+  public int get(int index, int layer) {
+    int[] chunk = chunks[index >>> CELL_SHIFT];
+    return chunk == null ? defaultValue : chunk[layer << CELL_SHIFT | (index & CELL_MASK)];
+  }
+
+  /**
+   * Sets the value of layer 0 of the cell at {@code index}, allocating its
+   * chunk if needed.
+   * 
+   * @param index
+   * @param value
+   */
+  public void set(int index, int value) {
+    chunk(index)[index & CELL_MASK] = value;
+  }
+
+  /**
+   * Sets the value of {@code layer} of the cell at {@code index}, allocating
+   * its chunk if needed.
+   * 
+   * @param index
+   * @param layer
+   * @param value
+   */
+  public void set(int index, int layer, int value) {
+    chunk(index)[layer << CELL_SHIFT | (index & CELL_MASK)] = value;
+  }
+
+  /**
+   * @param index
+   * @param layer
+   * @return the value of {@code layer} of the cell at {@code index}, read as
+   *         float bits
+   */
+  public float getFloat(int index, int layer) {
+    return Float.intBitsToFloat(get(index, layer));
+  }
+
+  /**
+   * Sets the value of {@code layer} of the cell at {@code index} to the bits
+   * of {@code value}, allocating its chunk if needed.
+   * 
+   * @param index
+   * @param layer
+   * @param value
+   */
+  public void setFloat(int index, int layer, float value) {
+    set(index, layer, Float.floatToRawIntBits(value));
+  }
+
+  /**
+   * Sets {@code layer} of every cell to {@code value}, allocating every chunk
+   * that holds cells of this grid.
+   * 
+   * @param layer
+   * @param value
+   */
+  public void fill(int layer, int value) {
+    int from = layer << CELL_SHIFT;
+    int to = from + (1 << CELL_SHIFT);
+    // rows of chunks are padded to a power of two; skip the padding
+    int chunksX = ((width - 1) >> CHUNK_BITS) + 1;
+    for (int c = 0; c < chunks.length; c++) {
+      if ((c & chunkXMask) < chunksX) {
+        Arrays.fill(chunk(c << CELL_SHIFT), from, to, value);
+      }
+    }
+  }
+
+  /**
+   * Releases all chunks; every cell reads as the default value afterwards.
+   */
+  public void clear() {
+    Arrays.fill(chunks, null);
+    allocatedChunks = 0;
+  }
+
+  private int encode(int col, int row) {
+    int chunk = (row >> CHUNK_BITS) << chunkXBits | (col >> CHUNK_BITS);
+    return chunk << CELL_SHIFT | (row & CHUNK_MASK) << CHUNK_BITS | (col & CHUNK_MASK);
+  }
+
+  private int[] chunk(int index) {
+    int c = index >>> CELL_SHIFT;
+    int[] chunk = chunks[c];
+    if (chunk == null) {
+      chunk = new int[layers << CELL_SHIFT];
+      if (defaultValue != 0) {
+        Arrays.fill(chunk, defaultValue);
+      }
+      chunks[c] = chunk;
+      allocatedChunks++;
+    }
+    return chunk;
+  }
+
+}
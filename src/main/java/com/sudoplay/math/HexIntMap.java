@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.Arrays;
+
+/**
+ * {@code HexIntMap} maps axial hex coordinates to primitive {@code int}
+ * values; see {@link AbstractHexMap} for the storage layout.
+ * <p>
+ * Lookups of hexes that have no entry return the map's default value, 0
+ * unless set with {@link #setDefaultValue(int)}.
+ * <p>
+ * The range methods read or write the hexes within a range of a center hex in
+ * the order of {@link HexMath#rangeCube(Vector3i, int)}: element {@code i} of
+ * the array corresponds to element {@code i} of the list returned by
+ * {@code rangeCube}, and the array must hold
+ * {@link HexMath#rangeCubeSize(int)} elements from the offset.
+ *
+ * @author Jason Taylor
+ */
+public final class HexIntMap extends AbstractHexMap {
+
+  private int[] values;
+  private int defaultValue;
+  // the value of the running fillRange call
+  private int fill;
+
+  /**
+   * Constructor instantiates a new, empty {@code HexIntMap} sized for
+   * {@link #DEFAULT_EXPECTED_SIZE} entries.
+   */
+  public HexIntMap() {
+    this(DEFAULT_EXPECTED_SIZE, DEFAULT_LOAD_FACTOR);
+  }
+
+  /**
+   * Constructor instantiates a new, empty {@code HexIntMap} that holds
+   * {@code expectedSize} entries without resizing.
+   *
+   * @param expectedSize
+   */
+  public HexIntMap(int expectedSize) {
+    this(expectedSize, DEFAULT_LOAD_FACTOR);
+  }
+
+  /**
+   * Constructor instantiates a new, empty {@code HexIntMap} that holds
+   * {@code expectedSize} entries without resizing.
+   *
+   * @param expectedSize
+   * @param loadFactor
+   *          greater than 0 and less than 1
+   */
+  public HexIntMap(int expectedSize, float loadFactor) {
+    super(expectedSize, loadFactor);
+    values = new int[arrayLength()];
+  }
+
+  /**
+   * @return the value returned for hexes that have no entry
+   */
+  public int getDefaultValue() {
+    return defaultValue;
+  }
+
+  /**
+   * Sets the value returned for hexes that have no entry.
+   *
+   * @param defaultValue
+   * @return this
+   */
+  public HexIntMap setDefaultValue(int defaultValue) {
+    this.defaultValue = defaultValue;
+    return this;
+  }
+
+  /**
+   * @param q
+   * @param r
+   * @return the value of hex (q, r), or the default value
+   */
+  public int get(int q, int r) {
+    int pos = indexOf(pack(q, r));
+    return pos < 0 ? defaultValue : values[pos];
+  }
+
+  /**
+   * @param hex
+   * @return the value of {@code hex}, or the default value
+   */
+  public int get(Hex2i hex) {
+    return get(hex.q, hex.r);
+  }
+
+  /**
+   * Sets the value of hex (q, r).
+   *
+   * @param q
+   * @param r
+   * @param value
+   * @return the previous value, or the default value
+   */
+  public int put(int q, int r, int value) {
+    int pos = insert(pack(q, r));
+    if (pos < 0) {
+      values[~pos] = value;
+      inserted();
+      return defaultValue;
+    }
+    int old = values[pos];
+    values[pos] = value;
+    return old;
+  }
+
+  /**
+   * Sets the value of {@code hex}.
+   *
+   * @param hex
+   * @param value
+   * @return the previous value, or the default value
+   */
+  public int put(Hex2i hex, int value) {
+    return put(hex.q, hex.r, value);
+  }
+
+  /**
+   * Adds {@code amount} to the value of hex (q, r); a hex without an entry
+   * starts from the default value.
+   *
+   * @param q
+   * @param r
+   * @param amount
+   * @return the new value
+   */
+  public int add(int q, int r, int amount) {
+    int pos = insert(pack(q, r));
+    if (pos < 0) {
+      int value = defaultValue + amount;
+      values[~pos] = value;
+      inserted();
+      return value;
+    }
+    return values[pos] += amount;
+  }
+
+  /**
+   * Removes the entry of hex (q, r).
+   *
+   * @param q
+   * @param r
+   * @return the removed value, or the default value
+   */
+  public int remove(int q, int r) {
+    int pos = indexOf(pack(q, r));
+    if (pos < 0) {
+      return defaultValue;
+    }
+    int old = values[pos];
+    removeAt(pos);
+    return old;
+  }
+
+  /**
+   * Removes the entry of {@code hex}.
+   *
+   * @param hex
+   * @return the removed value, or the default value
+   */
+  public int remove(Hex2i hex) {
+    return remove(hex.q, hex.r);
+  }
+
+  /**
+   * Reads the values of the hexes within {@code range} from center
+   * {@code cube} into {@code store}, in {@link HexMath#rangeCube(Vector3i, int)}
+   * order; hexes without an entry read as the default value.
+   *
+   * @param cube
+   * @param range
+   * @param store
+   * @param offset
+   * @return store
+   */
+  public int[] getRange(Vector3i cube, int range, int[] store, int offset) {
+    checkRange(store.length, offset, range);
+    rangeOp(RANGE_GET, cube, range, store, offset);
+    return store;
+  }
+
+  /**
+   * Sets the values of the hexes within {@code range} from center
+   * {@code cube} from {@code values}, in
+   * {@link HexMath#rangeCube(Vector3i, int)} order.
+   *
+   * @param cube
+   * @param range
+   * @param values
+   * @param offset
+   */
+  public void putRange(Vector3i cube, int range, int[] values, int offset) {
+    checkRange(values.length, offset, range);
+    rangeOp(RANGE_PUT, cube, range, values, offset);
+  }
+
+  /**
+   * Sets the value of every hex within {@code range} from center {@code cube}
+   * to {@code value}.
+   *
+   * @param cube
+   * @param range
+   * @param value
+   */
+  public void fillRange(Vector3i cube, int range, int value) {
+    fill = value;
+    rangeOp(RANGE_FILL, cube, range, null, 0);
+  }
+
+  /**
+   * Removes the entries of the hexes within {@code range} from center
+   * {@code cube}.
+   *
+   * @param cube
+   * @param range
+   * @return the number of entries removed
+   */
+  public int removeRange(Vector3i cube, int range) {
+    return rangeOp(RANGE_REMOVE, cube, range, null, 0);
+  }
+
+  @Override
+  Object resizeValues(int length) {
+    int[] old = values;
+    values = new int[length];
+    return old;
+  }
+
+  @Override
+  void copyValue(Object from, int src, int dst) {
+    values[dst] = ((int[]) from)[src];
+  }
+
+  @Override
+  void readValue(int pos, Object to, int dst) {
+    ((int[]) to)[dst] = pos < 0 ? defaultValue : values[pos];
+  }
+
+  @Override
+  void fillValue(int pos) {
+    values[pos] = fill;
+  }
+
+  @Override
+  void moveValue(int src, int dst) {
+    values[dst] = values[src];
+  }
+
+  @Override
+  void clearValue(int pos) {
+    // primitive values are left in place
+  }
+
+  @Override
+  void clearValues() {
+    Arrays.fill(values, 0);
+  }
+
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.Arrays;
+
+/**
+ * {@code HexMap} maps axial hex coordinates to objects; see
+ * {@link AbstractHexMap} for the storage layout. It replaces a
+ * {@code HashMap<Hex2i, T>} without the entry, key and boxing overhead.
+ * <p>
+ * Like {@link java.util.HashMap}, {@link #get(int, int)} returns null both
+ * for hexes without an entry and for entries with a null value; use
+ * {@link #containsKey(int, int)} to tell them apart.
+ * <p>
+ * The range methods read or write the hexes within a range of a center hex in
+ * the order of {@link HexMath#rangeCube(Vector3i, int)}: element {@code i} of
+ * the array corresponds to element {@code i} of the list returned by
+ * {@code rangeCube}, and the array must hold
+ * {@link HexMath#rangeCubeSize(int)} elements from the offset.
+ *
+ * @author Jason Taylor
+ *
+ * @param <T>
+ *          the value type
+ */
+public final class HexMap<T> extends AbstractHexMap {
+
+  private Object[] values;
+  // the value of the running fillRange call
+  private T fill;
+
+  /**
+   * Constructor instantiates a new, empty {@code HexMap} sized for
+   * {@link #DEFAULT_EXPECTED_SIZE} entries.
+   */
+  public HexMap() {
+    this(DEFAULT_EXPECTED_SIZE, DEFAULT_LOAD_FACTOR);
+  }
+
+  /**
+   * Constructor instantiates a new, empty {@code HexMap} that holds
+   * {@code expectedSize} entries without resizing.
+   *
+   * @param expectedSize
+   */
+  public HexMap(int expectedSize) {
+    this(expectedSize, DEFAULT_LOAD_FACTOR);
+  }
+
+  /**
+   * Constructor instantiates a new, empty {@code HexMap} that holds
+   * {@code expectedSize} entries without resizing.
+   *
+   * @param expectedSize
+   * @param loadFactor
+   *          greater than 0 and less than 1
+   */
+  public HexMap(int expectedSize, float loadFactor) {
+    super(expectedSize, loadFactor);
+    values = new Object[arrayLength()];
+  }
+
+  /**
+   * @param q
+   * @param r
+   * @return the value of hex (q, r), or null
+   */
+  @SuppressWarnings("unchecked")
+  public T get(int q, int r) {
+    int pos = indexOf(pack(q, r));
+    return pos < 0 ? null : (T) values[pos];
+  }
+
+  /**
+   * @param hex
+   * @return the value of {@code hex}, or null
+   */
+  public T get(Hex2i hex) {
+    return get(hex.q, hex.r);
+  }
+
+  /**
+   * Sets the value of hex (q, r).
+   *
+   * @param q
+   * @param r
+   * @param value
+   * @return the previous value, or null
+   */
+  @SuppressWarnings("unchecked")
+  public T put(int q, int r, T value) {
+    int pos = insert(pack(q, r));
+    if (pos < 0) {
+      values[~pos] = value;
+      inserted();
+      return null;
+    }
+    T old = (T) values[pos];
+    values[pos] = value;
+    return old;
+  }
+
+  /**
+   * Sets the value of {@code hex}.
+   *
+   * @param hex
+   * @param value
+   * @return the previous value, or null
+   */
+  public T put(Hex2i hex, T value) {
+    return put(hex.q, hex.r, value);
+  }
+
+  /**
+   * Removes the entry of hex (q, r).
+   *
+   * @param q
+   * @param r
+   * @return the removed value, or null
+   */
+  @SuppressWarnings("unchecked")
+  public T remove(int q, int r) {
+    int pos = indexOf(pack(q, r));
+    if (pos < 0) {
+      return null;
+    }
+    T old = (T) values[pos];
+    removeAt(pos);
+    return old;
+  }
+
+  /**
+   * Removes the entry of {@code hex}.
+   *
+   * @param hex
+   * @return the removed value, or null
+   */
+  public T remove(Hex2i hex) {
+    return remove(hex.q, hex.r);
+  }
+
+  /**
+   * Reads the values of the hexes within {@code range} from center
+   * {@code cube} into {@code store}, in {@link HexMath#rangeCube(Vector3i, int)}
+   * order; hexes without an entry read as null.
+   *
+   * @param cube
+   * @param range
+   * @param store
+   * @param offset
+   * @return store
+   */
+  public T[] getRange(Vector3i cube, int range, T[] store, int offset) {
+    checkRange(store.length, offset, range);
+    rangeOp(RANGE_GET, cube, range, store, offset);
+    return store;
+  }
+
+  /**
+   * Sets the values of the hexes within {@code range} from center
+   * {@code cube} from {@code values}, in
+   * {@link HexMath#rangeCube(Vector3i, int)} order.
+   *
+   * @param cube
+   * @param range
+   * @param values
+   * @param offset
+   */
+  public void putRange(Vector3i cube, int range, T[] values, int offset) {
+    checkRange(values.length, offset, range);
+    rangeOp(RANGE_PUT, cube, range, values, offset);
+  }
+
+  /**
+   * Sets the value of every hex within {@code range} from center {@code cube}
+   * to {@code value}.
+   *
+   * @param cube
+   * @param range
+   * @param value
+   */
+  public void fillRange(Vector3i cube, int range, T value) {
+    fill = value;
+    rangeOp(RANGE_FILL, cube, range, null, 0);
+    fill = null; // do not keep the value reachable
+  }
+
+  /**
+   * Removes the entries of the hexes within {@code range} from center
+   * {@code cube}.
+   *
+   * @param cube
+   * @param range
+   * @return the number of entries removed
+   */
+  public int removeRange(Vector3i cube, int range) {
+    return rangeOp(RANGE_REMOVE, cube, range, null, 0);
+  }
+
+  @Override
+  Object resizeValues(int length) {
+    Object[] old = values;
+    values = new Object[length];
+    return old;
+  }
+
+  @Override
+  void copyValue(Object from, int src, int dst) {
+    values[dst] = ((Object[]) from)[src];
+  }
+
+  @Override
+  void readValue(int pos, Object to, int dst) {
+    ((Object[]) to)[dst] = pos < 0 ? null : values[pos];
+  }
+
+  @Override
+  void fillValue(int pos) {
+    values[pos] = fill;
+  }
+
+  @Override
+  void moveValue(int src, int dst) {
+    values[dst] = values[src];
+  }
+
+  @Override
+  void clearValue(int pos) {
+    values[pos] = null;
+  }
+
+  @Override
+  void clearValues() {
+    Arrays.fill(values, null);
+  }
+
+}
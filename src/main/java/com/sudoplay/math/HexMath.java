@@ -56,7 +56,7 @@ public class HexMath {
       new Hex2i[] { new Hex2i(1, 0), new Hex2i(0, -1), new Hex2i(-1, -1), new Hex2i(-1, 0), new Hex2i(-1, 1), new Hex2i(0, 1) } };
 
   private static final Hex2i[][] ODD_Q_NEIGHBORS = new Hex2i[][] {
-      new Hex2i[] { new Hex2i(1, 0), new Hex2i(1, -1), new Hex2i(0, -1), new Hex2i(-1, 1), new Hex2i(-1, 0), new Hex2i(0, 1) },
+      new Hex2i[] { new Hex2i(1, 0), new Hex2i(1, -1), new Hex2i(0, -1), new Hex2i(-1, -1), new Hex2i(-1, 0), new Hex2i(0, 1) },
       new Hex2i[] { new Hex2i(1, 1), new Hex2i(1, 0), new Hex2i(0, -1), new Hex2i(-1, 0), new Hex2i(-1, 1), new Hex2i(0, 1) } };
 
   private static final Hex2i[][] EVEN_Q_NEIGHBORS = new Hex2i[][] {
@@ -534,6 +534,18 @@ public class HexMath {
     return store;
   }
 
+  /**
+   * Returns the number of hexes within {@code range} from a center hex, which
+   * is the size of the list returned by {@link #rangeCube(Vector3i, int)}.
+   * 
+   * @param range
+   * @return the number of hexes, {@code 3 * range * (range + 1) + 1}, or 0 if
+   *         {@code range} is negative
+   */
+  public static int rangeCubeSize(int range) {
+    return range < 0 ? 0 : 3 * range * (range + 1) + 1;
+  }
+
   /**
    * Returns a list of hex cube coordinates that fall within {@code range} from
    * center {@code cube}; a new list is created to store the results.
@@ -641,6 +653,133 @@ public class HexMath {
     return store;
   }
 
+  /**
+   * Visits the hex cube coordinates that fall within {@code range} from center
+   * {@code cube}, in the same order as {@link #rangeCube(Vector3i, int)},
+   * without allocating.
+   * 
+   * @param cube
+   * @param range
+   * @param visitor
+   * @see HexCursor#range(Vector3i, int)
+   */
+  public static void forEachInRange(Vector3i cube, int range, HexVisitor visitor) {
+    int cx = cube.x, cy = cube.y, cz = cube.z;
+    for (int x = -range; x <= range; x++) {
+      int ymax = Math.min(range, -x + range);
+      for (int y = Math.max(-range, -x - range); y <= ymax; y++) {
+        int z = -x - y;
+        visitor.visit(x + cx, z + cz, y + cy);
+      }
+    }
+  }
+
+  /**
+   * Visits the hex cube coordinates that fall within range {@code r1} of
+   * center {@code c1} and range {@code r2} of center {@code c2}, in the same
+   * order as {@link #intersectCube(Vector3i, Vector3i, int, int)}, without
+   * allocating.
+   * 
+   * @param c1
+   * @param c2
+   * @param r1
+   * @param r2
+   * @param visitor
+   * @see HexCursor#intersection(Vector3i, Vector3i, int, int)
+   */
+  public static void forEachInIntersection(Vector3i c1, Vector3i c2, int r1, int r2, HexVisitor visitor) {
+    int xmin = Math.max(c1.x - r1, c2.x - r2);
+    int xmax = Math.min(c1.x + r1, c2.x + r2);
+    int ymin = Math.max(c1.y - r1, c2.y - r2);
+    int ymax = Math.min(c1.y + r1, c2.y + r2);
+    int zmin = Math.max(c1.z - r1, c2.z - r2);
+    int zmax = Math.min(c1.z + r1, c2.z + r2);
+
+    for (int x = xmin; x <= xmax; x++) {
+      int yend = Math.min(ymax, -x - zmin);
+      for (int y = Math.max(ymin, -x - zmax); y <= yend; y++) {
+        visitor.visit(x, -x - y, y);
+      }
+    }
+  }
+
+  /**
+   * Visits the hex cube coordinates in a ring with radius {@code range} and
+   * center {@code c}, in the same order as {@link #ringCube(Vector3i, int)},
+   * without allocating.
+   * 
+   * @param c
+   * @param range
+   * @param visitor
+   * @see HexCursor#ring(Vector3i, int)
+   */
+  public static void forEachInRing(Vector3i c, int range, HexVisitor visitor) {
+    int x = c.x + CUBE_NEIGHBORS[4].x * range;
+    int y = c.y + CUBE_NEIGHBORS[4].y * range;
+    int z = c.z + CUBE_NEIGHBORS[4].z * range;
+    for (int i = 0; i < 6; i++) {
+      Vector3i d = CUBE_NEIGHBORS[i];
+      for (int j = 0; j < range; j++) {
+        visitor.visit(x, z, y);
+        x += d.x;
+        y += d.y;
+        z += d.z;
+      }
+    }
+  }
+
+  /**
+   * Visits the hex cube coordinates that form a line of hexes between
+   * {@code start} and {@code end}, in the same order as
+   * {@link #lineCube(Vector3i, Vector3i)}, without allocating.
+   * 
+   * @param start
+   * @param end
+   * @param visitor
+   * @see HexCursor#line(Vector3i, Vector3i)
+   */
+  public static void forEachOnLine(Vector3i start, Vector3i end, HexVisitor visitor) {
+    visitor.visit(start.x, start.z, start.y);
+
+    int n = distanceCube(start, end);
+    if (n == 0) {
+      return;
+    }
+
+    float f = 1.0f / (float) n;
+
+    float x1 = start.x;
+    float y1 = start.y;
+    float z1 = start.z;
+
+    float x2 = (end.x - start.x) * f;
+    float y2 = (end.y - start.y) * f;
+    float z2 = (end.z - start.z) * f;
+
+    for (int i = 0; i < n; i++) {
+      x1 += x2;
+      y1 += y2;
+      z1 += z2;
+      // roundCube(x1, y1, z1, store) into locals
+      int rx = Math.round(x1);
+      int ry = Math.round(y1);
+      int rz = Math.round(z1);
+      if (rx + ry + rz != 0) {
+        float dx = Math.abs(rx - x1);
+        float dy = Math.abs(ry - y1);
+        float dz = Math.abs(rz - z1);
+        if (dx > dy && dx > dz) {
+          rx = -ry - rz;
+        } else if (dy > dz) {
+          ry = -rx - rz;
+        } else {
+          rz = -rx - ry;
+        }
+      }
+      visitor.visit(rx, rz, ry);
+    }
+  }
+
   /**
    * Rotates a hexVector (difference between two hex cube coordinates) left and
    * stores the result in {@code store}.
@@ -709,7 +848,7 @@ public class HexMath {
     int ry = Math.round(y);
     int rz = Math.round(z);
 
-    if (rx + ry + rx != 0) {
+    if (rx + ry + rz != 0) {
 
       float dx = Math.abs(rx - x);
       float dy = Math.abs(ry - y);
@@ -804,7 +943,7 @@ public class HexMath {
       ry = Math.round(y);
       rz = Math.round(z);
 
-      if (rx + ry + rx != 0) {
+      if (rx + ry + rz != 0) {
 
         float dx, dy, dz;
 
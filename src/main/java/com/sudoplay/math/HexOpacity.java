@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+/**
+ * Opacity function for {@link HexFieldOfView}.
+ * 
+ * @author Jason Taylor
+ */
+public interface HexOpacity {
+
+  /**
+   * Returns true if the hex at axial coordinates (q, r) blocks sight. Hexes
+   * outside of a bounded map should be reported as opaque.
+   * 
+   * @param q
+   *          cube x
+   * @param r
+   *          cube z
+   * @return true if the hex blocks sight
+   */
+  boolean isOpaque(int q, int r);
+
+}
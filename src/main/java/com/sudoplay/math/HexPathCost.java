@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+/**
+ * Step cost function for {@link HexPathfinder}.
+ * <p>
+ * Cells are passed as {@link HexGrid} indices, so an implementation typically
+ * reads terrain from the same grid with {@link HexGrid#get(int, int)}.
+ * 
+ * @author Jason Taylor
+ */
+public interface HexPathCost {
+
+  /**
+   * Returns the cost of stepping from the cell at {@code from} into its
+   * neighbor at {@code to}. A negative, infinite or NaN cost means the step
+   * is blocked.
+   * 
+   * @param from
+   *          the index of the cell being left
+   * @param to
+   *          the index of the neighboring cell being entered
+   * @return the cost of the step
+   */
+  float cost(int from, int to);
+
+}
@@ -0,0 +1,475 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.Arrays;
+
+/**
+ * {@code HexPathfinder} finds least cost paths between the cells of a
+ * {@link HexGrid} with A* or Dijkstra's algorithm.
+ * <p>
+ * Cells are addressed by grid index and the open set is a primitive 4-ary
+ * heap of indices, so a query allocates nothing. The per-cell search state is
+ * held in arrays sized by {@link HexGrid#getIndexLimit()} and allocated once;
+ * each query marks the cells it touches with a new generation number instead
+ * of clearing the arrays, so the cost of a query depends only on the number
+ * of cells it visits.
+ * <p>
+ * Step costs come from a {@link HexPathCost}. The A* heuristic is the hex
+ * distance to the goal multiplied by the heuristic scale, which must not be
+ * greater than the smallest step cost for paths to be optimal; a scale of 0
+ * turns A* into Dijkstra's algorithm.
+ * <p>
+ * There are three kinds of query:
+ * <ul>
+ * <li>{@link #findPath(int, int, HexPathCost)} finds one path with A*.</li>
+ * <li>{@link #search(int, float, HexPathCost)} finds the cost of every cell
+ * within a cost limit of a start cell with Dijkstra's algorithm.</li>
+ * <li>{@link #findNextSteps(int[], int[], int, HexPathCost, int[])} finds the
+ * next step of many agents at once, sharing one search between all agents
+ * that have the same goal.</li>
+ * </ul>
+ * A pathfinder is not thread safe; use one per thread. Any number of
+ * pathfinders can share a grid that is not being modified.
+ * 
+ * <pre>
+ * HexPathfinder pathfinder = new HexPathfinder(grid);
+ * int length = pathfinder.findPath(grid.index(0, 0), grid.index(40, 30), cost);
+ * for (int i = 0; i &lt; length; i++) {
+ *   moveTo(pathfinder.getPathIndex(i));
+ * }
+ * </pre>
+ * 
+ * @author Jason Taylor
+ */
+public final class HexPathfinder {
+
+  private final HexGrid grid;
+
+  // per-cell search state, valid where marks[i] is generation (open) or
+  // generation + 1 (closed)
+  private final float[] costs;
+  private final int[] parents;
+  private final int[] marks;
+  private int generation;
+
+  private final IntFloatHeap heap = new IntFloatHeap(256);
+  private final int[] neighbors = new int[6];
+
+  private float heuristicScale = 1;
+  private int maxExpanded = Integer.MAX_VALUE;
+  private int expanded;
+
+  private int[] path = new int[64];
+  private int pathLength = -1;
+  private float pathCost = Float.POSITIVE_INFINITY;
+
+  // findNextSteps: agents sorted by goal, and the start cells of the current
+  // goal marked with targetGeneration
+  private long[] agentOrder;
+  private int[] targetMarks;
+  private int targetGeneration;
+
+  /**
+   * Constructor instantiates a new {@code HexPathfinder} for {@code grid}.
+   * 
+   * @param grid
+   */
+  public HexPathfinder(HexGrid grid) {
+    this.grid = grid;
+    int limit = grid.getIndexLimit();
+    this.costs = new float[limit];
+    this.parents = new int[limit];
+    this.marks = new int[limit];
+  }
+
+  /**
+   * @return the grid searched by this pathfinder
+   */
+  public HexGrid getGrid() {
+    return grid;
+  }
+
+  /**
+   * @return the factor applied to the hex distance to the goal in the A*
+   *         heuristic
+   */
+  public float getHeuristicScale() {
+    return heuristicScale;
+  }
+
+  /**
+   * Sets the factor applied to the hex distance to the goal in the A*
+   * heuristic, 1 by default. Paths are optimal when the scale is not greater
+   * than the smallest step cost; larger scales trade path quality for fewer
+   * expanded cells, and 0 disables the heuristic.
+   * 
+   * @param heuristicScale
+   * @return this
+   */
+  public HexPathfinder setHeuristicScale(float heuristicScale) {
+    if (heuristicScale < 0) {
+      throw new IllegalArgumentException("Heuristic scale must not be negative: " + heuristicScale);
+    }
+    this.heuristicScale = heuristicScale;
+    return this;
+  }
+
+  /**
+   * @return the number of cells a query may expand before it gives up
+   */
+  public int getMaxExpanded() {
+    return maxExpanded;
+  }
+
+  /**
+   * Sets the number of cells a query may expand before it gives up,
+   * unlimited by default. This bounds the time spent on a goal that is
+   * unreachable on a large map.
+   * 
+   * @param maxExpanded
+   * @return this
+   */
+  public HexPathfinder setMaxExpanded(int maxExpanded) {
+    if (maxExpanded <= 0) {
+      throw new IllegalArgumentException("Max expanded must be positive: " + maxExpanded);
+    }
+    this.maxExpanded = maxExpanded;
+    return this;
+  }
+
+  /**
+   * @return the number of cells expanded by the last query
+   */
+  public int getExpanded() {
+    return expanded;
+  }
+
+  /**
+   * Finds a least cost path from the cell at {@code start} to the cell at
+   * {@code goal} with A*. The path is read with {@link #getPathIndex(int)} or
+   * {@link #getPath(int[])}, and includes both {@code start} and
+   * {@code goal}.
+   * 
+   * @param start
+   * @param goal
+   * @param cost
+   * @return the number of cells in the path, or -1 if there is no path or the
+   *         search expanded more than {@link #getMaxExpanded()} cells
+   */
+  public int findPath(int start, int goal, HexPathCost cost) {
+    run(start, goal, Float.POSITIVE_INFINITY, cost, false);
+    return buildPath(goal);
+  }
+
+  /**
+   * Finds the cost of every cell that can be reached from the cell at
+   * {@code start} for at most {@code maxCost} with Dijkstra's algorithm. The
+   * results are read with {@link #getCost(int)}, {@link #getParent(int)} and
+   * {@link #buildPath(int)}.
+   * 
+   * @param start
+   * @param maxCost
+   * @param cost
+   * @return the number of cells reached, including {@code start}
+   */
+  public int search(int start, float maxCost, HexPathCost cost) {
+    run(start, -1, maxCost, cost, false);
+    return expanded;
+  }
+
+  /**
+   * Finds the first step of a least cost path for each of {@code count}
+   * agents, agent {@code i} moving from {@code starts[i]} to
+   * {@code goals[i]}.
+   * <p>
+   * Agents are grouped by goal. An agent with a goal of its own is routed
+   * with A*; the agents of a shared goal are routed together by one Dijkstra
+   * search outward from the goal, which stops once all of their start cells
+   * are reached. The results of the previous query are overwritten.
+   * 
+   * @param starts
+   * @param goals
+   * @param count
+   *          the number of agents
+   * @param cost
+   * @param store
+   *          receives the index of the cell each agent should enter next; the
+   *          start cell for an agent already at its goal, or -1 if it has no
+   *          path
+   * @return the number of agents that have a path
+   */
+  public int findNextSteps(int[] starts, int[] goals, int count, HexPathCost cost, int[] store) {
+    if (count == 0) {
+      return 0;
+    }
+    if (agentOrder == null || agentOrder.length < count) {
+      agentOrder = new long[Math.max(count, 16)];
+    }
+    if (targetMarks == null) {
+      targetMarks = new int[marks.length];
+    }
+    long[] order = agentOrder;
+    for (int i = 0; i < count; i++) {
+      order[i] = (long) goals[i] << 32 | i;
+    }
+    Arrays.sort(order, 0, count);
+
+    int found = 0;
+    int first = 0;
+    while (first < count) {
+      int goal = (int) (order[first] >>> 32);
+      int end = first + 1;
+      while (end < count && (int) (order[end] >>> 32) == goal) {
+        end++;
+      }
+      if (end - first == 1) {
+        int agent = (int) order[first];
+        int length = findPath(starts[agent], goal, cost);
+        store[agent] = length == -1 ? -1 : path[Math.min(1, length - 1)];
+        if (length != -1) {
+          found++;
+        }
+      } else {
+        found += routeGroup(order, first, end, starts, goal, cost, store);
+      }
+      first = end;
+    }
+    return found;
+  }
+
+  /**
+   * Returns the cost from the start of the last query to the cell at
+   * {@code index}.
+   * 
+   * @param index
+   * @return the least cost, or {@link Float#POSITIVE_INFINITY} if the last
+   *         query did not reach the cell
+   */
+  public float getCost(int index) {
+    return marks[index] == generation + 1 ? costs[index] : Float.POSITIVE_INFINITY;
+  }
+
+  /**
+   * Returns the cell before the cell at {@code index} on its least cost path
+   * from the start of the last query.
+   * 
+   * @param index
+   * @return the index of the previous cell, or -1 for the start or a cell the
+   *         last query did not reach
+   */
+  public int getParent(int index) {
+    return marks[index] == generation + 1 ? parents[index] : -1;
+  }
+
+  /**
+   * Builds the least cost path from the start of the last query to the cell
+   * at {@code index}, replacing the current path.
+   * 
+   * @param index
+   * @return the number of cells in the path, or -1 if the last query did not
+   *         reach the cell
+   */
+  public int buildPath(int index) {
+    if (marks[index] != generation + 1) {
+      pathLength = -1;
+      pathCost = Float.POSITIVE_INFINITY;
+      return -1;
+    }
+    int length = 0;
+    for (int i = index; i != -1; i = parents[i]) {
+      length++;
+    }
+    if (path.length < length) {
+      path = new int[Math.max(length, path.length << 1)];
+    }
+    int i = index;
+    for (int p = length - 1; p >= 0; p--) {
+      path[p] = i;
+      i = parents[i];
+    }
+    pathLength = length;
+    pathCost = costs[index];
+    return length;
+  }
+
+  /**
+   * @return the number of cells in the current path, or -1 if there is none
+   */
+  public int getPathLength() {
+    return pathLength;
+  }
+
+  /**
+   * @return the total step cost of the current path, or
+   *         {@link Float#POSITIVE_INFINITY} if there is none
+   */
+  public float getPathCost() {
+    return pathCost;
+  }
+
+  /**
+   * @param i
+   *          from 0, the start, to {@link #getPathLength()} - 1
+   * @return the index of cell {@code i} of the current path
+   */
+  public int getPathIndex(int i) {
+    if (i < 0 || i >= pathLength) {
+      throw new IndexOutOfBoundsException("Path index: " + i + ", length: " + pathLength);
+    }
+    return path[i];
+  }
+
+  /**
+   * Copies the cell indices of the current path into {@code store}.
+   * 
+   * @param store
+   *          an array of at least {@link #getPathLength()} elements
+   * @return store
+   */
+  public int[] getPath(int[] store) {
+    if (pathLength > 0) {
+      System.arraycopy(path, 0, store, 0, pathLength);
+    }
+    return store;
+  }
+
+  /**
+   * Routes the agents order[first] to order[end - 1], which share
+   * {@code goal}, with one search from the goal over reversed steps.
+   */
+  private int routeGroup(long[] order, int first, int end, int[] starts, int goal, HexPathCost cost, int[] store) {
+    if (targetGeneration == Integer.MAX_VALUE) {
+      Arrays.fill(targetMarks, 0);
+      targetGeneration = 0;
+    }
+    int stamp = ++targetGeneration;
+    int targets = 0;
+    for (int k = first; k < end; k++) {
+      int start = starts[(int) order[k]];
+      if (targetMarks[start] != stamp) {
+        targetMarks[start] = stamp;
+        targets++;
+      }
+    }
+    run(goal, -1, Float.POSITIVE_INFINITY, cost, true, stamp, targets);
+
+    int found = 0;
+    int closed = generation + 1;
+    for (int k = first; k < end; k++) {
+      int agent = (int) order[k];
+      int start = starts[agent];
+      if (marks[start] == closed) {
+        // parents point toward the goal in a reversed search
+        store[agent] = start == goal ? start : parents[start];
+        found++;
+      } else {
+        store[agent] = -1;
+      }
+    }
+    pathLength = -1;
+    pathCost = Float.POSITIVE_INFINITY;
+    return found;
+  }
+
+  private void run(int start, int goal, float maxCost, HexPathCost cost, boolean reverse) {
+    run(start, goal, maxCost, cost, reverse, 0, 0);
+  }
+
+  /**
+   * Expands cells from {@code start} in order of cost until {@code goal} is
+   * closed, {@code targets} cells marked with {@code stamp} in targetMarks
+   * are closed, the open set is exhausted or the expansion limit is reached.
+   * A reversed search follows steps backward and charges
+   * {@code cost(neighbor, cell)}.
+   */
+  private void run(int start, int goal, float maxCost, HexPathCost cost, boolean reverse, int stamp, int targets) {
+    if (generation >= Integer.MAX_VALUE - 2) {
+      Arrays.fill(marks, 0);
+      generation = 0;
+    }
+    generation += 2;
+    int opened = generation;
+    int closed = generation + 1;
+
+    HexGrid grid = this.grid;
+    float[] costs = this.costs;
+    int[] parents = this.parents;
+    int[] marks = this.marks;
+    int[] targetMarks = this.targetMarks;
+    int[] neighbors = this.neighbors;
+    IntFloatHeap heap = this.heap;
+    float scale = goal == -1 ? 0 : heuristicScale;
+
+    heap.clear();
+    expanded = 0;
+    costs[start] = 0;
+    parents[start] = -1;
+    marks[start] = opened;
+    heap.push(start, 0);
+
+    while (!heap.isEmpty()) {
+      int u = heap.pop();
+      if (marks[u] != opened) {
+        // a stale entry of a cell that was already closed at a lower cost
+        continue;
+      }
+      marks[u] = closed;
+      if (++expanded > maxExpanded) {
+        marks[u] = opened;
+        expanded--;
+        return;
+      }
+      if (u == goal) {
+        return;
+      }
+      if (stamp != 0 && targetMarks[u] == stamp && --targets == 0) {
+        return;
+      }
+      float g = costs[u];
+      grid.neighbors(u, neighbors);
+      for (int direction = 0; direction < 6; direction++) {
+        int v = neighbors[direction];
+        if (v == -1) {
+          continue;
+        }
+        int mark = marks[v];
+        if (mark == closed) {
+          continue;
+        }
+        float step = reverse ? cost.cost(v, u) : cost.cost(u, v);
+        if (!(step >= 0 && step < Float.POSITIVE_INFINITY)) {
+          continue;
+        }
+        float gv = g + step;
+        if (gv > maxCost || (mark == opened && gv >= costs[v])) {
+          continue;
+        }
+        costs[v] = gv;
+        parents[v] = u;
+        marks[v] = opened;
+        heap.push(v, scale == 0 ? gv : gv + scale * grid.distance(v, goal));
+      }
+    }
+  }
+
+}
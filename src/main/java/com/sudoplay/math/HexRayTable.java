@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.util.HashMap;
+
+/**
+ * The rays from a hex to every hex within a radius, as hex offsets from the
+ * origin, merged into a tree of shared prefixes and shared by all
+ * {@link HexFieldOfView}s. Tables are built once per radius and cached.
+ * <p>
+ * Nodes are stored in depth-first preorder; node 0 is the origin, and the
+ * subtree of node {@code i} ends before node {@code skip[i]}, so a walk over
+ * the nodes passes over everything behind an opaque hex with one jump.
+ * {@code cell[i]} holds the local index of the node's hex, in
+ * {@link HexMath#rangeCube(Vector3i, int)} order, shifted left by one, with
+ * the low bit set if the node is the last hex of the ray to that hex.
+ * 
+ * @author Jason Taylor
+ */
+final class HexRayTable {
+
+  private static volatile HexRayTable[] cache = new HexRayTable[0];
+
+  final int radius;
+  final int cellCount;
+
+  final int[] nodeQ;
+  final int[] nodeR;
+  final int[] cell;
+  final int[] skip;
+
+  // local index of cube (x, y) is rowStart[x + radius] + y
+  private final int[] rowStart;
+  final int[] cellQ;
+  final int[] cellR;
+
+  /**
+   * Returns the table for {@code radius}, building it on first use.
+   * 
+   * @param radius
+   * @return the table
+   */
+  static HexRayTable get(int radius) {
+    HexRayTable[] tables = cache;
+    if (radius < tables.length && tables[radius] != null) {
+      return tables[radius];
+    }
+    return build(radius);
+  }
+
+  private static synchronized HexRayTable build(int radius) {
+    HexRayTable[] tables = cache;
+    if (radius < tables.length && tables[radius] != null) {
+      return tables[radius];
+    }
+    HexRayTable[] newTables = new HexRayTable[Math.max(tables.length, radius + 1)];
+    System.arraycopy(tables, 0, newTables, 0, tables.length);
+    HexRayTable table = new HexRayTable(radius);
+    newTables[radius] = table;
+    cache = newTables;
+    return table;
+  }
+
+  private HexRayTable(int radius) {
+    this.radius = radius;
+    this.cellCount = HexMath.rangeCubeSize(radius);
+    this.rowStart = new int[2 * radius + 1];
+    this.cellQ = new int[cellCount];
+    this.cellR = new int[cellCount];
+    int index = 0;
+    for (int x = -radius; x <= radius; x++) {
+      int ymin = Math.max(-radius, -x - radius);
+      rowStart[x + radius] = index - ymin;
+      for (int y = ymin; y <= Math.min(radius, -x + radius); y++) {
+        cellQ[index] = x;
+        cellR[index] = -x - y;
+        index++;
+      }
+    }
+
+    // insert the ray to each hex into a tree keyed by (parent, local index)
+    int capacity = cellCount * 2;
+    int[] parent = new int[capacity];
+    int[] local = new int[capacity];
+    boolean[] end = new boolean[capacity];
+    int[] firstChild = new int[capacity];
+    int[] nextSibling = new int[capacity];
+    HashMap<Long, Integer> children = new HashMap<Long, Integer>();
+    int nodes = 1;
+    parent[0] = -1;
+    local[0] = localIndex(0, 0);
+    firstChild[0] = -1;
+    Vector3i v = new Vector3i();
+    for (int target = 0; target < cellCount; target++) {
+      int tx = cellQ[target];
+      int tz = cellR[target];
+      int n = (Math.abs(tx) + Math.abs(tz) + Math.abs(tx + tz)) / 2;
+      if (n == 0) {
+        end[0] = true;
+        continue;
+      }
+      float f = 1.0f / (float) n;
+      float x1 = 0, y1 = 0, z1 = 0;
+      float x2 = tx * f;
+      float y2 = (-tx - tz) * f;
+      float z2 = tz * f;
+      int node = 0;
+      for (int i = 0; i < n; i++) {
+        x1 += x2;
+        y1 += y2;
+        z1 += z2;
+        HexMath.roundCube(x1, y1, z1, v);
+        int c = localIndex(v.x, v.z);
+        Long key = Long.valueOf((long) node << 32 | c);
+        Integer child = children.get(key);
+        if (child == null) {
+          if (nodes == parent.length) {
+            parent = grow(parent);
+            local = grow(local);
+            firstChild = grow(firstChild);
+            nextSibling = grow(nextSibling);
+            boolean[] newEnd = new boolean[end.length << 1];
+            System.arraycopy(end, 0, newEnd, 0, end.length);
+            end = newEnd;
+          }
+          parent[nodes] = node;
+          local[nodes] = c;
+          firstChild[nodes] = -1;
+          nextSibling[nodes] = firstChild[node];
+          firstChild[node] = nodes;
+          child = Integer.valueOf(nodes++);
+          children.put(key, child);
+        }
+        node = child.intValue();
+      }
+      end[node] = true;
+    }
+
+    // flatten the tree in preorder
+    this.nodeQ = new int[nodes];
+    this.nodeR = new int[nodes];
+    this.cell = new int[nodes];
+    this.skip = new int[nodes];
+    int[] stack = new int[nodes];
+    int[] order = new int[nodes];
+    int top = 0;
+    int count = 0;
+    stack[top++] = 0;
+    while (top > 0) {
+      int node = stack[--top];
+      int i = count++;
+      order[node] = i;
+      nodeQ[i] = cellQ[local[node]];
+      nodeR[i] = cellR[local[node]];
+      cell[i] = local[node] << 1 | (end[node] ? 1 : 0);
+      for (int child = firstChild[node]; child != -1; child = nextSibling[child]) {
+        stack[top++] = child;
+      }
+    }
+    // preorder puts a subtree after its root, so subtree ends are found by
+    // walking the nodes backward and taking the largest end of the children
+    for (int i = 0; i < nodes; i++) {
+      skip[i] = i + 1;
+    }
+    for (int node = nodes - 1; node > 0; node--) {
+      int i = order[node];
+      int p = order[parent[node]];
+      if (skip[i] > skip[p]) {
+        skip[p] = skip[i];
+      }
+    }
+  }
+
+  /**
+   * @param q
+   * @param r
+   * @return the local index of offset (q, r), or -1 if it is farther than
+   *         the radius from the origin
+   */
+  int localIndex(int q, int r) {
+    if (Math.abs(q) + Math.abs(r) + Math.abs(q + r) > radius * 2) {
+      return -1;
+    }
+    return rowStart[q + radius] - q - r;
+  }
+
+  private static int[] grow(int[] array) {
+    int[] newArray = new int[array.length << 1];
+    System.arraycopy(array, 0, newArray, 0, array.length);
+    return newArray;
+  }
+
+}
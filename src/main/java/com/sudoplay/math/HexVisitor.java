@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+/**
+ * Callback for the allocation-free hex iteration methods in {@link HexMath},
+ * such as {@link HexMath#forEachInRange(Vector3i, int, HexVisitor)}.
+ * <p>
+ * Each hex is passed as primitive coordinates: {@code q} and {@code r} are the
+ * axial coordinates, as in {@link HexMath#convertCubeToAxial(Vector3i, Hex2i)},
+ * and {@code s = -q - r}. In cube terms, {@code q} is x, {@code s} is y and
+ * {@code r} is z.
+ * 
+ * @author Jason Taylor
+ */
+public interface HexVisitor {
+
+  /**
+   * Called once for each hex.
+   * 
+   * @param q
+   *          cube x
+   * @param r
+   *          cube z
+   * @param s
+   *          cube y
+   */
+  void visit(int q, int r, int s);
+
+}
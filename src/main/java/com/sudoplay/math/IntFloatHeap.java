@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+/**
+ * A 4-ary min heap of {@code int} values keyed by {@code float}, kept in two
+ * parallel arrays. Four children per node halve the depth of a binary heap,
+ * which makes pops, the dominant cost of a path search, cheaper. There is no
+ * decrease-key; callers push a value again with the lower key and skip stale
+ * entries when they are popped.
+ * 
+ * @author Jason Taylor
+ */
+final class IntFloatHeap {
+
+  private int[] values;
+  private float[] keys;
+  private int size;
+
+  IntFloatHeap(int capacity) {
+    values = new int[Math.max(capacity, 2)];
+    keys = new float[values.length];
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  void clear() {
+    size = 0;
+  }
+
+  void push(int value, float key) {
+    if (size == values.length) {
+      int capacity = size << 1;
+      int[] newValues = new int[capacity];
+      float[] newKeys = new float[capacity];
+      System.arraycopy(values, 0, newValues, 0, size);
+      System.arraycopy(keys, 0, newKeys, 0, size);
+      values = newValues;
+      keys = newKeys;
+    }
+    int[] values = this.values;
+    float[] keys = this.keys;
+    int i = size++;
+    while (i > 0) {
+      int parent = (i - 1) >>> 2;
+      float parentKey = keys[parent];
+      if (parentKey <= key) {
+        break;
+      }
+      values[i] = values[parent];
+      keys[i] = parentKey;
+      i = parent;
+    }
+    values[i] = value;
+    keys[i] = key;
+  }
+
+  /**
+   * @return the key of the smallest entry; the heap must not be empty
+   */
+  float peekKey() {
+    return keys[0];
+  }
+
+  /**
+   * Removes the smallest entry and returns its value; the heap must not be
+   * empty.
+   */
+  int pop() {
+    int[] values = this.values;
+    float[] keys = this.keys;
+    int result = values[0];
+    int n = --size;
+    if (n > 0) {
+      int value = values[n];
+      float key = keys[n];
+      int i = 0;
+      int child;
+      while ((child = (i << 2) + 1) < n) {
+        int last = Math.min(child + 4, n);
+        int min = child;
+        float minKey = keys[child];
+        for (int c = child + 1; c < last; c++) {
+          if (keys[c] < minKey) {
+            min = c;
+            minKey = keys[c];
+          }
+        }
+        if (key <= minKey) {
+          break;
+        }
+        values[i] = values[min];
+        keys[i] = minKey;
+        i = min;
+      }
+      values[i] = value;
+      keys[i] = key;
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+/**
+ * A growable first-in first-out queue of {@code int} values in a ring
+ * buffer.
+ * 
+ * @author Jason Taylor
+ */
+final class IntQueue {
+
+  private int[] values;
+  private int head;
+  private int size;
+
+  IntQueue(int capacity) {
+    values = new int[Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1];
+  }
+
+  int size() {
+    return size;
+  }
+
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  void clear() {
+    head = 0;
+    size = 0;
+  }
+
+  void add(int value) {
+    int[] values = this.values;
+    if (size == values.length) {
+      int[] newValues = new int[values.length << 1];
+      int n = values.length - head;
+      System.arraycopy(values, head, newValues, 0, n);
+      System.arraycopy(values, 0, newValues, n, head);
+      this.values = values = newValues;
+      head = 0;
+    }
+    values[(head + size++) & (values.length - 1)] = value;
+  }
+
+  /**
+   * Removes and returns the oldest value; the queue must not be empty.
+   */
+  int remove() {
+    int value = values[head];
+    head = (head + 1) & (values.length - 1);
+    size--;
+    return value;
+  }
+
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+/**
+ * {@code MathKernels} holds the inner loops of the bulk operations that can be
+ * run on SIMD lanes: packed 4x4 matrix multiply, packed vec4 transform, the
+ * {@link Vector4fArray} dot and normalize loops and the bulk
+ * {@link FastMath#atan2(float[], float[], float[], int, int)}.
+ * <p>
+ * This class is the scalar implementation. When the library runs on Java 17
+ * or later with the {@code jdk.incubator.vector} module resolved (
+ * {@code --add-modules jdk.incubator.vector}), a Vector API implementation
+ * packaged in the multi-release jar under {@code META-INF/versions/17} is
+ * selected once, at class initialization. Otherwise, or when the system
+ * property {@code sudomath.simd} is {@code false}, the scalar loops are used.
+ * <p>
+ * The vector kernels perform the same IEEE 754 multiplies, adds, divides and
+ * square roots as the scalar loops, in the same order and without fused
+ * multiply-add, so their results are bit-identical to the scalar code (an
+ * error bound of 0 ULP).
+ * 
+ * @author Jason Taylor
+ */
+public class MathKernels {
+
+  private static final MathKernels INSTANCE = load();
+
+  MathKernels() {
+    //
+  }
+
+  static MathKernels get() {
+    return INSTANCE;
+  }
+
+  /**
+   * @return true if the Vector API kernels were selected
+   */
+  public static boolean isAccelerated() {
+    return INSTANCE.accelerated();
+  }
+
+  private static MathKernels load() {
+    if (!"false".equals(System.getProperty("sudomath.simd"))) {
+      try {
+        MathKernels kernels = (MathKernels) Class.forName("com.sudoplay.math.VectorApiKernels").getDeclaredConstructor().newInstance();
+        if (kernels.accelerated()) {
+          return kernels;
+        }
+      } catch (ReflectiveOperationException e) {
+        // not on a multi-release aware runtime; fall back to the scalar
+        // kernels
+      } catch (LinkageError e) {
+        // the incubator module is not resolved; fall back to the scalar
+        // kernels
+      }
+    }
+    return new MathKernels();
+  }
+
+  boolean accelerated() {
+    return false;
+  }
+
+  /**
+   * Multiplies {@code count} pairs of packed row major 4x4 matrices,
+   * {@code dst = a * b}.
+   */
+  void mult4x4(float[] a, int aOff, float[] b, int bOff, float[] dst, int dstOff, int count) {
+    for (int n = 0; n < count; n++, aOff += 16, bOff += 16, dstOff += 16) {
+      float b00 = b[bOff], b01 = b[bOff + 1], b02 = b[bOff + 2], b03 = b[bOff + 3];
+      float b10 = b[bOff + 4], b11 = b[bOff + 5], b12 = b[bOff + 6], b13 = b[bOff + 7];
+      float b20 = b[bOff + 8], b21 = b[bOff + 9], b22 = b[bOff + 10], b23 = b[bOff + 11];
+      float b30 = b[bOff + 12], b31 = b[bOff + 13], b32 = b[bOff + 14], b33 = b[bOff + 15];
+      for (int row = 0; row < 16; row += 4) {
+        float a0 = a[aOff + row], a1 = a[aOff + row + 1], a2 = a[aOff + row + 2], a3 = a[aOff + row + 3];
+        int d = dstOff + row;
+        dst[d] = a0 * b00 + a1 * b10 + a2 * b20 + a3 * b30;
+        dst[d + 1] = a0 * b01 + a1 * b11 + a2 * b21 + a3 * b31;
+        dst[d + 2] = a0 * b02 + a1 * b12 + a2 * b22 + a3 * b32;
+        dst[d + 3] = a0 * b03 + a1 * b13 + a2 * b23 + a3 * b33;
+      }
+    }
+  }
+
+  /**
+   * Multiplies {@code count} packed xyzw vectors by {@code mat}.
+   */
+  void transform4(Matrix4f mat, float[] src, int srcOff, float[] dst, int dstOff, int count) {
+    float a00 = mat.m00, a01 = mat.m01, a02 = mat.m02, a03 = mat.m03;
+    float a10 = mat.m10, a11 = mat.m11, a12 = mat.m12, a13 = mat.m13;
+    float a20 = mat.m20, a21 = mat.m21, a22 = mat.m22, a23 = mat.m23;
+    float a30 = mat.m30, a31 = mat.m31, a32 = mat.m32, a33 = mat.m33;
+    for (int i = 0, s = srcOff, d = dstOff; i < count; i++, s += 4, d += 4) {
+      float vx = src[s], vy = src[s + 1], vz = src[s + 2], vw = src[s + 3];
+      dst[d] = a00 * vx + a01 * vy + a02 * vz + a03 * vw;
+      dst[d + 1] = a10 * vx + a11 * vy + a12 * vz + a13 * vw;
+      dst[d + 2] = a20 * vx + a21 * vy + a22 * vz + a23 * vw;
+      dst[d + 3] = a30 * vx + a31 * vy + a32 * vz + a33 * vw;
+    }
+  }
+
+  /**
+   * Computes {@code store[i] = a[i] . b[i]} over [offset, offset + length).
+   */
+  void dot4(Vector4fArray a, Vector4fArray b, float[] store, int offset, int length) {
+    float[] x = a.x, y = a.y, z = a.z, w = a.w;
+    float[] vx = b.x, vy = b.y, vz = b.z, vw = b.w;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      store[i] = x[i] * vx[i] + y[i] * vy[i] + z[i] * vz[i] + w[i] * vw[i];
+    }
+  }
+
+  /**
+   * Normalizes the vectors of {@code a} over [offset, offset + length).
+   */
+  void normalize4(Vector4fArray a, int offset, int length) {
+    float[] x = a.x, y = a.y, z = a.z, w = a.w;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      float vx = x[i], vy = y[i], vz = z[i], vw = w[i];
+      float len = vx * vx + vy * vy + vz * vz + vw * vw;
+      // multiplying by exactly 1 leaves the value unchanged, which keeps the
+      // loop free of a store-skipping branch
+      float scale = (len != 1f && len != 0f) ? 1.0f / FastMath.sqrt(len) : 1f;
+      x[i] = vx * scale;
+      y[i] = vy * scale;
+      z[i] = vz * scale;
+      w[i] = vw * scale;
+    }
+  }
+
+  /**
+   * Computes {@code out[i] = atan2(y[i], x[i])} over [off, off + len), see
+   * {@link FastMath#atan2(float[], float[], float[], int, int)}.
+   */
+  void atan2(float[] y, float[] x, float[] out, int off, int len) {
+    int end = off + len;
+    for (int i = off; i < end; i++) {
+      float xi = x[i], yi = y[i];
+      float ax = Math.abs(xi), ay = Math.abs(yi);
+      float max = Math.max(ax, ay);
+      float s = Math.min(ax, ay) / max;
+      float t = s * s;
+      float u = 2.82363896258175373077393e-3f;
+      u = u * t - 1.59569028764963150024414e-2f;
+      u = u * t + 4.25049886107444763183594e-2f;
+      u = u * t - 7.48900920152664184570312e-2f;
+      u = u * t + 1.06347933411598205566406e-1f;
+      u = u * t - 1.42027363181114196777344e-1f;
+      u = u * t + 1.99926957488059997558594e-1f;
+      u = u * t - 3.33331018686294555664062e-1f;
+      float r = u * t * s + s;
+      r = ay > ax ? FastMath.HALF_PI - r : r;
+      r = xi < 0f ? FastMath.PI - r : r;
+      r = max == 0f ? 0f : r;
+      out[i] = Math.copySign(r, yi);
+    }
+  }
+
+}
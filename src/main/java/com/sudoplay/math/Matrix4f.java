@@ -1201,6 +1201,78 @@ public final class Matrix4f {
     return mult(in2, this);
   }
 
+  /**
+   * {@code multAffine} multiplies this matrix with another matrix, assuming
+   * both are affine (see {@link #isAffine()}). Only the upper 3x4 part is
+   * computed and the last row of the result is set to (0, 0, 0, 1), which
+   * needs 36 multiplies instead of the 64 of {@link #mult(Matrix4f, Matrix4f)}.
+   * For affine, finite inputs the result equals that of
+   * {@code mult(in2, store)}. This matrix is on the left hand side.
+   * 
+   * @param in2
+   *          the affine matrix to multiply this matrix by.
+   * @param store
+   *          where to store the result. It is safe for in2 and store to be the
+   *          same object.
+   * @return the resultant matrix
+   */
+  public Matrix4f multAffine(Matrix4f in2, Matrix4f store) {
+    if (store == null) {
+      store = new Matrix4f();
+    }
+
+    float b00 = in2.m00, b01 = in2.m01, b02 = in2.m02, b03 = in2.m03;
+    float b10 = in2.m10, b11 = in2.m11, b12 = in2.m12, b13 = in2.m13;
+    float b20 = in2.m20, b21 = in2.m21, b22 = in2.m22, b23 = in2.m23;
+
+    float temp00 = m00 * b00 + m01 * b10 + m02 * b20;
+    float temp01 = m00 * b01 + m01 * b11 + m02 * b21;
+    float temp02 = m00 * b02 + m01 * b12 + m02 * b22;
+    float temp03 = m00 * b03 + m01 * b13 + m02 * b23 + m03;
+
+    float temp10 = m10 * b00 + m11 * b10 + m12 * b20;
+    float temp11 = m10 * b01 + m11 * b11 + m12 * b21;
+    float temp12 = m10 * b02 + m11 * b12 + m12 * b22;
+    float temp13 = m10 * b03 + m11 * b13 + m12 * b23 + m13;
+
+    float temp20 = m20 * b00 + m21 * b10 + m22 * b20;
+    float temp21 = m20 * b01 + m21 * b11 + m22 * b21;
+    float temp22 = m20 * b02 + m21 * b12 + m22 * b22;
+    float temp23 = m20 * b03 + m21 * b13 + m22 * b23 + m23;
+
+    store.m00 = temp00;
+    store.m01 = temp01;
+    store.m02 = temp02;
+    store.m03 = temp03;
+    store.m10 = temp10;
+    store.m11 = temp11;
+    store.m12 = temp12;
+    store.m13 = temp13;
+    store.m20 = temp20;
+    store.m21 = temp21;
+    store.m22 = temp22;
+    store.m23 = temp23;
+    store.m30 = 0;
+    store.m31 = 0;
+    store.m32 = 0;
+    store.m33 = 1;
+
+    return store;
+  }
+
+  /**
+   * {@code multAffineLocal} multiplies this matrix with another matrix,
+   * assuming both are affine, and stores the result in this matrix.
+   * 
+   * @param in2
+   *          the affine matrix to multiply this matrix by.
+   * @return this
+   * @see #multAffine(Matrix4f, Matrix4f)
+   */
+  public Matrix4f multAffineLocal(Matrix4f in2) {
+    return multAffine(in2, this);
+  }
+
   /**
    * {@code mult} multiplies a vector about a rotation matrix. The resulting
    * vector is returned as a new Vector3f.
@@ -1380,6 +1452,180 @@ public final class Matrix4f {
     return m30 * vx + m31 * vy + m32 * vz + m33;
   }
 
+  /**
+   * {@code transformPoints} multiplies {@code count} packed xyz points by this
+   * matrix and adds translation, the bulk equivalent of
+   * {@link #mult(Vector3f, Vector3f)}. The matrix elements are loaded once and
+   * the points are processed in a single loop. {@code src} and {@code dst} may
+   * be the same array with the same offset; other overlapping ranges give
+   * undefined results.
+   * 
+   * @param src
+   *          the source points, packed as x, y, z
+   * @param srcOff
+   *          the float index of the first source point
+   * @param dst
+   *          the destination array, packed as x, y, z
+   * @param dstOff
+   *          the float index of the first destination point
+   * @param count
+   *          the number of points to transform
+   * @return dst
+   */
+  public float[] transformPoints(float[] src, int srcOff, float[] dst, int dstOff, int count) {
+    checkStream(src, srcOff, count, 3);
+    checkStream(dst, dstOff, count, 3);
+    float a00 = m00, a01 = m01, a02 = m02, a03 = m03;
+    float a10 = m10, a11 = m11, a12 = m12, a13 = m13;
+    float a20 = m20, a21 = m21, a22 = m22, a23 = m23;
+    for (int i = 0, s = srcOff, d = dstOff; i < count; i++, s += 3, d += 3) {
+      float vx = src[s], vy = src[s + 1], vz = src[s + 2];
+      dst[d] = a00 * vx + a01 * vy + a02 * vz + a03;
+      dst[d + 1] = a10 * vx + a11 * vy + a12 * vz + a13;
+      dst[d + 2] = a20 * vx + a21 * vy + a22 * vz + a23;
+    }
+    return dst;
+  }
+
+  /**
+   * {@code transformNormals} multiplies {@code count} packed xyz vectors by
+   * this matrix without adding translation, the bulk equivalent of
+   * {@link #multNormal(Vector3f, Vector3f)}. The results are not normalized.
+   * {@code src} and {@code dst} may be the same array with the same offset.
+   * 
+   * @param src
+   *          the source vectors, packed as x, y, z
+   * @param srcOff
+   *          the float index of the first source vector
+   * @param dst
+   *          the destination array, packed as x, y, z
+   * @param dstOff
+   *          the float index of the first destination vector
+   * @param count
+   *          the number of vectors to transform
+   * @return dst
+   */
+  public float[] transformNormals(float[] src, int srcOff, float[] dst, int dstOff, int count) {
+    checkStream(src, srcOff, count, 3);
+    checkStream(dst, dstOff, count, 3);
+    float a00 = m00, a01 = m01, a02 = m02;
+    float a10 = m10, a11 = m11, a12 = m12;
+    float a20 = m20, a21 = m21, a22 = m22;
+    for (int i = 0, s = srcOff, d = dstOff; i < count; i++, s += 3, d += 3) {
+      float vx = src[s], vy = src[s + 1], vz = src[s + 2];
+      dst[d] = a00 * vx + a01 * vy + a02 * vz;
+      dst[d + 1] = a10 * vx + a11 * vy + a12 * vz;
+      dst[d + 2] = a20 * vx + a21 * vy + a22 * vz;
+    }
+    return dst;
+  }
+
+  /**
+   * {@code transformProject} multiplies {@code count} packed xyz points by
+   * this matrix and adds translation, storing the resulting w value of each
+   * point in {@code wDst}; the bulk equivalent of
+   * {@link #multProj(Vector3f, Vector3f)}. No perspective divide is applied.
+   * {@code src} and {@code dst} may be the same array with the same offset.
+   * 
+   * @param src
+   *          the source points, packed as x, y, z
+   * @param srcOff
+   *          the float index of the first source point
+   * @param dst
+   *          the destination array, packed as x, y, z
+   * @param dstOff
+   *          the float index of the first destination point
+   * @param wDst
+   *          the destination array for the w values, one per point
+   * @param wOff
+   *          the index of the first w value
+   * @param count
+   *          the number of points to transform
+   * @return wDst
+   */
+  public float[] transformProject(float[] src, int srcOff, float[] dst, int dstOff, float[] wDst, int wOff, int count) {
+    checkStream(src, srcOff, count, 3);
+    checkStream(dst, dstOff, count, 3);
+    checkStream(wDst, wOff, count, 1);
+    float a00 = m00, a01 = m01, a02 = m02, a03 = m03;
+    float a10 = m10, a11 = m11, a12 = m12, a13 = m13;
+    float a20 = m20, a21 = m21, a22 = m22, a23 = m23;
+    float a30 = m30, a31 = m31, a32 = m32, a33 = m33;
+    for (int i = 0, s = srcOff, d = dstOff, w = wOff; i < count; i++, s += 3, d += 3, w++) {
+      float vx = src[s], vy = src[s + 1], vz = src[s + 2];
+      dst[d] = a00 * vx + a01 * vy + a02 * vz + a03;
+      dst[d + 1] = a10 * vx + a11 * vy + a12 * vz + a13;
+      dst[d + 2] = a20 * vx + a21 * vy + a22 * vz + a23;
+      wDst[w] = a30 * vx + a31 * vy + a32 * vz + a33;
+    }
+    return wDst;
+  }
+
+  /**
+   * {@code transformVectors} multiplies {@code count} packed xyzw vectors by
+   * this matrix, the bulk equivalent of {@link #mult(Vector4f, Vector4f)}. The
+   * loop runs on SIMD lanes when {@link MathKernels#isAccelerated()}; the
+   * results are the same either way. {@code src} and {@code dst} may be the
+   * same array with the same offset.
+   * 
+   * @param src
+   *          the source vectors, packed as x, y, z, w
+   * @param srcOff
+   *          the float index of the first source vector
+   * @param dst
+   *          the destination array, packed as x, y, z, w
+   * @param dstOff
+   *          the float index of the first destination vector
+   * @param count
+   *          the number of vectors to transform
+   * @return dst
+   */
+  public float[] transformVectors(float[] src, int srcOff, float[] dst, int dstOff, int count) {
+    checkStream(src, srcOff, count, 4);
+    checkStream(dst, dstOff, count, 4);
+    MathKernels.get().transform4(this, src, srcOff, dst, dstOff, count);
+    return dst;
+  }
+
+  /**
+   * {@code mult} multiplies {@code count} pairs of 4x4 matrices packed in row
+   * major order, sixteen floats each, as filled by
+   * {@link #fillFloatArray(float[], Order)} with {@link Order#ROW_MAJOR}. Each result is {@code a * b},
+   * the same as {@link #mult(Matrix4f, Matrix4f)}. The loop runs on SIMD lanes
+   * when {@link MathKernels#isAccelerated()}; the results are the same either
+   * way. {@code dst} may be the same array as {@code a} or {@code b} with the
+   * same offset.
+   * 
+   * @param a
+   *          the left hand side matrices
+   * @param aOff
+   *          the float index of the first left hand side matrix
+   * @param b
+   *          the right hand side matrices
+   * @param bOff
+   *          the float index of the first right hand side matrix
+   * @param dst
+   *          the destination array
+   * @param dstOff
+   *          the float index of the first destination matrix
+   * @param count
+   *          the number of matrices to multiply
+   * @return dst
+   */
+  public static float[] mult(float[] a, int aOff, float[] b, int bOff, float[] dst, int dstOff, int count) {
+    checkStream(a, aOff, count, 16);
+    checkStream(b, bOff, count, 16);
+    checkStream(dst, dstOff, count, 16);
+    MathKernels.get().mult4x4(a, aOff, b, bOff, dst, dstOff, count);
+    return dst;
+  }
+
+  private static void checkStream(float[] array, int offset, int count, int stride) {
+    if (offset < 0 || count < 0 || offset + (long) count * stride > array.length) {
+      throw new IndexOutOfBoundsException("offset=" + offset + ", count=" + count + ", length=" + array.length);
+    }
+  }
+
   /**
    * {@code mult} multiplies a vector about a rotation matrix. The resulting
    * vector is returned.
@@ -1608,6 +1854,91 @@ public final class Matrix4f {
     return this;
   }
 
+  /**
+   * Inverts this matrix, assuming it is affine (see {@link #isAffine()}), and
+   * stores it in the given store. The upper 3x3 part is inverted and the
+   * translation is rotated by it and negated, which is much cheaper than
+   * {@link #invert(Matrix4f)}.
+   * 
+   * @param store
+   *          where to store the result, created if null. It is safe for this
+   *          and store to be the same object.
+   * @return The store
+   * @throws ArithmeticException
+   *           if the upper 3x3 part cannot be inverted
+   */
+  public Matrix4f invertAffine(Matrix4f store) {
+    if (store == null) {
+      store = new Matrix4f();
+    }
+    if (!invertAffineInto(store)) {
+      throw new ArithmeticException("This matrix cannot be inverted");
+    }
+    return store;
+  }
+
+  /**
+   * Inverts this matrix locally, assuming it is affine. As with
+   * {@link #invertLocal()}, a matrix that cannot be inverted is set to zero.
+   * 
+   * @return this
+   * @see #invertAffine(Matrix4f)
+   */
+  public Matrix4f invertAffineLocal() {
+    if (!invertAffineInto(this)) {
+      return zero();
+    }
+    return this;
+  }
+
+  private boolean invertAffineInto(Matrix4f store) {
+    float c00 = m11 * m22 - m12 * m21;
+    float c01 = m02 * m21 - m01 * m22;
+    float c02 = m01 * m12 - m02 * m11;
+    float c10 = m12 * m20 - m10 * m22;
+    float c11 = m00 * m22 - m02 * m20;
+    float c12 = m02 * m10 - m00 * m12;
+    float c20 = m10 * m21 - m11 * m20;
+    float c21 = m01 * m20 - m00 * m21;
+    float c22 = m00 * m11 - m01 * m10;
+    float fDet = m00 * c00 + m01 * c10 + m02 * c20;
+
+    if (FastMath.abs(fDet) <= 0f) {
+      return false;
+    }
+
+    float fInvDet = 1.0f / fDet;
+    c00 *= fInvDet;
+    c01 *= fInvDet;
+    c02 *= fInvDet;
+    c10 *= fInvDet;
+    c11 *= fInvDet;
+    c12 *= fInvDet;
+    c20 *= fInvDet;
+    c21 *= fInvDet;
+    c22 *= fInvDet;
+
+    float tx = m03, ty = m13, tz = m23;
+
+    store.m00 = c00;
+    store.m01 = c01;
+    store.m02 = c02;
+    store.m03 = -(c00 * tx + c01 * ty + c02 * tz);
+    store.m10 = c10;
+    store.m11 = c11;
+    store.m12 = c12;
+    store.m13 = -(c10 * tx + c11 * ty + c12 * tz);
+    store.m20 = c20;
+    store.m21 = c21;
+    store.m22 = c22;
+    store.m23 = -(c20 * tx + c21 * ty + c22 * tz);
+    store.m30 = 0;
+    store.m31 = 0;
+    store.m32 = 0;
+    store.m33 = 1;
+    return true;
+  }
+
   /**
    * Returns a new matrix representing the adjoint of this matrix.
    * 
@@ -2295,6 +2626,19 @@ public final class Matrix4f {
     return true;
   }
 
+  /**
+   * A matrix is affine when its last row is exactly (0, 0, 0, 1), as is the
+   * case for matrices built with
+   * {@link #setTransform(Vector3f, Vector3f, Matrix3f)} and products of them.
+   * Affine matrices can use {@link #multAffine(Matrix4f, Matrix4f)} and
+   * {@link #invertAffine(Matrix4f)}.
+   * 
+   * @return true if this matrix is affine
+   */
+  public boolean isAffine() {
+    return m30 == 0 && m31 == 0 && m32 == 0 && m33 == 1;
+  }
+
   /**
    * @return true if this matrix is identity
    */
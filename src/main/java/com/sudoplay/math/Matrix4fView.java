@@ -0,0 +1,507 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+
+package com.sudoplay.math;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import com.sudoplay.math.Matrix4f.Order;
+
+/**
+ * {@code Matrix4fView} is a flyweight that reads and writes a 4x4 matrix in
+ * place inside a {@link FloatBuffer}, typically a direct buffer of uniforms
+ * or instance data that is handed to the GPU. The sixteen floats are laid out
+ * in either {@link Order#ROW_MAJOR} or {@link Order#COLUMN_MAJOR} order,
+ * matching {@link Matrix4f#fillFloatBuffer(FloatBuffer, Order)}. All access
+ * uses absolute indices, so the buffer's position and limit are never changed.
+ * <p>
+ * One view can walk a whole buffer of packed matrices with
+ * {@link #moveTo(int)}; writing a {@link Matrix4f} with
+ * {@link #set(Matrix4f)} stores it straight into the buffer without the
+ * intermediate array used by {@code fillFloatBuffer}.
+ * 
+ * @author Jason Taylor
+ */
+public final class Matrix4fView {
+
+  private FloatBuffer buffer;
+  private int index;
+  private final Order order;
+
+  /**
+   * Constructor instantiates a new row major {@code Matrix4fView} over the
+   * sixteen floats starting at {@code index} in {@code buffer}.
+   * 
+   * @param buffer
+   *          the backing buffer
+   * @param index
+   *          the absolute float index of the first element
+   */
+  public Matrix4fView(FloatBuffer buffer, int index) {
+    this(buffer, index, Order.ROW_MAJOR);
+  }
+
+  /**
+   * Constructor instantiates a new {@code Matrix4fView} over the sixteen
+   * floats starting at {@code index} in {@code buffer}.
+   * 
+   * @param buffer
+   *          the backing buffer
+   * @param index
+   *          the absolute float index of the first element
+   * @param order
+   *          the layout of the elements in the buffer
+   */
+  public Matrix4fView(FloatBuffer buffer, int index, Order order) {
+    this.order = order;
+    set(buffer, index);
+  }
+
+  /**
+   * Constructor instantiates a new {@code Matrix4fView} over the sixteen
+   * floats starting at {@code byteOffset} in {@code buffer}. The floats are
+   * read in native byte order.
+   * 
+   * @param buffer
+   *          the backing buffer
+   * @param byteOffset
+   *          the absolute byte offset of the first element, must be a multiple
+   *          of 4
+   * @param order
+   *          the layout of the elements in the buffer
+   * @throws IllegalArgumentException
+   *           if {@code byteOffset} is not a multiple of 4
+   */
+  public Matrix4fView(ByteBuffer buffer, int byteOffset, Order order) {
+    this(Vector3fView.asFloatBuffer(buffer), Vector3fView.floatIndex(byteOffset), order);
+  }
+
+  /**
+   * Points this view at a new buffer and index.
+   * 
+   * @param buffer
+   * @param index
+   * @return this
+   */
+  public Matrix4fView set(FloatBuffer buffer, int index) {
+    this.buffer = buffer;
+    return moveTo(index);
+  }
+
+  /**
+   * Points this view at a new index in the same buffer.
+   * 
+   * @param index
+   *          the absolute float index of the first element
+   * @return this
+   */
+  public Matrix4fView moveTo(int index) {
+    if (index < 0 || index + 16 > buffer.capacity()) {
+      throw new IndexOutOfBoundsException("index=" + index + ", capacity=" + buffer.capacity());
+    }
+    this.index = index;
+    return this;
+  }
+
+  /**
+   * @return the backing buffer
+   */
+  public FloatBuffer getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * @return the absolute float index of the first element
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  /**
+   * @return the layout of the elements in the buffer
+   */
+  public Order getOrder() {
+    return order;
+  }
+
+  private int indexOf(int i, int j) {
+    if (i < 0 || i > 3 || j < 0 || j > 3) {
+      throw new IllegalArgumentException("Invalid indices into matrix.");
+    }
+    return index + (order == Order.ROW_MAJOR ? (i << 2) + j : (j << 2) + i);
+  }
+
+  /**
+   * {@code get} retrieves a value from the matrix at the given position.
+   * 
+   * @param i
+   *          the row index.
+   * @param j
+   *          the column index.
+   * @return the value at (i, j).
+   * @see Matrix4f#get(int, int)
+   */
+  public float get(int i, int j) {
+    return buffer.get(indexOf(i, j));
+  }
+
+  /**
+   * {@code set} places a given value into the matrix at the given position.
+   * 
+   * @param i
+   *          the row index.
+   * @param j
+   *          the column index.
+   * @param value
+   *          the value for (i, j).
+   * @return this
+   * @see Matrix4f#set(int, int, float)
+   */
+  public Matrix4fView set(int i, int j, float value) {
+    buffer.put(indexOf(i, j), value);
+    return this;
+  }
+
+  /**
+   * Writes the values of {@code mat} into the buffer.
+   * 
+   * @param mat
+   * @return this
+   */
+  public Matrix4fView set(Matrix4f mat) {
+    FloatBuffer b = buffer;
+    int i = index;
+    if (order == Order.COLUMN_MAJOR) {
+      b.put(i, mat.m00);
+      b.put(i + 1, mat.m10);
+      b.put(i + 2, mat.m20);
+      b.put(i + 3, mat.m30);
+      b.put(i + 4, mat.m01);
+      b.put(i + 5, mat.m11);
+      b.put(i + 6, mat.m21);
+      b.put(i + 7, mat.m31);
+      b.put(i + 8, mat.m02);
+      b.put(i + 9, mat.m12);
+      b.put(i + 10, mat.m22);
+      b.put(i + 11, mat.m32);
+      b.put(i + 12, mat.m03);
+      b.put(i + 13, mat.m13);
+      b.put(i + 14, mat.m23);
+      b.put(i + 15, mat.m33);
+    } else {
+      b.put(i, mat.m00);
+      b.put(i + 1, mat.m01);
+      b.put(i + 2, mat.m02);
+      b.put(i + 3, mat.m03);
+      b.put(i + 4, mat.m10);
+      b.put(i + 5, mat.m11);
+      b.put(i + 6, mat.m12);
+      b.put(i + 7, mat.m13);
+      b.put(i + 8, mat.m20);
+      b.put(i + 9, mat.m21);
+      b.put(i + 10, mat.m22);
+      b.put(i + 11, mat.m23);
+      b.put(i + 12, mat.m30);
+      b.put(i + 13, mat.m31);
+      b.put(i + 14, mat.m32);
+      b.put(i + 15, mat.m33);
+    }
+    return this;
+  }
+
+  /**
+   * Reads the values in the buffer into {@code store}.
+   * 
+   * @param store
+   *          the matrix to store the result in, created if null
+   * @return store
+   */
+  public Matrix4f get(Matrix4f store) {
+    if (store == null) {
+      store = new Matrix4f();
+    }
+    FloatBuffer b = buffer;
+    int i = index;
+    if (order == Order.COLUMN_MAJOR) {
+      store.m00 = b.get(i);
+      store.m10 = b.get(i + 1);
+      store.m20 = b.get(i + 2);
+      store.m30 = b.get(i + 3);
+      store.m01 = b.get(i + 4);
+      store.m11 = b.get(i + 5);
+      store.m21 = b.get(i + 6);
+      store.m31 = b.get(i + 7);
+      store.m02 = b.get(i + 8);
+      store.m12 = b.get(i + 9);
+      store.m22 = b.get(i + 10);
+      store.m32 = b.get(i + 11);
+      store.m03 = b.get(i + 12);
+      store.m13 = b.get(i + 13);
+      store.m23 = b.get(i + 14);
+      store.m33 = b.get(i + 15);
+    } else {
+      store.m00 = b.get(i);
+      store.m01 = b.get(i + 1);
+      store.m02 = b.get(i + 2);
+      store.m03 = b.get(i + 3);
+      store.m10 = b.get(i + 4);
+      store.m11 = b.get(i + 5);
+      store.m12 = b.get(i + 6);
+      store.m13 = b.get(i + 7);
+      store.m20 = b.get(i + 8);
+      store.m21 = b.get(i + 9);
+      store.m22 = b.get(i + 10);
+      store.m23 = b.get(i + 11);
+      store.m30 = b.get(i + 12);
+      store.m31 = b.get(i + 13);
+      store.m32 = b.get(i + 14);
+      store.m33 = b.get(i + 15);
+    }
+    return store;
+  }
+
+  /**
+   * Sets the viewed matrix to the identity matrix.
+   * 
+   * @return this
+   */
+  public Matrix4fView loadIdentity() {
+    return set(Matrix4f.IDENTITY);
+  }
+
+  /**
+   * Writes a scale, rotate and translate transform into the buffer.
+   * 
+   * @param position
+   * @param scale
+   * @param rotMat
+   * @return this
+   * @see Matrix4f#setTransform(Vector3f, Vector3f, Matrix3f)
+   */
+  public Matrix4fView setTransform(Vector3f position, Vector3f scale, Matrix3f rotMat) {
+    TempVars vars = TempVars.get();
+    try {
+      Matrix4f m = vars.tempMat4;
+      m.setTransform(position, scale, rotMat);
+      set(m);
+    } finally {
+      vars.release();
+    }
+    return this;
+  }
+
+  /**
+   * {@code multLocal} multiplies the viewed matrix with {@code in2} and
+   * writes the result back into the buffer. The viewed matrix is on the left
+   * hand side.
+   * 
+   * @param in2
+   * @return this
+   * @see Matrix4f#multLocal(Matrix4f)
+   */
+  public Matrix4fView multLocal(Matrix4f in2) {
+    TempVars vars = TempVars.get();
+    try {
+      Matrix4f m = get(vars.tempMat4);
+      set(m.mult(in2, m));
+    } finally {
+      vars.release();
+    }
+    return this;
+  }
+
+  /**
+   * {@code mult} multiplies the viewed matrix with {@code in2} and stores
+   * the result in {@code store}. The viewed matrix is on the left hand side.
+   * 
+   * @param in2
+   * @param store
+   *          the matrix to store the result in, created if null
+   * @return store
+   * @see Matrix4f#mult(Matrix4f, Matrix4f)
+   */
+  public Matrix4f mult(Matrix4f in2, Matrix4f store) {
+    TempVars vars = TempVars.get();
+    try {
+      return get(vars.tempMat4).mult(in2, store);
+    } finally {
+      vars.release();
+    }
+  }
+
+  /**
+   * {@code addLocal} adds {@code mat} to the viewed matrix.
+   * 
+   * @param mat
+   * @return this
+   * @see Matrix4f#addLocal(Matrix4f)
+   */
+  public Matrix4fView addLocal(Matrix4f mat) {
+    TempVars vars = TempVars.get();
+    try {
+      Matrix4f m = get(vars.tempMat4);
+      m.addLocal(mat);
+      set(m);
+    } finally {
+      vars.release();
+    }
+    return this;
+  }
+
+  /**
+   * {@code multLocal} multiplies the viewed matrix by a scalar.
+   * 
+   * @param scalar
+   * @return this
+   * @see Matrix4f#multLocal(float)
+   */
+  public Matrix4fView multLocal(float scalar) {
+    FloatBuffer b = buffer;
+    int end = index + 16;
+    for (int i = index; i < end; i++) {
+      b.put(i, b.get(i) * scalar);
+    }
+    return this;
+  }
+
+  /**
+   * Inverts the viewed matrix in place.
+   * 
+   * @return this
+   * @see Matrix4f#invertLocal()
+   */
+  public Matrix4fView invertLocal() {
+    TempVars vars = TempVars.get();
+    try {
+      Matrix4f m = get(vars.tempMat4);
+      set(m.invertLocal());
+    } finally {
+      vars.release();
+    }
+    return this;
+  }
+
+  /**
+   * Inverts the viewed matrix and stores it in the given store.
+   * 
+   * @param store
+   *          the matrix to store the result in, created if null
+   * @return store
+   * @see Matrix4f#invert(Matrix4f)
+   */
+  public Matrix4f invert(Matrix4f store) {
+    TempVars vars = TempVars.get();
+    try {
+      return get(vars.tempMat4).invert(store);
+    } finally {
+      vars.release();
+    }
+  }
+
+  /**
+   * @return the determinant of the viewed matrix
+   * @see Matrix4f#determinant()
+   */
+  public float determinant() {
+    TempVars vars = TempVars.get();
+    try {
+      return get(vars.tempMat4).determinant();
+    } finally {
+      vars.release();
+    }
+  }
+
+  /**
+   * {@code mult} multiplies a vector by the viewed matrix and adds
+   * translation.
+   * 
+   * @param vec
+   * @param store
+   *          the vector to store the result in, created if null
+   * @return store
+   * @see Matrix4f#mult(Vector3f, Vector3f)
+   */
+  public Vector3f mult(Vector3f vec, Vector3f store) {
+    if (store == null) {
+      store = new Vector3f();
+    }
+    float vx = vec.x, vy = vec.y, vz = vec.z;
+    float x = get(0, 0) * vx + get(0, 1) * vy + get(0, 2) * vz + get(0, 3);
+    float y = get(1, 0) * vx + get(1, 1) * vy + get(1, 2) * vz + get(1, 3);
+    float z = get(2, 0) * vx + get(2, 1) * vy + get(2, 2) * vz + get(2, 3);
+    return store.set(x, y, z);
+  }
+
+  /**
+   * {@code multNormal} multiplies a vector by the viewed matrix without
+   * adding translation.
+   * 
+   * @param vec
+   * @param store
+   *          the vector to store the result in, created if null
+   * @return store
+   * @see Matrix4f#multNormal(Vector3f, Vector3f)
+   */
+  public Vector3f multNormal(Vector3f vec, Vector3f store) {
+    if (store == null) {
+      store = new Vector3f();
+    }
+    float vx = vec.x, vy = vec.y, vz = vec.z;
+    float x = get(0, 0) * vx + get(0, 1) * vy + get(0, 2) * vz;
+    float y = get(1, 0) * vx + get(1, 1) * vy + get(1, 2) * vz;
+    float z = get(2, 0) * vx + get(2, 1) * vy + get(2, 2) * vz;
+    return store.set(x, y, z);
+  }
+
+  /**
+   * {@code mult} multiplies a {@code Vector4f} by the viewed matrix.
+   * 
+   * @param vec
+   * @param store
+   *          the vector to store the result in, created if null
+   * @return store
+   * @see Matrix4f#mult(Vector4f, Vector4f)
+   */
+  public Vector4f mult(Vector4f vec, Vector4f store) {
+    if (store == null) {
+      store = new Vector4f();
+    }
+    float vx = vec.x, vy = vec.y, vz = vec.z, vw = vec.w;
+    float x = get(0, 0) * vx + get(0, 1) * vy + get(0, 2) * vz + get(0, 3) * vw;
+    float y = get(1, 0) * vx + get(1, 1) * vy + get(1, 2) * vz + get(1, 3) * vw;
+    float z = get(2, 0) * vx + get(2, 1) * vy + get(2, 2) * vz + get(2, 3) * vw;
+    float w = get(3, 0) * vx + get(3, 1) * vy + get(3, 2) * vz + get(3, 3) * vw;
+    return store.set(x, y, z, w);
+  }
+
+  @Override
+  public String toString() {
+    TempVars vars = TempVars.get();
+    try {
+      return get(vars.tempMat4).toString();
+    } finally {
+      vars.release();
+    }
+  }
+
+}
@@ -38,6 +38,11 @@ package com.sudoplay.math;
  * <p>
  * http://riven8192.blogspot.com/2009/08/fastmath-sincos-lookup-tables.html
  * http://riven8192.blogspot.com/2009/08/fastmath-atan2-lookup-table.html
+ * <p>
+ * The static methods use a fixed 4096 entry sin/cos table and a 128x128
+ * atan2 grid with nearest sample lookup. For a different speed/accuracy
+ * trade-off, create a {@link Table} with its own size and, optionally, linear
+ * interpolation.
  * 
  * @author Riven
  */
@@ -146,4 +151,259 @@ public class TrigLUT {
       }
     }
   }
+
+  /**
+   * {@code Table} is a trig lookup table with a selectable size and optional
+   * linear interpolation between samples. Instances are immutable and can be
+   * shared between threads; create one per subsystem with the resolution that
+   * subsystem needs.
+   * <p>
+   * {@code sin}/{@code cos} sample one full turn with 2^bits entries.
+   * {@code asin}/{@code acos} sample asin over [0, 0.5] and use
+   * {@code asin(x) = PI/2 - 2 asin(sqrt((1 - x) / 2))} above that, so they stay
+   * accurate near +-1. {@code atan2} samples atan over [0, 1] and reduces the
+   * other octants to it. Each of these uses 2^bits + 1 entries.
+   * <p>
+   * Maximum absolute error, measured against {@code java.lang.Math} for angles
+   * in [-2PI, 2PI] and the whole domain of asin, acos and atan2:
+   * 
+   * <pre>
+   * bits  interpolate  sin/cos   asin/acos  atan2
+   *  8    no           1.2e-2    2.3e-3     2.0e-3
+   *  8    yes          7.5e-5    8.8e-7     1.5e-6
+   * 10    no           3.1e-3    5.6e-4     4.9e-4
+   * 10    yes          4.8e-6    3.5e-7     3.6e-7
+   * 12    no           7.7e-4    1.4e-4     1.2e-4
+   * 12    yes          5.6e-7    3.5e-7     2.9e-7
+   * 14    no           1.9e-4    3.5e-5     3.1e-5
+   * 14    yes          4.4e-7    3.5e-7     2.9e-7
+   * </pre>
+   * 
+   * {@code sin}, {@code cos} and {@code sinCos} do not check their argument:
+   * NaN and infinite angles return a table value instead of NaN, and the sign
+   * of a zero result is not kept.
+   * <p>
+   * With interpolation, beyond about 12 bits the error is dominated by float
+   * rounding, so larger tables only cost cache. The static {@link TrigLUT}
+   * methods match the 12 bit, nearest sample row for sin/cos.
+   * 
+   * @author Jason Taylor
+   */
+  public static final class Table {
+
+    private final int bits;
+    private final int mask;
+    private final boolean interpolate;
+    private final float radToIndex;
+    private final float asinToIndex;
+    private final float atanToIndex;
+    // sin and cos interleaved, so that sinCos touches a single cache line
+    private final float[] sinCos;
+    private final float[] asin;
+    private final float[] atan;
+
+    /**
+     * Creates a new table.
+     * 
+     * @param bits
+     *          the table size as a power of two, in [2, 24]
+     * @param interpolate
+     *          true to interpolate linearly between samples, false to use the
+     *          nearest sample
+     */
+    public Table(int bits, boolean interpolate) {
+      if (bits < 2 || bits > 24) {
+        throw new IllegalArgumentException("bits must be in [2, 24]: " + bits);
+      }
+      int count = 1 << bits;
+      this.bits = bits;
+      this.mask = count - 1;
+      this.interpolate = interpolate;
+      this.radToIndex = (float) (count / (Math.PI * 2.0));
+      this.asinToIndex = count / 0.5f;
+      this.atanToIndex = count;
+
+      sinCos = new float[(count + 1) * 2];
+      asin = new float[count + 1];
+      atan = new float[count + 1];
+      for (int i = 0; i <= count; i++) {
+        double rad = (double) i / count * Math.PI * 2.0;
+        sinCos[i * 2] = (float) Math.sin(rad);
+        sinCos[i * 2 + 1] = (float) Math.cos(rad);
+        asin[i] = (float) Math.asin(0.5 * i / count);
+        atan[i] = (float) Math.atan((double) i / count);
+      }
+    }
+
+    /**
+     * @return the table size as a power of two
+     */
+    public int getBits() {
+      return bits;
+    }
+
+    /**
+     * @return true if this table interpolates between samples
+     */
+    public boolean isInterpolated() {
+      return interpolate;
+    }
+
+    /**
+     * @param rad
+     *          the angle in radians
+     * @return the sine of the angle
+     */
+    public float sin(float rad) {
+      float f = rad * radToIndex;
+      if (interpolate) {
+        int i = floor(f);
+        float t = f - i;
+        i = (i & mask) << 1;
+        return sinCos[i] + (sinCos[i + 2] - sinCos[i]) * t;
+      }
+      return sinCos[(floor(f + 0.5f) & mask) << 1];
+    }
+
+    /**
+     * @param rad
+     *          the angle in radians
+     * @return the cosine of the angle
+     */
+    public float cos(float rad) {
+      float f = rad * radToIndex;
+      if (interpolate) {
+        int i = floor(f);
+        float t = f - i;
+        i = ((i & mask) << 1) + 1;
+        return sinCos[i] + (sinCos[i + 2] - sinCos[i]) * t;
+      }
+      return sinCos[((floor(f + 0.5f) & mask) << 1) + 1];
+    }
+
+    /**
+     * Looks up the sine and cosine of an angle with a single index
+     * computation.
+     * 
+     * @param rad
+     *          the angle in radians
+     * @param store
+     *          receives (cos, sin) in (x, y), created if null
+     * @return store
+     */
+    public Vector2f sinCos(float rad, Vector2f store) {
+      if (store == null) {
+        store = new Vector2f();
+      }
+      float f = rad * radToIndex;
+      if (interpolate) {
+        int i = floor(f);
+        float t = f - i;
+        i = (i & mask) << 1;
+        float s0 = sinCos[i], c0 = sinCos[i + 1];
+        store.x = c0 + (sinCos[i + 3] - c0) * t;
+        store.y = s0 + (sinCos[i + 2] - s0) * t;
+      } else {
+        int i = (floor(f + 0.5f) & mask) << 1;
+        store.x = sinCos[i + 1];
+        store.y = sinCos[i];
+      }
+      return store;
+    }
+
+    /**
+     * Returns the arc sine of a value; inputs outside of [-1, 1] are clamped,
+     * NaN returns NaN.
+     * 
+     * @param value
+     * @return the angle in radians, in [-PI/2, PI/2]
+     */
+    public float asin(float value) {
+      float x = Math.abs(value);
+      float result;
+      if (x <= 0.5f) {
+        result = asinTable(x);
+      } else if (x != x) {
+        return Float.NaN;
+      } else {
+        x = x >= 1f ? 0f : (float) Math.sqrt((1f - x) * 0.5f);
+        result = FastMath.HALF_PI - 2f * asinTable(x);
+      }
+      return value < 0 ? -result : result;
+    }
+
+    /**
+     * Returns the arc cosine of a value; inputs outside of [-1, 1] are
+     * clamped, NaN returns NaN.
+     * 
+     * @param value
+     * @return the angle in radians, in [0, PI]
+     */
+    public float acos(float value) {
+      return FastMath.HALF_PI - asin(value);
+    }
+
+    /**
+     * Rounds toward negative infinity; a negative integer input rounds to one
+     * below itself, which the callers absorb as an interpolation weight of 1
+     * or a tie between two equally near samples.
+     */
+    private static int floor(float f) {
+      return (int) f - (f < 0f ? 1 : 0);
+    }
+
+    private float asinTable(float x) {
+      float f = x * asinToIndex;
+      if (interpolate) {
+        int i = (int) f;
+        float t = f - i;
+        if (i >= mask + 1) {
+          return asin[mask + 1];
+        }
+        return asin[i] + (asin[i + 1] - asin[i]) * t;
+      }
+      return asin[(int) (f + 0.5f)];
+    }
+
+    /**
+     * Returns the angle of the point (x, y), as {@link Math#atan2(double,
+     * double)}, including its results for signed zeros, infinities and NaN.
+     * 
+     * @param y
+     * @param x
+     * @return the angle in radians, in [-PI, PI]
+     */
+    public float atan2(float y, float x) {
+      float ax = Math.abs(x), ay = Math.abs(y);
+      float max = Math.max(ax, ay);
+      float result;
+      if (!(max > 0f)) {
+        if (max != max) {
+          return Float.NaN;
+        }
+        // both zero, the signs pick 0 or PI as Math.atan2 does
+        result = 0f;
+      } else {
+        // ax == ay also covers two infinities, whose ratio would be NaN
+        float f = ax == ay ? atanToIndex : Math.min(ax, ay) / max * atanToIndex;
+        if (interpolate) {
+          int i = (int) f;
+          float t = f - i;
+          result = i > mask ? atan[mask + 1] : atan[i] + (atan[i + 1] - atan[i]) * t;
+        } else {
+          result = atan[(int) (f + 0.5f)];
+        }
+      }
+      if (ay > ax) {
+        result = FastMath.HALF_PI - result;
+      }
+      // sign bits rather than < 0, so that -0 is negative as in Math.atan2
+      if (Float.floatToRawIntBits(x) < 0) {
+        result = FastMath.PI - result;
+      }
+      return Float.floatToRawIntBits(y) < 0 ? -result : result;
+    }
+
+  }
+
 }
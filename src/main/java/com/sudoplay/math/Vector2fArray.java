@@ -0,0 +1,333 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+/**
+ * {@code Vector2fArray} stores a fixed number of two float value tuples as
+ * parallel {@code x} and {@code y} columns (structure of arrays).
+ * <p>
+ * The bulk operations work on a range of elements and produce, for each
+ * element, exactly the same result as the matching {@link Vector2f} method.
+ * Each operation is a single counted loop over primitive arrays so that the
+ * JIT can unroll and vectorize it.
+ * 
+ * @author Jason Taylor
+ */
+public final class Vector2fArray {
+
+  /**
+   * the x values of the vectors.
+   */
+  public final float[] x;
+
+  /**
+   * the y values of the vectors.
+   */
+  public final float[] y;
+
+  /**
+   * Constructor instantiates a new {@code Vector2fArray} holding {@code size}
+   * vectors, all set to (0,0).
+   * 
+   * @param size
+   *          the number of vectors
+   */
+  public Vector2fArray(int size) {
+    x = new float[size];
+    y = new float[size];
+  }
+
+  /**
+   * @return the number of vectors in this array
+   */
+  public int size() {
+    return x.length;
+  }
+
+  /**
+   * Sets the vector at {@code index}.
+   * 
+   * @param index
+   * @param x
+   * @param y
+   * @return this
+   */
+  public Vector2fArray set(int index, float x, float y) {
+    this.x[index] = x;
+    this.y[index] = y;
+    return this;
+  }
+
+  /**
+   * Sets the vector at {@code index} by copying the supplied vector.
+   * 
+   * @param index
+   * @param vect
+   * @return this
+   */
+  public Vector2fArray set(int index, Vector2f vect) {
+    return set(index, vect.x, vect.y);
+  }
+
+  /**
+   * Copies the vector at {@code index} into {@code store}.
+   * 
+   * @param index
+   * @param store
+   *          the vector to store the result in, created if null
+   * @return store
+   */
+  public Vector2f get(int index, Vector2f store) {
+    if (store == null) {
+      store = new Vector2f();
+    }
+    return store.set(x[index], y[index]);
+  }
+
+  /**
+   * {@code addLocal} adds the vectors of {@code vec} to the vectors of this
+   * array in the range [offset, offset + length).
+   * 
+   * @param vec
+   *          the vectors to add
+   * @param offset
+   * @param length
+   * @return this
+   * @see Vector2f#addLocal(Vector2f)
+   */
+  public Vector2fArray addLocal(Vector2fArray vec, int offset, int length) {
+    checkRange(offset, length);
+    vec.checkRange(offset, length);
+    float[] x = this.x, y = this.y;
+    float[] vx = vec.x, vy = vec.y;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      x[i] += vx[i];
+      y[i] += vy[i];
+    }
+    return this;
+  }
+
+  /**
+   * {@code addLocal} adds the given values to the vectors of this array in the
+   * range [offset, offset + length).
+   * 
+   * @param addX
+   * @param addY
+   * @param offset
+   * @param length
+   * @return this
+   * @see Vector2f#addLocal(float, float)
+   */
+  public Vector2fArray addLocal(float addX, float addY, int offset, int length) {
+    checkRange(offset, length);
+    float[] x = this.x, y = this.y;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      x[i] += addX;
+      y[i] += addY;
+    }
+    return this;
+  }
+
+  /**
+   * {@code multLocal} multiplies the vectors of this array in the range
+   * [offset, offset + length) by a scalar.
+   * 
+   * @param scalar
+   * @param offset
+   * @param length
+   * @return this
+   * @see Vector2f#multLocal(float)
+   */
+  public Vector2fArray multLocal(float scalar, int offset, int length) {
+    checkRange(offset, length);
+    float[] x = this.x, y = this.y;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      x[i] *= scalar;
+      y[i] *= scalar;
+    }
+    return this;
+  }
+
+  /**
+   * {@code scaleAdd} multiplies the vectors of this array in the range
+   * [offset, offset + length) by a scalar then adds the vectors of
+   * {@code add}.
+   * 
+   * @param scalar
+   *          the value to multiply the vectors by
+   * @param add
+   *          the vectors to add
+   * @param offset
+   * @param length
+   * @return this
+   */
+  public Vector2fArray scaleAdd(float scalar, Vector2fArray add, int offset, int length) {
+    checkRange(offset, length);
+    add.checkRange(offset, length);
+    float[] x = this.x, y = this.y;
+    float[] ax = add.x, ay = add.y;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      x[i] = x[i] * scalar + ax[i];
+      y[i] = y[i] * scalar + ay[i];
+    }
+    return this;
+  }
+
+  /**
+   * {@code dot} calculates the dot product of each vector of this array with
+   * the matching vector of {@code vec} in the range [offset, offset + length).
+   * 
+   * @param vec
+   * @param store
+   *          receives the dot products at the same indices, created if null
+   * @param offset
+   * @param length
+   * @return store
+   * @see Vector2f#dot(Vector2f)
+   */
+  public float[] dot(Vector2fArray vec, float[] store, int offset, int length) {
+    checkRange(offset, length);
+    vec.checkRange(offset, length);
+    if (store == null) {
+      store = new float[size()];
+    }
+    float[] x = this.x, y = this.y;
+    float[] vx = vec.x, vy = vec.y;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      store[i] = x[i] * vx[i] + y[i] * vy[i];
+    }
+    return store;
+  }
+
+  /**
+   * {@code lengthSquared} calculates the squared magnitude of each vector of
+   * this array in the range [offset, offset + length).
+   * 
+   * @param store
+   *          receives the squared lengths at the same indices, created if null
+   * @param offset
+   * @param length
+   * @return store
+   * @see Vector2f#lengthSquared()
+   */
+  public float[] lengthSquared(float[] store, int offset, int length) {
+    checkRange(offset, length);
+    if (store == null) {
+      store = new float[size()];
+    }
+    float[] x = this.x, y = this.y;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      store[i] = x[i] * x[i] + y[i] * y[i];
+    }
+    return store;
+  }
+
+  /**
+   * {@code normalizeLocal} makes each vector of this array in the range
+   * [offset, offset + length) into a unit vector of itself. Vectors of length
+   * zero are left untouched, as in {@link Vector2f#normalizeLocal()}.
+   * 
+   * @param offset
+   * @param length
+   * @return this
+   */
+  public Vector2fArray normalizeLocal(int offset, int length) {
+    checkRange(offset, length);
+    float[] x = this.x, y = this.y;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      float vx = x[i], vy = y[i];
+      float len = FastMath.sqrt(vx * vx + vy * vy);
+      // dividing by exactly 1 leaves the value unchanged, which keeps the loop
+      // free of a store-skipping branch
+      len = (len != 0) ? len : 1f;
+      x[i] = vx / len;
+      y[i] = vy / len;
+    }
+    return this;
+  }
+
+  /**
+   * {@code min} computes the minimum value for each component over the
+   * vectors of this array in the range [offset, offset + length). An empty
+   * range yields positive infinity in each component.
+   * 
+   * @param offset
+   * @param length
+   * @param store
+   *          the vector to store the result in, created if null
+   * @return store
+   */
+  public Vector2f min(int offset, int length, Vector2f store) {
+    checkRange(offset, length);
+    if (store == null) {
+      store = new Vector2f();
+    }
+    float[] x = this.x, y = this.y;
+    float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      minX = x[i] < minX ? x[i] : minX;
+      minY = y[i] < minY ? y[i] : minY;
+    }
+    return store.set(minX, minY);
+  }
+
+  /**
+   * {@code max} computes the maximum value for each component over the
+   * vectors of this array in the range [offset, offset + length). An empty
+   * range yields negative infinity in each component.
+   * 
+   * @param offset
+   * @param length
+   * @param store
+   *          the vector to store the result in, created if null
+   * @return store
+   */
+  public Vector2f max(int offset, int length, Vector2f store) {
+    checkRange(offset, length);
+    if (store == null) {
+      store = new Vector2f();
+    }
+    float[] x = this.x, y = this.y;
+    float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      maxX = x[i] > maxX ? x[i] : maxX;
+      maxY = y[i] > maxY ? y[i] : maxY;
+    }
+    return store.set(maxX, maxY);
+  }
+
+  private void checkRange(int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > x.length) {
+      throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length + ", size=" + x.length);
+    }
+  }
+
+}
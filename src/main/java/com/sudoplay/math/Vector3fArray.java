@@ -0,0 +1,384 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+/**
+ * {@code Vector3fArray} stores a fixed number of three float value tuples as
+ * parallel {@code x}, {@code y} and {@code z} columns (structure of arrays).
+ * <p>
+ * The bulk operations work on a range of elements and produce, for each
+ * element, exactly the same result as the matching {@link Vector3f} method.
+ * Each operation is a single counted loop over primitive arrays so that the
+ * JIT can unroll and vectorize it.
+ * 
+ * @author Jason Taylor
+ */
+public final class Vector3fArray {
+
+  /**
+   * the x values of the vectors.
+   */
+  public final float[] x;
+
+  /**
+   * the y values of the vectors.
+   */
+  public final float[] y;
+
+  /**
+   * the z values of the vectors.
+   */
+  public final float[] z;
+
+  /**
+   * Constructor instantiates a new {@code Vector3fArray} holding {@code size}
+   * vectors, all set to (0,0,0).
+   * 
+   * @param size
+   *          the number of vectors
+   */
+  public Vector3fArray(int size) {
+    x = new float[size];
+    y = new float[size];
+    z = new float[size];
+  }
+
+  /**
+   * @return the number of vectors in this array
+   */
+  public int size() {
+    return x.length;
+  }
+
+  /**
+   * Sets the vector at {@code index}.
+   * 
+   * @param index
+   * @param x
+   * @param y
+   * @param z
+   * @return this
+   */
+  public Vector3fArray set(int index, float x, float y, float z) {
+    this.x[index] = x;
+    this.y[index] = y;
+    this.z[index] = z;
+    return this;
+  }
+
+  /**
+   * Sets the vector at {@code index} by copying the supplied vector.
+   * 
+   * @param index
+   * @param vect
+   * @return this
+   */
+  public Vector3fArray set(int index, Vector3f vect) {
+    return set(index, vect.x, vect.y, vect.z);
+  }
+
+  /**
+   * Copies the vector at {@code index} into {@code store}.
+   * 
+   * @param index
+   * @param store
+   *          the vector to store the result in, created if null
+   * @return store
+   */
+  public Vector3f get(int index, Vector3f store) {
+    if (store == null) {
+      store = new Vector3f();
+    }
+    return store.set(x[index], y[index], z[index]);
+  }
+
+  /**
+   * {@code addLocal} adds the vectors of {@code vec} to the vectors of this
+   * array in the range [offset, offset + length).
+   * 
+   * @param vec
+   *          the vectors to add
+   * @param offset
+   * @param length
+   * @return this
+   * @see Vector3f#addLocal(Vector3f)
+   */
+  public Vector3fArray addLocal(Vector3fArray vec, int offset, int length) {
+    checkRange(offset, length);
+    vec.checkRange(offset, length);
+    float[] x = this.x, y = this.y, z = this.z;
+    float[] vx = vec.x, vy = vec.y, vz = vec.z;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      x[i] += vx[i];
+      y[i] += vy[i];
+      z[i] += vz[i];
+    }
+    return this;
+  }
+
+  /**
+   * {@code addLocal} adds the given values to the vectors of this array in the
+   * range [offset, offset + length).
+   * 
+   * @param addX
+   * @param addY
+   * @param addZ
+   * @param offset
+   * @param length
+   * @return this
+   * @see Vector3f#addLocal(float, float, float)
+   */
+  public Vector3fArray addLocal(float addX, float addY, float addZ, int offset, int length) {
+    checkRange(offset, length);
+    float[] x = this.x, y = this.y, z = this.z;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      x[i] += addX;
+      y[i] += addY;
+      z[i] += addZ;
+    }
+    return this;
+  }
+
+  /**
+   * {@code multLocal} multiplies the vectors of this array in the range
+   * [offset, offset + length) by a scalar.
+   * 
+   * @param scalar
+   * @param offset
+   * @param length
+   * @return this
+   * @see Vector3f#multLocal(float)
+   */
+  public Vector3fArray multLocal(float scalar, int offset, int length) {
+    checkRange(offset, length);
+    float[] x = this.x, y = this.y, z = this.z;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      x[i] *= scalar;
+      y[i] *= scalar;
+      z[i] *= scalar;
+    }
+    return this;
+  }
+
+  /**
+   * {@code scaleAdd} multiplies the vectors of this array in the range
+   * [offset, offset + length) by a scalar then adds the vectors of
+   * {@code add}.
+   * 
+   * @param scalar
+   *          the value to multiply the vectors by
+   * @param add
+   *          the vectors to add
+   * @param offset
+   * @param length
+   * @return this
+   * @see Vector3f#scaleAdd(float, Vector3f)
+   */
+  public Vector3fArray scaleAdd(float scalar, Vector3fArray add, int offset, int length) {
+    checkRange(offset, length);
+    add.checkRange(offset, length);
+    float[] x = this.x, y = this.y, z = this.z;
+    float[] ax = add.x, ay = add.y, az = add.z;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      x[i] = x[i] * scalar + ax[i];
+      y[i] = y[i] * scalar + ay[i];
+      z[i] = z[i] * scalar + az[i];
+    }
+    return this;
+  }
+
+  /**
+   * {@code dot} calculates the dot product of each vector of this array with
+   * the matching vector of {@code vec} in the range [offset, offset + length).
+   * 
+   * @param vec
+   * @param store
+   *          receives the dot products at the same indices, created if null
+   * @param offset
+   * @param length
+   * @return store
+   * @see Vector3f#dot(Vector3f)
+   */
+  public float[] dot(Vector3fArray vec, float[] store, int offset, int length) {
+    checkRange(offset, length);
+    vec.checkRange(offset, length);
+    if (store == null) {
+      store = new float[size()];
+    }
+    float[] x = this.x, y = this.y, z = this.z;
+    float[] vx = vec.x, vy = vec.y, vz = vec.z;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      store[i] = x[i] * vx[i] + y[i] * vy[i] + z[i] * vz[i];
+    }
+    return store;
+  }
+
+  /**
+   * {@code cross} calculates the cross product of each vector of this array
+   * with the matching vector of {@code vec} in the range [offset, offset +
+   * length). It is safe for {@code result} to be this array or {@code vec}.
+   * 
+   * @param vec
+   * @param result
+   *          receives the cross products, created if null
+   * @param offset
+   * @param length
+   * @return result
+   * @see Vector3f#cross(Vector3f, Vector3f)
+   */
+  public Vector3fArray cross(Vector3fArray vec, Vector3fArray result, int offset, int length) {
+    checkRange(offset, length);
+    vec.checkRange(offset, length);
+    if (result == null) {
+      result = new Vector3fArray(size());
+    }
+    result.checkRange(offset, length);
+    float[] x = this.x, y = this.y, z = this.z;
+    float[] vx = vec.x, vy = vec.y, vz = vec.z;
+    float[] rx = result.x, ry = result.y, rz = result.z;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      float ax = x[i], ay = y[i], az = z[i];
+      float bx = vx[i], by = vy[i], bz = vz[i];
+      rx[i] = (ay * bz) - (az * by);
+      ry[i] = (az * bx) - (ax * bz);
+      rz[i] = (ax * by) - (ay * bx);
+    }
+    return result;
+  }
+
+  /**
+   * {@code lengthSquared} calculates the squared magnitude of each vector of
+   * this array in the range [offset, offset + length).
+   * 
+   * @param store
+   *          receives the squared lengths at the same indices, created if null
+   * @param offset
+   * @param length
+   * @return store
+   * @see Vector3f#lengthSquared()
+   */
+  public float[] lengthSquared(float[] store, int offset, int length) {
+    checkRange(offset, length);
+    if (store == null) {
+      store = new float[size()];
+    }
+    float[] x = this.x, y = this.y, z = this.z;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      store[i] = x[i] * x[i] + y[i] * y[i] + z[i] * z[i];
+    }
+    return store;
+  }
+
+  /**
+   * {@code normalizeLocal} makes each vector of this array in the range
+   * [offset, offset + length) into a unit vector of itself. Vectors of length
+   * zero or one are left untouched, as in {@link Vector3f#normalizeLocal()}.
+   * 
+   * @param offset
+   * @param length
+   * @return this
+   */
+  public Vector3fArray normalizeLocal(int offset, int length) {
+    checkRange(offset, length);
+    float[] x = this.x, y = this.y, z = this.z;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      float vx = x[i], vy = y[i], vz = z[i];
+      float len = vx * vx + vy * vy + vz * vz;
+      // multiplying by exactly 1 leaves the value unchanged, which keeps the
+      // loop free of a store-skipping branch
+      float scale = (len != 1f && len != 0f) ? 1.0f / FastMath.sqrt(len) : 1f;
+      x[i] = vx * scale;
+      y[i] = vy * scale;
+      z[i] = vz * scale;
+    }
+    return this;
+  }
+
+  /**
+   * {@code min} computes the minimum value for each component over the
+   * vectors of this array in the range [offset, offset + length). An empty
+   * range yields {@link Vector3f#POSITIVE_INFINITY}.
+   * 
+   * @param offset
+   * @param length
+   * @param store
+   *          the vector to store the result in, created if null
+   * @return store
+   */
+  public Vector3f min(int offset, int length, Vector3f store) {
+    checkRange(offset, length);
+    if (store == null) {
+      store = new Vector3f();
+    }
+    float[] x = this.x, y = this.y, z = this.z;
+    float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      minX = x[i] < minX ? x[i] : minX;
+      minY = y[i] < minY ? y[i] : minY;
+      minZ = z[i] < minZ ? z[i] : minZ;
+    }
+    return store.set(minX, minY, minZ);
+  }
+
+  /**
+   * {@code max} computes the maximum value for each component over the
+   * vectors of this array in the range [offset, offset + length). An empty
+   * range yields {@link Vector3f#NEGATIVE_INFINITY}.
+   * 
+   * @param offset
+   * @param length
+   * @param store
+   *          the vector to store the result in, created if null
+   * @return store
+   */
+  public Vector3f max(int offset, int length, Vector3f store) {
+    checkRange(offset, length);
+    if (store == null) {
+      store = new Vector3f();
+    }
+    float[] x = this.x, y = this.y, z = this.z;
+    float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      maxX = x[i] > maxX ? x[i] : maxX;
+      maxY = y[i] > maxY ? y[i] : maxY;
+      maxZ = z[i] > maxZ ? z[i] : maxZ;
+    }
+    return store.set(maxX, maxY, maxZ);
+  }
+
+  private void checkRange(int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > x.length) {
+      throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length + ", size=" + x.length);
+    }
+  }
+
+}
@@ -0,0 +1,381 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * {@code Vector3fView} is a flyweight that reads and writes a three float
+ * value tuple in place inside a {@link FloatBuffer}, typically a direct buffer
+ * that is handed to the GPU or to a network channel. All access uses absolute
+ * indices, so the buffer's position and limit are never changed.
+ * <p>
+ * One view can walk a whole buffer of packed vectors with
+ * {@link #moveTo(int)}, which avoids both the intermediate {@link Vector3f}
+ * and the copy into the buffer.
+ * 
+ * @author Jason Taylor
+ */
+public final class Vector3fView {
+
+  private FloatBuffer buffer;
+  private int index;
+
+  /**
+   * Constructor instantiates a new {@code Vector3fView} over the three floats
+   * starting at {@code index} in {@code buffer}.
+   * 
+   * @param buffer
+   *          the backing buffer
+   * @param index
+   *          the absolute float index of the x value
+   */
+  public Vector3fView(FloatBuffer buffer, int index) {
+    set(buffer, index);
+  }
+
+  /**
+   * Constructor instantiates a new {@code Vector3fView} over the three floats
+   * starting at {@code byteOffset} in {@code buffer}. The floats are read in
+   * native byte order.
+   * 
+   * @param buffer
+   *          the backing buffer
+   * @param byteOffset
+   *          the absolute byte offset of the x value, must be a multiple of 4
+   * @throws IllegalArgumentException
+   *           if {@code byteOffset} is not a multiple of 4
+   */
+  public Vector3fView(ByteBuffer buffer, int byteOffset) {
+    this(asFloatBuffer(buffer), floatIndex(byteOffset));
+  }
+
+  static FloatBuffer asFloatBuffer(ByteBuffer buffer) {
+    ByteBuffer duplicate = buffer.duplicate().order(ByteOrder.nativeOrder());
+    duplicate.clear();
+    return duplicate.asFloatBuffer();
+  }
+
+  static int floatIndex(int byteOffset) {
+    if ((byteOffset & 3) != 0) {
+      throw new IllegalArgumentException("Byte offset is not a multiple of 4: " + byteOffset);
+    }
+    return byteOffset >> 2;
+  }
+
+  /**
+   * Points this view at a new buffer and index.
+   * 
+   * @param buffer
+   * @param index
+   * @return this
+   */
+  public Vector3fView set(FloatBuffer buffer, int index) {
+    this.buffer = buffer;
+    return moveTo(index);
+  }
+
+  /**
+   * Points this view at a new index in the same buffer.
+   * 
+   * @param index
+   *          the absolute float index of the x value
+   * @return this
+   */
+  public Vector3fView moveTo(int index) {
+    if (index < 0 || index + 3 > buffer.capacity()) {
+      throw new IndexOutOfBoundsException("index=" + index + ", capacity=" + buffer.capacity());
+    }
+    this.index = index;
+    return this;
+  }
+
+  /**
+   * @return the backing buffer
+   */
+  public FloatBuffer getBuffer() {
+    return buffer;
+  }
+
+  /**
+   * @return the absolute float index of the x value
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  public float getX() {
+    return buffer.get(index);
+  }
+
+  public Vector3fView setX(float x) {
+    buffer.put(index, x);
+    return this;
+  }
+
+  public float getY() {
+    return buffer.get(index + 1);
+  }
+
+  public Vector3fView setY(float y) {
+    buffer.put(index + 1, y);
+    return this;
+  }
+
+  public float getZ() {
+    return buffer.get(index + 2);
+  }
+
+  public Vector3fView setZ(float z) {
+    buffer.put(index + 2, z);
+    return this;
+  }
+
+  /**
+   * {@code set} sets the x,y,z values of the vector.
+   * 
+   * @param x
+   * @param y
+   * @param z
+   * @return this
+   */
+  public Vector3fView set(float x, float y, float z) {
+    FloatBuffer b = buffer;
+    int i = index;
+    b.put(i, x);
+    b.put(i + 1, y);
+    b.put(i + 2, z);
+    return this;
+  }
+
+  /**
+   * {@code set} sets the x,y,z values of the vector by copying the supplied
+   * vector.
+   * 
+   * @param vect
+   * @return this
+   */
+  public Vector3fView set(Vector3f vect) {
+    return set(vect.x, vect.y, vect.z);
+  }
+
+  /**
+   * Copies the viewed values into {@code store}.
+   * 
+   * @param store
+   *          the vector to store the result in, created if null
+   * @return store
+   */
+  public Vector3f get(Vector3f store) {
+    if (store == null) {
+      store = new Vector3f();
+    }
+    FloatBuffer b = buffer;
+    int i = index;
+    return store.set(b.get(i), b.get(i + 1), b.get(i + 2));
+  }
+
+  /**
+   * {@code addLocal} adds a provided vector to this vector internally.
+   * 
+   * @param vec
+   * @return this
+   * @see Vector3f#addLocal(Vector3f)
+   */
+  public Vector3fView addLocal(Vector3f vec) {
+    return addLocal(vec.x, vec.y, vec.z);
+  }
+
+  /**
+   * {@code addLocal} adds the provided values to this vector internally.
+   * 
+   * @param addX
+   * @param addY
+   * @param addZ
+   * @return this
+   * @see Vector3f#addLocal(float, float, float)
+   */
+  public Vector3fView addLocal(float addX, float addY, float addZ) {
+    FloatBuffer b = buffer;
+    int i = index;
+    b.put(i, b.get(i) + addX);
+    b.put(i + 1, b.get(i + 1) + addY);
+    b.put(i + 2, b.get(i + 2) + addZ);
+    return this;
+  }
+
+  /**
+   * {@code subtractLocal} subtracts a provided vector from this vector
+   * internally.
+   * 
+   * @param vec
+   * @return this
+   * @see Vector3f#subtractLocal(Vector3f)
+   */
+  public Vector3fView subtractLocal(Vector3f vec) {
+    return addLocal(-vec.x, -vec.y, -vec.z);
+  }
+
+  /**
+   * {@code multLocal} multiplies this vector by a scalar internally.
+   * 
+   * @param scalar
+   * @return this
+   * @see Vector3f#multLocal(float)
+   */
+  public Vector3fView multLocal(float scalar) {
+    FloatBuffer b = buffer;
+    int i = index;
+    b.put(i, b.get(i) * scalar);
+    b.put(i + 1, b.get(i + 1) * scalar);
+    b.put(i + 2, b.get(i + 2) * scalar);
+    return this;
+  }
+
+  /**
+   * {@code scaleAdd} multiplies this vector by a scalar then adds the given
+   * vector.
+   * 
+   * @param scalar
+   * @param add
+   * @return this
+   * @see Vector3f#scaleAdd(float, Vector3f)
+   */
+  public Vector3fView scaleAdd(float scalar, Vector3f add) {
+    FloatBuffer b = buffer;
+    int i = index;
+    b.put(i, b.get(i) * scalar + add.x);
+    b.put(i + 1, b.get(i + 1) * scalar + add.y);
+    b.put(i + 2, b.get(i + 2) * scalar + add.z);
+    return this;
+  }
+
+  /**
+   * {@code dot} calculates the dot product of this vector with a provided
+   * vector.
+   * 
+   * @param vec
+   * @return the dot product
+   * @see Vector3f#dot(Vector3f)
+   */
+  public float dot(Vector3f vec) {
+    FloatBuffer b = buffer;
+    int i = index;
+    return b.get(i) * vec.x + b.get(i + 1) * vec.y + b.get(i + 2) * vec.z;
+  }
+
+  /**
+   * {@code cross} calculates the cross product of this vector with {@code v}
+   * and stores it in {@code result}.
+   * 
+   * @param v
+   * @param result
+   *          the vector to store the result in, created if null
+   * @return result
+   * @see Vector3f#cross(Vector3f, Vector3f)
+   */
+  public Vector3f cross(Vector3f v, Vector3f result) {
+    if (result == null) {
+      result = new Vector3f();
+    }
+    FloatBuffer b = buffer;
+    int i = index;
+    float x = b.get(i), y = b.get(i + 1), z = b.get(i + 2);
+    return result.set((y * v.z) - (z * v.y), (z * v.x) - (x * v.z), (x * v.y) - (y * v.x));
+  }
+
+  /**
+   * @return the squared length of this vector
+   * @see Vector3f#lengthSquared()
+   */
+  public float lengthSquared() {
+    FloatBuffer b = buffer;
+    int i = index;
+    float x = b.get(i), y = b.get(i + 1), z = b.get(i + 2);
+    return x * x + y * y + z * z;
+  }
+
+  /**
+   * @return the length of this vector
+   * @see Vector3f#length()
+   */
+  public float length() {
+    return FastMath.sqrt(lengthSquared());
+  }
+
+  /**
+   * {@code normalizeLocal} makes this vector into a unit vector of itself.
+   * 
+   * @return this
+   * @see Vector3f#normalizeLocal()
+   */
+  public Vector3fView normalizeLocal() {
+    float length = lengthSquared();
+    if (length != 1f && length != 0f) {
+      length = 1.0f / FastMath.sqrt(length);
+      multLocal(length);
+    }
+    return this;
+  }
+
+  /**
+   * Transforms this vector in place by {@code mat}, including translation.
+   * 
+   * @param mat
+   * @return this
+   * @see Matrix4f#mult(Vector3f, Vector3f)
+   */
+  public Vector3fView multLocal(Matrix4f mat) {
+    FloatBuffer b = buffer;
+    int i = index;
+    float vx = b.get(i), vy = b.get(i + 1), vz = b.get(i + 2);
+    b.put(i, mat.m00 * vx + mat.m01 * vy + mat.m02 * vz + mat.m03);
+    b.put(i + 1, mat.m10 * vx + mat.m11 * vy + mat.m12 * vz + mat.m13);
+    b.put(i + 2, mat.m20 * vx + mat.m21 * vy + mat.m22 * vz + mat.m23);
+    return this;
+  }
+
+  /**
+   * Rotates this vector in place by {@code quat}.
+   * 
+   * @param quat
+   * @return this
+   * @see Quaternion#mult(Vector3f, Vector3f)
+   */
+  public Vector3fView multLocal(Quaternion quat) {
+    TempVars vars = TempVars.get();
+    try {
+      set(quat.mult(get(vars.vect1), vars.vect1));
+    } finally {
+      vars.release();
+    }
+    return this;
+  }
+
+  @Override
+  public String toString() {
+    return "(" + getX() + ", " + getY() + ", " + getZ() + ")";
+  }
+
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright (C) 2014 Jason Taylor.
+ * Released as open-source under the Apache License, Version 2.0.
+ * 
+ * =\/==========================================================================
+ * 
+ * Copyright (C) 2014 Jason Taylor
+ * 
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * 
+ */
+package com.sudoplay.math;
+
+/**
+ * {@code Vector4fArray} stores a fixed number of four float value tuples as
+ * parallel {@code x}, {@code y}, {@code z} and {@code w} columns (structure of arrays).
+ * <p>
+ * The bulk operations work on a range of elements and produce, for each
+ * element, exactly the same result as the matching {@link Vector4f} method.
+ * Each operation is a single counted loop over primitive arrays so that the
+ * JIT can unroll and vectorize it.
+ * 
+ * @author Jason Taylor
+ */
+public final class Vector4fArray {
+
+  /**
+   * the x values of the vectors.
+   */
+  public final float[] x;
+
+  /**
+   * the y values of the vectors.
+   */
+  public final float[] y;
+
+  /**
+   * the z values of the vectors.
+   */
+  public final float[] z;
+
+  /**
+   * the w values of the vectors.
+   */
+  public final float[] w;
+
+  /**
+   * Constructor instantiates a new {@code Vector4fArray} holding {@code size}
+   * vectors, all set to (0,0,0,0).
+   * 
+   * @param size
+   *          the number of vectors
+   */
+  public Vector4fArray(int size) {
+    x = new float[size];
+    y = new float[size];
+    z = new float[size];
+    w = new float[size];
+  }
+
+  /**
+   * @return the number of vectors in this array
+   */
+  public int size() {
+    return x.length;
+  }
+
+  /**
+   * Sets the vector at {@code index}.
+   * 
+   * @param index
+   * @param x
+   * @param y
+   * @param z
+   * @param w
+   * @return this
+   */
+  public Vector4fArray set(int index, float x, float y, float z, float w) {
+    this.x[index] = x;
+    this.y[index] = y;
+    this.z[index] = z;
+    this.w[index] = w;
+    return this;
+  }
+
+  /**
+   * Sets the vector at {@code index} by copying the supplied vector.
+   * 
+   * @param index
+   * @param vect
+   * @return this
+   */
+  public Vector4fArray set(int index, Vector4f vect) {
+    return set(index, vect.x, vect.y, vect.z, vect.w);
+  }
+
+  /**
+   * Copies the vector at {@code index} into {@code store}.
+   * 
+   * @param index
+   * @param store
+   *          the vector to store the result in, created if null
+   * @return store
+   */
+  public Vector4f get(int index, Vector4f store) {
+    if (store == null) {
+      store = new Vector4f();
+    }
+    return store.set(x[index], y[index], z[index], w[index]);
+  }
+
+  /**
+   * {@code addLocal} adds the vectors of {@code vec} to the vectors of this
+   * array in the range [offset, offset + length).
+   * 
+   * @param vec
+   *          the vectors to add
+   * @param offset
+   * @param length
+   * @return this
+   * @see Vector4f#addLocal(Vector4f)
+   */
+  public Vector4fArray addLocal(Vector4fArray vec, int offset, int length) {
+    checkRange(offset, length);
+    vec.checkRange(offset, length);
+    float[] x = this.x, y = this.y, z = this.z, w = this.w;
+    float[] vx = vec.x, vy = vec.y, vz = vec.z, vw = vec.w;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      x[i] += vx[i];
+      y[i] += vy[i];
+      z[i] += vz[i];
+      w[i] += vw[i];
+    }
+    return this;
+  }
+
+  /**
+   * {@code addLocal} adds the given values to the vectors of this array in the
+   * range [offset, offset + length).
+   * 
+   * @param addX
+   * @param addY
+   * @param addZ
+   * @param addW
+   * @param offset
+   * @param length
+   * @return this
+   * @see Vector4f#addLocal(float, float, float, float)
+   */
+  public Vector4fArray addLocal(float addX, float addY, float addZ, float addW, int offset, int length) {
+    checkRange(offset, length);
+    float[] x = this.x, y = this.y, z = this.z, w = this.w;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      x[i] += addX;
+      y[i] += addY;
+      z[i] += addZ;
+      w[i] += addW;
+    }
+    return this;
+  }
+
+  /**
+   * {@code multLocal} multiplies the vectors of this array in the range
+   * [offset, offset + length) by a scalar.
+   * 
+   * @param scalar
+   * @param offset
+   * @param length
+   * @return this
+   * @see Vector4f#multLocal(float)
+   */
+  public Vector4fArray multLocal(float scalar, int offset, int length) {
+    checkRange(offset, length);
+    float[] x = this.x, y = this.y, z = this.z, w = this.w;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      x[i] *= scalar;
+      y[i] *= scalar;
+      z[i] *= scalar;
+      w[i] *= scalar;
+    }
+    return this;
+  }
+
+  /**
+   * {@code scaleAdd} multiplies the vectors of this array in the range
+   * [offset, offset + length) by a scalar then adds the vectors of
+   * {@code add}.
+   * 
+   * @param scalar
+   *          the value to multiply the vectors by
+   * @param add
+   *          the vectors to add
+   * @param offset
+   * @param length
+   * @return this
+   * @see Vector4f#scaleAdd(float, Vector4f)
+   */
+  public Vector4fArray scaleAdd(float scalar, Vector4fArray add, int offset, int length) {
+    checkRange(offset, length);
+    add.checkRange(offset, length);
+    float[] x = this.x, y = this.y, z = this.z, w = this.w;
+    float[] ax = add.x, ay = add.y, az = add.z, aw = add.w;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      x[i] = x[i] * scalar + ax[i];
+      y[i] = y[i] * scalar + ay[i];
+      z[i] = z[i] * scalar + az[i];
+      w[i] = w[i] * scalar + aw[i];
+    }
+    return this;
+  }
+
+  /**
+   * {@code dot} calculates the dot product of each vector of this array with
+   * the matching vector of {@code vec} in the range [offset, offset + length).
+   * 
+   * @param vec
+   * @param store
+   *          receives the dot products at the same indices, created if null
+   * @param offset
+   * @param length
+   * @return store
+   * @see Vector4f#dot(Vector4f)
+   * @see MathKernels#isAccelerated()
+   */
+  public float[] dot(Vector4fArray vec, float[] store, int offset, int length) {
+    checkRange(offset, length);
+    vec.checkRange(offset, length);
+    if (store == null) {
+      store = new float[size()];
+    }
+    MathKernels.get().dot4(this, vec, store, offset, length);
+    return store;
+  }
+
+  /**
+   * {@code lengthSquared} calculates the squared magnitude of each vector of
+   * this array in the range [offset, offset + length).
+   * 
+   * @param store
+   *          receives the squared lengths at the same indices, created if null
+   * @param offset
+   * @param length
+   * @return store
+   * @see Vector4f#lengthSquared()
+   */
+  public float[] lengthSquared(float[] store, int offset, int length) {
+    checkRange(offset, length);
+    if (store == null) {
+      store = new float[size()];
+    }
+    float[] x = this.x, y = this.y, z = this.z, w = this.w;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      store[i] = x[i] * x[i] + y[i] * y[i] + z[i] * z[i] + w[i] * w[i];
+    }
+    return store;
+  }
+
+  /**
+   * {@code normalizeLocal} makes each vector of this array in the range
+   * [offset, offset + length) into a unit vector of itself. Vectors of length
+   * zero or one are left untouched, as in {@link Vector4f#normalizeLocal()}.
+   * 
+   * @param offset
+   * @param length
+   * @return this
+   * @see MathKernels#isAccelerated()
+   */
+  public Vector4fArray normalizeLocal(int offset, int length) {
+    checkRange(offset, length);
+    MathKernels.get().normalize4(this, offset, length);
+    return this;
+  }
+
+  /**
+   * {@code min} computes the minimum value for each component over the
+   * vectors of this array in the range [offset, offset + length). An empty
+   * range yields {@link Vector4f#POSITIVE_INFINITY}.
+   * 
+   * @param offset
+   * @param length
+   * @param store
+   *          the vector to store the result in, created if null
+   * @return store
+   */
+  public Vector4f min(int offset, int length, Vector4f store) {
+    checkRange(offset, length);
+    if (store == null) {
+      store = new Vector4f();
+    }
+    float[] x = this.x, y = this.y, z = this.z, w = this.w;
+    float minX = Float.POSITIVE_INFINITY, minY = Float.POSITIVE_INFINITY, minZ = Float.POSITIVE_INFINITY, minW = Float.POSITIVE_INFINITY;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      minX = x[i] < minX ? x[i] : minX;
+      minY = y[i] < minY ? y[i] : minY;
+      minZ = z[i] < minZ ? z[i] : minZ;
+      minW = w[i] < minW ? w[i] : minW;
+    }
+    return store.set(minX, minY, minZ, minW);
+  }
+
+  /**
+   * {@code max} computes the maximum value for each component over the
+   * vectors of this array in the range [offset, offset + length). An empty
+   * range yields {@link Vector4f#NEGATIVE_INFINITY}.
+   * 
+   * @param offset
+   * @param length
+   * @param store
+   *          the vector to store the result in, created if null
+   * @return store
+   */
+  public Vector4f max(int offset, int length, Vector4f store) {
+    checkRange(offset, length);
+    if (store == null) {
+      store = new Vector4f();
+    }
+    float[] x = this.x, y = this.y, z = this.z, w = this.w;
+    float maxX = Float.NEGATIVE_INFINITY, maxY = Float.NEGATIVE_INFINITY, maxZ = Float.NEGATIVE_INFINITY, maxW = Float.NEGATIVE_INFINITY;
+    int end = offset + length;
+    for (int i = offset; i < end; i++) {
+      maxX = x[i] > maxX ? x[i] : maxX;
+      maxY = y[i] > maxY ? y[i] : maxY;
+      maxZ = z[i] > maxZ ? z[i] : maxZ;
+      maxW = w[i] > maxW ? w[i] : maxW;
+    }
+    return store.set(maxX, maxY, maxZ, maxW);
+  }
+
+  private void checkRange(int offset, int length) {
+    if (offset < 0 || length < 0 || offset + length > x.length) {
+      throw new IndexOutOfBoundsException("offset=" + offset + ", length=" + length + ", size=" + x.length);
+    }
+  }
+
+}
@@ -0,0 +1,613 @@
+package com.sudoplay.math.delaunay;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A Delaunay Triangulation stored in primitive arrays. <br>
+ * <br>
+ * The vertices are kept in x, y and z columns (double[]) and every triangle
+ * is three vertex indices and three neighbor indices (int[]), circumcircles
+ * are computed on demand. Compared to DelaunayTriangulation this saves the
+ * DT_Point, DT_Triangle and DT_Circle objects - a few dozen bytes per point
+ * instead of a few hundred - and keeps the walks inside a handful of arrays.
+ * <br>
+ * <br>
+ * The convex hull is closed with ghost triangles: every hull edge has a
+ * triangle (a,b,INFINITE) on its outer side, they play the part of the half
+ * planes of DelaunayTriangulation. Triangles are counterclockwise, the ghost
+ * vertex is always the third one. Neighbor i of a triangle shares its edge
+ * from vertex i to vertex i+1 (like next_12, next_23 and next_31). <br>
+ * <br>
+ * The find, insertPoint, contains, z and iterator methods mirror
+ * DelaunayTriangulation. The DT_Point and DT_Triangle objects they return are
+ * created on demand (the triangles have no neighbors), the index based
+ * methods (locate, getTriangleVertex, getTriangleNeighbor, getX ...) do not
+ * allocate. Points can only be inserted, not deleted.
+ */
+public class DT_CompactTriangulation {
+
+  /**
+   * the vertex index of the infinite vertex of the ghost triangles.
+   */
+  public static final int INFINITE = -1;
+
+  private double[] xs, ys, zs;
+  private int vertexCount;
+
+  // open addressing table of vertex index + 1, keyed by the coordinates
+  private int[] vertexTable;
+
+  private int[] tv, tn;
+  private int triangleCount;
+
+  // the triangle searches start from
+  private int hint = -1;
+
+  // triangles whose edge opposite the new vertex is not yet legal
+  private int[] stack = new int[64];
+
+  private double minX, minY, minZ, maxX, maxY, maxZ;
+
+  /**
+   * creates an empty Delaunay Triangulation.
+   */
+  public DT_CompactTriangulation() {
+    this(16);
+  }
+
+  /**
+   * creates an empty Delaunay Triangulation with room for the given number of
+   * vertices.
+   *
+   * @param capacity
+   *          the expected number of vertices
+   */
+  public DT_CompactTriangulation(int capacity) {
+    if (capacity < 1) capacity = 1;
+    xs = new double[capacity];
+    ys = new double[capacity];
+    zs = new double[capacity];
+    vertexTable = new int[tableSize(capacity)];
+    tv = new int[6 * capacity + 12];
+    tn = new int[6 * capacity + 12];
+  }
+
+  /**
+   * creates a Delaunay Triangulation from all the points (up to the first
+   * null), inserted in bulk order (see insertPoints). Note: duplicated points
+   * are ignored.
+   */
+  public DT_CompactTriangulation(DT_Point[] ps) {
+    this(ps == null ? 1 : ps.length);
+    insertPoints(ps);
+  }
+
+  /**
+   * the number of (different) vertices in this triangulation.
+   */
+  public int size() {
+    return vertexCount;
+  }
+
+  /**
+   * @return the number of triangles in the triangulation. <br />
+   *         Note: includes the ghost triangles (infinite faces)!!.
+   */
+  public int trianglesSize() {
+    return triangleCount;
+  }
+
+  /**
+   * insert the point to this Delaunay Triangulation. Note: if p is null or
+   * already exist in this triangulation p is ignored.
+   *
+   * @param p
+   *          new vertex to be inserted the triangulation.
+   */
+  public void insertPoint(DT_Point p) {
+    if (p != null) insertPoint(p.x, p.y, p.z);
+  }
+
+  /**
+   * insert the point to this Delaunay Triangulation, if a vertex with the
+   * same x and y already exists the point is ignored.
+   *
+   * @return the index of the vertex at (x,y).
+   */
+  public int insertPoint(double x, double y, double z) {
+    int slot = slot(x, y);
+    if (vertexTable[slot] != 0) return vertexTable[slot] - 1;
+    int v = addVertex(x, y, z);
+    vertexTable[slot] = v + 1;
+    if (2 * vertexCount > vertexTable.length) rehash();
+
+    if (triangleCount > 0) {
+      insertVertex(v);
+    } else if (vertexCount >= 3 && orient(0, 1, v) != 0) {
+      // the first vertex off the line of the ones before it
+      start(0, 1, v);
+      for (int i = 2; i < v; i++) {
+        insertVertex(i);
+      }
+    }
+    return v;
+  }
+
+  /**
+   * inserts all the points (up to the first null) in a biased randomized
+   * order along a Hilbert curve, like DelaunayTriangulation.insertPoints.
+   */
+  public void insertPoints(DT_Point[] ps) {
+    DT_Point[] ordered = DT_SpatialSort.order(ps);
+    ensureCapacity(vertexCount + ordered.length);
+    for (int i = 0; i < ordered.length; i++) {
+      insertPoint(ordered[i].x, ordered[i].y, ordered[i].z);
+    }
+  }
+
+  /**
+   * inserts the first n points of the coordinate arrays in a biased
+   * randomized order along a Hilbert curve.
+   *
+   * @param x
+   *          the x coordinates
+   * @param y
+   *          the y coordinates
+   * @param z
+   *          the z coordinates, or null for 0
+   * @param n
+   *          the number of points
+   */
+  public void insertPoints(double[] x, double[] y, double[] z, int n) {
+    if (n < 0 || n > x.length || n > y.length || (z != null && n > z.length)) {
+      throw new IllegalArgumentException("n out of range: " + n);
+    }
+    int[] order = DT_SpatialSort.order(x, y, n);
+    ensureCapacity(vertexCount + n);
+    for (int i = 0; i < n; i++) {
+      int j = order[i];
+      insertPoint(x[j], y[j], z == null ? 0 : z[j]);
+    }
+  }
+
+  /**
+   * finds the triangle the query point falls in, note if out-side of this
+   * triangulation a ghost triangle will be returned.
+   *
+   * @return the index of the triangle, or -1 if there are no triangles yet.
+   */
+  public int locate(double x, double y) {
+    return locate(x, y, hint);
+  }
+
+  /**
+   * finds the triangle the query point falls in starting the search at the
+   * given triangle.
+   *
+   * @param start
+   *          the triangle the search starts at, or -1 for the last one found.
+   * @return the index of the triangle, or -1 if there are no triangles yet.
+   */
+  public int locate(double x, double y, int start) {
+    if (triangleCount == 0) return -1;
+    int t = start >= 0 && start < triangleCount ? start : hint;
+    if (t < 0) t = 0;
+    if (tv[3 * t + 2] == INFINITE) t = tn[3 * t];
+    int from = -1;
+    int k0 = 0;
+    walk: while (true) {
+      // vary the first edge tested so the walk cannot cycle
+      k0 = k0 == 2 ? 0 : k0 + 1;
+      for (int i = 0; i < 3; i++) {
+        int k = (k0 + i) % 3;
+        int n = tn[3 * t + k];
+        if (n == from) continue;
+        int a = tv[3 * t + k], b = tv[3 * t + next(k)];
+        if (edgeSide(a, b, x, y) < 0) {
+          from = t;
+          t = n;
+          if (tv[3 * t + 2] == INFINITE) break walk;
+          continue walk;
+        }
+      }
+      break;
+    }
+    hint = t;
+    return t;
+  }
+
+  /**
+   * finds the triangle the query point falls in, note if out-side of this
+   * triangulation a half plane triangle will be returned.
+   *
+   * @return a new triangle object (without neighbors), or null if there are
+   *         no triangles yet.
+   */
+  public DT_Triangle find(DT_Point p) {
+    int t = locate(p.x, p.y);
+    return t < 0 ? null : triangle(t);
+  }
+
+  /**
+   * @return true iff p is within this triangulation (in its convex hull).
+   */
+  public boolean contains(double x, double y) {
+    int t = locate(x, y);
+    return t >= 0 && tv[3 * t + 2] != INFINITE;
+  }
+
+  /**
+   * @return true iff p is within this triangulation (in its convex hull).
+   */
+  public boolean contains(DT_Point p) {
+    return contains(p.x, p.y);
+  }
+
+  /**
+   * computes the z value of (x,y) on the plane of the triangle it falls in.
+   */
+  public double z(double x, double y) {
+    int t = locate(x, y);
+    if (t < 0 || tv[3 * t + 2] == INFINITE) {
+      throw new RuntimeException(
+          "*** ERR wrong parameters, can't approximate the z value ..***: "
+              + x + ", " + y);
+    }
+    int a = tv[3 * t], b = tv[3 * t + 1], c = tv[3 * t + 2];
+    double bx = xs[b] - xs[a], by = ys[b] - ys[a];
+    double cx = xs[c] - xs[a], cy = ys[c] - ys[a];
+    double px = x - xs[a], py = y - ys[a];
+    double det = bx * cy - by * cx;
+    double u = (px * cy - py * cx) / det;
+    double v = (bx * py - by * px) / det;
+    return zs[a] + u * (zs[b] - zs[a]) + v * (zs[c] - zs[a]);
+  }
+
+  /**
+   * @return a new point with the z value of q on the triangulation.
+   */
+  public DT_Point z(DT_Point q) {
+    return new DT_Point(q.x, q.y, z(q.x, q.y));
+  }
+
+  /**
+   * returns the x coordinate of a vertex.
+   */
+  public double getX(int vertex) {
+    return xs[vertex];
+  }
+
+  /**
+   * returns the y coordinate of a vertex.
+   */
+  public double getY(int vertex) {
+    return ys[vertex];
+  }
+
+  /**
+   * returns the z coordinate of a vertex.
+   */
+  public double getZ(int vertex) {
+    return zs[vertex];
+  }
+
+  /**
+   * returns vertex 0, 1 or 2 of a triangle, INFINITE for the third vertex of
+   * a ghost triangle.
+   */
+  public int getTriangleVertex(int triangle, int corner) {
+    return tv[3 * triangle + corner];
+  }
+
+  /**
+   * returns the triangle sharing the edge from vertex i to vertex i+1.
+   */
+  public int getTriangleNeighbor(int triangle, int i) {
+    return tn[3 * triangle + i];
+  }
+
+  /**
+   * returns true iff the triangle is a ghost triangle (outside the hull).
+   */
+  public boolean isGhost(int triangle) {
+    return tv[3 * triangle + 2] == INFINITE;
+  }
+
+  /**
+   * @return The bounding rectange between the minimum and maximum coordinates
+   */
+  public DT_BoundingBox getBoundingBox() {
+    if (vertexCount == 0) return new DT_BoundingBox();
+    return new DT_BoundingBox(minX, maxX, minY, maxY, minZ, maxZ);
+  }
+
+  /**
+   * returns an iterator over all the triangles, ghost triangles are returned
+   * as half planes. The triangles are created on demand.
+   */
+  public Iterator<DT_Triangle> trianglesIterator() {
+    final int count = triangleCount;
+    return new Iterator<DT_Triangle>() {
+      private int next;
+
+      public boolean hasNext() {
+        return next < count;
+      }
+
+      public DT_Triangle next() {
+        if (next >= count) throw new NoSuchElementException();
+        return triangle(next++);
+      }
+
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * returns an iterator over the vertices in insertion order. The points are
+   * created on demand.
+   */
+  public Iterator<DT_Point> verticesIterator() {
+    final int count = vertexCount;
+    return new Iterator<DT_Point>() {
+      private int next;
+
+      public boolean hasNext() {
+        return next < count;
+      }
+
+      public DT_Point next() {
+        if (next >= count) throw new NoSuchElementException();
+        return point(next++);
+      }
+
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  private DT_Point point(int v) {
+    return new DT_Point(xs[v], ys[v], zs[v]);
+  }
+
+  private DT_Triangle triangle(int t) {
+    if (tv[3 * t + 2] == INFINITE) {
+      return new DT_Triangle(point(tv[3 * t]), point(tv[3 * t + 1]));
+    }
+    return new DT_Triangle(point(tv[3 * t]), point(tv[3 * t + 1]),
+        point(tv[3 * t + 2]));
+  }
+
+  // ---------------------------------------------------------------------------
+  // construction
+
+  private void ensureCapacity(int vertices) {
+    if (vertices > xs.length) {
+      int capacity = Math.max(vertices, xs.length * 2);
+      xs = Arrays.copyOf(xs, capacity);
+      ys = Arrays.copyOf(ys, capacity);
+      zs = Arrays.copyOf(zs, capacity);
+    }
+    if (2 * vertices + 4 > tv.length / 3) {
+      int capacity = 3 * Math.max(2 * vertices + 4, tv.length / 3 * 2);
+      tv = Arrays.copyOf(tv, capacity);
+      tn = Arrays.copyOf(tn, capacity);
+    }
+  }
+
+  private int addVertex(double x, double y, double z) {
+    if (vertexCount == xs.length) ensureCapacity(vertexCount + 1);
+    int v = vertexCount++;
+    xs[v] = x;
+    ys[v] = y;
+    zs[v] = z;
+    if (v == 0) {
+      minX = maxX = x;
+      minY = maxY = y;
+      minZ = maxZ = z;
+    } else {
+      if (x < minX) minX = x;
+      if (x > maxX) maxX = x;
+      if (y < minY) minY = y;
+      if (y > maxY) maxY = y;
+      if (z < minZ) minZ = z;
+      if (z > maxZ) maxZ = z;
+    }
+    return v;
+  }
+
+  private static int tableSize(int vertices) {
+    int size = 16;
+    while (size < 2 * vertices) {
+      size <<= 1;
+    }
+    return size;
+  }
+
+  /**
+   * returns the table slot of the vertex at (x,y), or the empty slot it
+   * belongs in.
+   */
+  private int slot(double x, double y) {
+    int mask = vertexTable.length - 1;
+    int i = DT_SpatialSort.hash(x, y) & mask;
+    while (true) {
+      int v = vertexTable[i] - 1;
+      if (v < 0 || (xs[v] == x && ys[v] == y)) return i;
+      i = (i + 1) & mask;
+    }
+  }
+
+  private void rehash() {
+    vertexTable = new int[vertexTable.length * 2];
+    for (int v = 0; v < vertexCount; v++) {
+      vertexTable[slot(xs[v], ys[v])] = v + 1;
+    }
+  }
+
+  private int newTriangle() {
+    if (3 * triangleCount + 3 > tv.length) {
+      tv = Arrays.copyOf(tv, tv.length * 2);
+      tn = Arrays.copyOf(tn, tn.length * 2);
+    }
+    return triangleCount++;
+  }
+
+  /**
+   * stores a triangle, a ghost triangle is rotated so that the infinite
+   * vertex is the third one.
+   */
+  private void set(int t, int a, int b, int c, int nab, int nbc, int nca) {
+    if (a == INFINITE) {
+      set(t, b, c, a, nbc, nca, nab);
+      return;
+    }
+    if (b == INFINITE) {
+      set(t, c, a, b, nca, nab, nbc);
+      return;
+    }
+    int i = 3 * t;
+    tv[i] = a;
+    tv[i + 1] = b;
+    tv[i + 2] = c;
+    tn[i] = nab;
+    tn[i + 1] = nbc;
+    tn[i + 2] = nca;
+  }
+
+  /**
+   * replaces the neighbor old of t with the triangle replacement.
+   */
+  private void switchNeighbor(int t, int old, int replacement) {
+    int i = 3 * t;
+    if (tn[i] == old) tn[i] = replacement;
+    else if (tn[i + 1] == old) tn[i + 1] = replacement;
+    else tn[i + 2] = replacement;
+  }
+
+  /**
+   * creates the first triangle and its three ghost triangles.
+   */
+  private void start(int a, int b, int c) {
+    if (orient(a, b, c) < 0) {
+      int tmp = b;
+      b = c;
+      c = tmp;
+    }
+    int t = newTriangle(), gab = newTriangle();
+    int gbc = newTriangle(), gca = newTriangle();
+    set(t, a, b, c, gab, gbc, gca);
+    set(gab, b, a, INFINITE, t, gca, gbc);
+    set(gbc, c, b, INFINITE, t, gab, gca);
+    set(gca, a, c, INFINITE, t, gbc, gab);
+    hint = t;
+  }
+
+  /**
+   * inserts a vertex into the triangle (or ghost triangle) it falls in and
+   * restores the Delaunay property with edge flips.
+   */
+  private void insertVertex(int p) {
+    int t = locate(xs[p], ys[p], hint);
+    int i = 3 * t;
+    int a = tv[i], b = tv[i + 1], c = tv[i + 2];
+    int nab = tn[i], nbc = tn[i + 1], nca = tn[i + 2];
+    int t1 = newTriangle(), t2 = newTriangle();
+    set(t, a, b, p, nab, t1, t2);
+    set(t1, b, c, p, nbc, t2, t);
+    set(t2, c, a, p, nca, t, t1);
+    switchNeighbor(nbc, t, t1);
+    switchNeighbor(nca, t, t2);
+
+    int size = 0;
+    stack[size++] = t;
+    stack[size++] = t1;
+    stack[size++] = t2;
+    while (size > 0) {
+      int u = stack[--size];
+      int e = 3 * u;
+      // k is the edge opposite p
+      int k = tv[e] == p ? 1 : tv[e + 1] == p ? 2 : 0;
+      int x = tv[e + k], y = tv[e + next(k)];
+      int n = tn[e + k];
+      int f = 3 * n;
+      int j = tn[f] == u ? 0 : tn[f + 1] == u ? 1 : 2;
+      int q = tv[f + next(next(j))];
+      if (!inCircle(n, p)) continue;
+
+      // flip the edge (x,y) to (p,q)
+      int before = tn[e + next(next(k))]; // edge (p,x)
+      int after = tn[e + next(k)]; // edge (y,p)
+      int nx = tn[f + next(j)]; // edge (x,q)
+      int ny = tn[f + next(next(j))]; // edge (q,y)
+      set(u, p, x, q, before, nx, n);
+      set(n, p, q, y, u, ny, after);
+      switchNeighbor(nx, n, u);
+      switchNeighbor(after, u, n);
+      if (size + 2 > stack.length) {
+        stack = Arrays.copyOf(stack, stack.length * 2);
+      }
+      stack[size++] = u;
+      stack[size++] = n;
+    }
+    hint = t;
+  }
+
+  /**
+   * returns true iff the vertex p is strictly inside the circumcircle of the
+   * triangle t, for a ghost triangle the circle is the open half plane outside
+   * its edge together with the inside of the edge.
+   */
+  private boolean inCircle(int t, int p) {
+    int i = 3 * t;
+    int a = tv[i], b = tv[i + 1], c = tv[i + 2];
+    double px = xs[p], py = ys[p];
+    if (c == INFINITE) {
+      double o = orient(a, b, px, py);
+      if (o != 0) return o > 0;
+      // on the line of the edge, inside iff strictly between a and b
+      double dx = xs[b] - xs[a], dy = ys[b] - ys[a];
+      double s = (px - xs[a]) * dx + (py - ys[a]) * dy;
+      return s > 0 && s < dx * dx + dy * dy;
+    }
+    double adx = xs[a] - px, ady = ys[a] - py;
+    double bdx = xs[b] - px, bdy = ys[b] - py;
+    double cdx = xs[c] - px, cdy = ys[c] - py;
+    double det = (adx * adx + ady * ady) * (bdx * cdy - cdx * bdy)
+        + (bdx * bdx + bdy * bdy) * (cdx * ady - adx * cdy)
+        + (cdx * cdx + cdy * cdy) * (adx * bdy - bdx * ady);
+    return det > 0;
+  }
+
+  /**
+   * returns a positive value if (x,y) is left of the line from vertex a to
+   * vertex b, negative if right and 0 on the line (the same computation as
+   * DT_Point.pointLineTest).
+   */
+  private double orient(int a, int b, double x, double y) {
+    double dx = xs[b] - xs[a];
+    double dy = ys[b] - ys[a];
+    return dx * (y - ys[a]) - dy * (x - xs[a]);
+  }
+
+  /**
+   * like orient, but computed the same way for both directions of the edge
+   * so that the two triangles sharing it never both point across it.
+   */
+  private double edgeSide(int a, int b, double x, double y) {
+    return a < b ? orient(a, b, x, y) : -orient(b, a, x, y);
+  }
+
+  private double orient(int a, int b, int c) {
+    return orient(a, b, xs[c], ys[c]);
+  }
+
+  private static int next(int corner) {
+    return corner == 2 ? 0 : corner + 1;
+  }
+}
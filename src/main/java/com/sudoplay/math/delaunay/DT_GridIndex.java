@@ -31,7 +31,7 @@ import java.util.Iterator;
  * static raster data, and usually is never updated outside the initial zone
  * (only refininf existing triangles) this is never an issue in real life.
  */
-public class DT_GridIndex {
+public class DT_GridIndex implements DT_SpatialIndex {
   /**
    * The triangulation of the index
    */
@@ -140,10 +140,21 @@ public class DT_GridIndex {
   }
 
   /**
-   * Updates the grid index to reflect changes to the triangulation. Note that
-   * added triangles outside the indexed region will force to recompute the
-   * whole index with the enlarged region.
+   * Finds a triangle near the given point
+   * 
+   * @param point
+   *          a query point
+   * @return a triangle at the same cell of the point, null if the point is
+   *         outside the indexed region
    */
+  public DT_Triangle findStartTriangle(DT_Point point) {
+    double x = (point.x() - indexRegion.minX()) / x_size;
+    double y = (point.y() - indexRegion.minY()) / y_size;
+    if (!(x >= 0 && y >= 0 && x < grid.length && y < grid[0].length))
+      return null;
+    return grid[(int) x][(int) y];
+  }
+
   /**
    * Updates the grid index to reflect changes to the triangulation. Note that
    * added triangles outside the indexed region will force to recompute the
@@ -236,6 +247,9 @@ public class DT_GridIndex {
   private Point getCellOf(DT_Point coordinate) {
     int xCell = (int) ((coordinate.x() - indexRegion.minX()) / x_size);
     int yCell = (int) ((coordinate.y() - indexRegion.minY()) / y_size);
+    // the max edge of the region belongs to the last cell
+    xCell = Math.min(xCell, grid.length - 1);
+    yCell = Math.min(yCell, grid[0].length - 1);
     return new Point(xCell, yCell);
   }
 
@@ -0,0 +1,225 @@
+package com.sudoplay.math.delaunay;
+
+/**
+ * Nearest vertex queries on the Delaunay graph. <br>
+ * <br>
+ * The nearest vertex is found by a greedy walk: from a corner of the
+ * triangle of the query move to the neighbor vertex closest to the query
+ * while there is one closer than the current vertex. In a Delaunay
+ * Triangulation a vertex without a closer neighbor is the nearest vertex. <br>
+ * The k nearest vertices are found by a best first search from the nearest
+ * one: the i-th nearest vertex is always a neighbor of one of the i-1 nearer
+ * vertices, so popping the closest vertex of a priority queue (a binary heap
+ * of primitive distances) and pushing its neighbors reports the vertices in
+ * order of distance. <br>
+ * <br>
+ * The neighbors of a vertex are visited by rotating around it through the
+ * triangles (and half planes) it is a corner of, every vertex is kept
+ * together with one such triangle.
+ */
+final class DT_NeighborSearch {
+
+  private final double qx, qy;
+
+  // binary min heap of the vertices by squared distance
+  private double[] dist;
+  private DT_Point[] vertices;
+  private DT_Triangle[] triangles;
+  private int size;
+
+  // the vertices seen so far, open addressing by coordinates
+  private DT_Point[] seen;
+  private int seenCount;
+
+  // the result of nearest
+  private DT_Point nearest;
+  private DT_Triangle nearestTriangle;
+
+  DT_NeighborSearch(double x, double y) {
+    qx = x;
+    qy = y;
+  }
+
+  /**
+   * returns the vertex nearest to the query, start is the triangle of the
+   * query (or any triangle close to it).
+   */
+  DT_Point nearest(DT_Triangle start) {
+    DT_Point v = start.a;
+    double best = distance(v);
+    if (distance(start.b) < best) {
+      v = start.b;
+      best = distance(v);
+    }
+    if (start.c != null && distance(start.c) < best) {
+      v = start.c;
+      best = distance(v);
+    }
+    DT_Triangle vt = start;
+    while (true) {
+      DT_Point next = null;
+      DT_Triangle nextT = null;
+      DT_Triangle t = vt;
+      do {
+        double d;
+        if (t.a != v && (d = distance(t.a)) < best) {
+          best = d;
+          next = t.a;
+          nextT = t;
+        }
+        if (t.b != v && (d = distance(t.b)) < best) {
+          best = d;
+          next = t.b;
+          nextT = t;
+        }
+        if (t.c != null && t.c != v && (d = distance(t.c)) < best) {
+          best = d;
+          next = t.c;
+          nextT = t;
+        }
+        t = rotate(t, v);
+      } while (t != vt);
+      if (next == null) break;
+      v = next;
+      vt = nextT;
+    }
+    nearest = v;
+    nearestTriangle = vt;
+    return v;
+  }
+
+  /**
+   * writes the k vertices nearest to the query to out in order of distance,
+   * start is the triangle of the query. Returns the number of vertices
+   * written, less than k only if the triangulation has less vertices.
+   */
+  int kNearest(DT_Triangle start, int k, DT_Point[] out) {
+    if (k <= 0) return 0;
+    nearest(start);
+    int capacity = 16;
+    while (capacity < 8 * k) {
+      capacity <<= 1;
+    }
+    dist = new double[capacity];
+    vertices = new DT_Point[capacity];
+    triangles = new DT_Triangle[capacity];
+    seen = new DT_Point[2 * capacity];
+    markSeen(nearest);
+    push(nearest, nearestTriangle);
+
+    int count = 0;
+    while (count < k && size > 0) {
+      DT_Point v = vertices[0];
+      DT_Triangle vt = triangles[0];
+      pop();
+      out[count++] = v;
+      DT_Triangle t = vt;
+      do {
+        visit(t.a, t);
+        visit(t.b, t);
+        if (t.c != null) visit(t.c, t);
+        t = rotate(t, v);
+      } while (t != vt);
+    }
+    return count;
+  }
+
+  /**
+   * returns the next triangle around the corner v of t, rotating through the
+   * half planes of the convex hull as well.
+   */
+  private static DT_Triangle rotate(DT_Triangle t, DT_Point v) {
+    if (v == t.a) return t.canext;
+    if (v == t.b) return t.abnext;
+    return t.bcnext;
+  }
+
+  private double distance(DT_Point p) {
+    double dx = p.x - qx, dy = p.y - qy;
+    return dx * dx + dy * dy;
+  }
+
+  private void visit(DT_Point w, DT_Triangle t) {
+    if (markSeen(w)) push(w, t);
+  }
+
+  // adds w to the seen set, returns false if it was already there
+  private boolean markSeen(DT_Point w) {
+    int mask = seen.length - 1;
+    int i = DT_SpatialSort.hash(w.x, w.y) & mask;
+    while (seen[i] != null) {
+      if (seen[i] == w) return false;
+      i = (i + 1) & mask;
+    }
+    seen[i] = w;
+    if (2 * ++seenCount > seen.length) {
+      DT_Point[] old = seen;
+      seen = new DT_Point[2 * old.length];
+      mask = seen.length - 1;
+      for (int j = 0; j < old.length; j++) {
+        if (old[j] == null) continue;
+        int s = DT_SpatialSort.hash(old[j].x, old[j].y) & mask;
+        while (seen[s] != null) {
+          s = (s + 1) & mask;
+        }
+        seen[s] = old[j];
+      }
+    }
+    return true;
+  }
+
+  private void push(DT_Point v, DT_Triangle t) {
+    if (size == dist.length) {
+      int n = 2 * size;
+      double[] d = new double[n];
+      DT_Point[] vs = new DT_Point[n];
+      DT_Triangle[] ts = new DT_Triangle[n];
+      System.arraycopy(dist, 0, d, 0, size);
+      System.arraycopy(vertices, 0, vs, 0, size);
+      System.arraycopy(triangles, 0, ts, 0, size);
+      dist = d;
+      vertices = vs;
+      triangles = ts;
+    }
+    double d = distance(v);
+    int i = size++;
+    while (i > 0) {
+      int parent = (i - 1) >>> 1;
+      if (dist[parent] <= d) break;
+      set(i, parent);
+      i = parent;
+    }
+    dist[i] = d;
+    vertices[i] = v;
+    triangles[i] = t;
+  }
+
+  private void pop() {
+    size--;
+    double d = dist[size];
+    DT_Point v = vertices[size];
+    DT_Triangle t = triangles[size];
+    vertices[size] = null;
+    triangles[size] = null;
+    if (size == 0) return;
+    int i = 0;
+    while (true) {
+      int child = 2 * i + 1;
+      if (child >= size) break;
+      if (child + 1 < size && dist[child + 1] < dist[child]) child++;
+      if (d <= dist[child]) break;
+      set(i, child);
+      i = child;
+    }
+    dist[i] = d;
+    vertices[i] = v;
+    triangles[i] = t;
+  }
+
+  // moves the heap entry from to the slot to
+  private void set(int to, int from) {
+    dist[to] = dist[from];
+    vertices[to] = vertices[from];
+    triangles[to] = triangles[from];
+  }
+}
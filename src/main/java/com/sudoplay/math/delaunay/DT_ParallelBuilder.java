@@ -0,0 +1,543 @@
+package com.sudoplay.math.delaunay;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Builds a Delaunay Triangulation of a large point set on a ForkJoinPool. <br>
+ * <br>
+ * The bounding box of the points is divided into a grid of tiles and every
+ * tile is triangulated on its own, in parallel. A tile triangle whose
+ * circumcircle lies strictly inside its tile is final: no point of any other
+ * tile can fall in that circle, so the triangle is also a triangle of the
+ * whole triangulation. The vertices of all the other tile triangles and of the
+ * tile hulls (the seams between the tiles) are triangulated once more, and the
+ * seam triangles that are not covered by final triangles complete the mesh.
+ * <br>
+ * <br>
+ * The merged mesh is checked before it is used: it must be a triangulation
+ * of all the points with a strictly convex hull, and every edge must be
+ * strictly locally Delaunay. Such a point set has exactly one Delaunay
+ * triangulation, so the result has the same triangles as the sequential
+ * DelaunayTriangulation(DT_Point[]) constructor. Point sets without a unique
+ * triangulation - four or more cocircular points or collinear points on the
+ * hull, as in a regular grid - are built with the sequential constructor
+ * instead, so the result is identical in every case. <br>
+ * <br>
+ * Note: duplicated points are ignored, the first one in the array is kept.
+ */
+public class DT_ParallelBuilder {
+
+  /**
+   * marks the tile triangles that are part of the final triangulation.
+   */
+  private static final int FINAL = -1;
+
+  /**
+   * relative tolerance of the locally Delaunay test, edges that are closer
+   * than that to a cocircular configuration make the builder fall back to the
+   * sequential constructor.
+   */
+  private static final double INCIRCLE_EPSILON = 1e-10;
+
+  private final ForkJoinPool pool;
+
+  private int tileSize = 8192;
+
+  /**
+   * creates a builder that runs on the given pool.
+   *
+   * @param pool
+   *          the pool the tiles are triangulated on
+   */
+  public DT_ParallelBuilder(ForkJoinPool pool) {
+    if (pool == null) {
+      throw new IllegalArgumentException("pool cannot be null");
+    }
+    this.pool = pool;
+  }
+
+  /**
+   * sets the approximate number of points per tile, point sets with less than
+   * four tiles are built with the sequential constructor.
+   *
+   * @param tileSize
+   *          the approximate number of points per tile
+   */
+  public void setTileSize(int tileSize) {
+    if (tileSize < 16) {
+      throw new IllegalArgumentException("tileSize must be at least 16");
+    }
+    this.tileSize = tileSize;
+  }
+
+  /**
+   * returns the approximate number of points per tile.
+   */
+  public int getTileSize() {
+    return tileSize;
+  }
+
+  /**
+   * creates a Delaunay Triangulation from all the points, like the
+   * DelaunayTriangulation(DT_Point[]) constructor the points are read up to
+   * the first null.
+   *
+   * @param ps
+   *          the points to triangulate
+   * @return the triangulation of the points
+   */
+  public DelaunayTriangulation build(DT_Point[] ps) {
+    int n = 0;
+    while (ps != null && n < ps.length && ps[n] != null) {
+      n++;
+    }
+    int tilesPerSide = (int) Math.sqrt((double) n / tileSize);
+    if (tilesPerSide >= 2) {
+      DelaunayTriangulation dt = new Build(ps, n, tilesPerSide).run();
+      if (dt != null) return dt;
+    }
+    return new DelaunayTriangulation(ps);
+  }
+
+  /**
+   * one tile of the grid.
+   */
+  private static class Tile {
+    double x0, y0, x1, y1;
+    DT_Point[] points;
+    DelaunayTriangulation dt;
+    DT_Point[] vertices;
+    IdentityHashMap<DT_Point, Integer> ids;
+    boolean[] seam;
+    int[] finals;
+    int finalCount;
+    int offset;
+    DT_Triangle hint;
+  }
+
+  /**
+   * the state of a single build.
+   */
+  private class Build {
+    private final DT_Point[] ps;
+    private final int n, k;
+    private double minX, minY, maxX, maxY, invW, invH;
+    private Tile[] tiles;
+    private DT_Point[] vertices;
+    private int[] tv, nbr;
+    private int[] vstart, vtris;
+    private volatile boolean invalid;
+
+    Build(DT_Point[] ps, int n, int k) {
+      this.ps = ps;
+      this.n = n;
+      this.k = k;
+    }
+
+    DelaunayTriangulation run() {
+      if (!createTiles()) return null;
+      pool.invoke(new TileTask(0, tiles.length));
+      int count = 0;
+      for (int i = 0; i < tiles.length; i++) {
+        tiles[i].offset = count;
+        count += tiles[i].vertices.length;
+      }
+      vertices = new DT_Point[count];
+      for (int i = 0; i < tiles.length; i++) {
+        Tile t = tiles[i];
+        System.arraycopy(t.vertices, 0, vertices, t.offset, t.vertices.length);
+      }
+      if (!mergeSeams()) return null;
+      return link();
+    }
+
+    int tileOf(double x, double y) {
+      int tx = (int) ((x - minX) * invW);
+      int ty = (int) ((y - minY) * invH);
+      if (tx < 0) tx = 0;
+      else if (tx >= k) tx = k - 1;
+      if (ty < 0) ty = 0;
+      else if (ty >= k) ty = k - 1;
+      return ty * k + tx;
+    }
+
+    private boolean createTiles() {
+      minX = minY = Double.POSITIVE_INFINITY;
+      maxX = maxY = Double.NEGATIVE_INFINITY;
+      for (int i = 0; i < n; i++) {
+        DT_Point p = ps[i];
+        if (p.x < minX) minX = p.x;
+        if (p.x > maxX) maxX = p.x;
+        if (p.y < minY) minY = p.y;
+        if (p.y > maxY) maxY = p.y;
+      }
+      if (!(maxX > minX && maxY > minY)) return false;
+      double w = (maxX - minX) / k, h = (maxY - minY) / k;
+      invW = 1 / w;
+      invH = 1 / h;
+      tiles = new Tile[k * k];
+      int[] counts = new int[tiles.length];
+      int[] tileIndex = new int[n];
+      for (int i = 0; i < n; i++) {
+        tileIndex[i] = tileOf(ps[i].x, ps[i].y);
+        counts[tileIndex[i]]++;
+      }
+      for (int i = 0; i < tiles.length; i++) {
+        Tile t = new Tile();
+        int tx = i % k, ty = i / k;
+        t.x0 = minX + tx * w;
+        t.y0 = minY + ty * h;
+        t.x1 = tx == k - 1 ? maxX : minX + (tx + 1) * w;
+        t.y1 = ty == k - 1 ? maxY : minY + (ty + 1) * h;
+        t.points = new DT_Point[counts[i]];
+        counts[i] = 0;
+        tiles[i] = t;
+      }
+      for (int i = 0; i < n; i++) {
+        Tile t = tiles[tileIndex[i]];
+        t.points[counts[tileIndex[i]]++] = ps[i];
+      }
+      return true;
+    }
+
+    /**
+     * triangulates a tile and sorts its triangles into final triangles and
+     * seam vertices.
+     */
+    void buildTile(Tile t) {
+      t.dt = new DelaunayTriangulation();
+      t.dt.insertPoints(t.points);
+      t.points = null;
+      t.vertices = new DT_Point[t.dt.size()];
+      t.ids = new IdentityHashMap<DT_Point, Integer>(t.vertices.length);
+      t.seam = new boolean[t.vertices.length];
+      int count = 0;
+      for (Iterator<DT_Point> it = t.dt.verticesIterator(); it.hasNext();) {
+        DT_Point p = it.next();
+        t.ids.put(p, count);
+        t.vertices[count++] = p;
+      }
+      if (count < 3) {
+        Arrays.fill(t.seam, true);
+        t.finals = new int[0];
+        return;
+      }
+      // margin against rounding in the tile assignment
+      double mx = (t.x1 - t.x0) * 1e-7, my = (t.y1 - t.y0) * 1e-7;
+      int[] finals = new int[3 * t.dt.trianglesSize()];
+      boolean any = false;
+      for (Iterator<DT_Triangle> it = t.dt.trianglesIterator(); it.hasNext();) {
+        DT_Triangle tri = it.next();
+        if (tri.halfplane) {
+          // the star of a hull vertex is not complete inside the tile
+          t.seam[t.ids.get(tri.a)] = true;
+          t.seam[t.ids.get(tri.b)] = true;
+          continue;
+        }
+        any = true;
+        int a = t.ids.get(tri.a), b = t.ids.get(tri.b), c = t.ids.get(tri.c);
+        double r = Math.sqrt(tri.circum.Radius());
+        DT_Point cen = tri.circum.Center();
+        if (cen.x - r > t.x0 + mx && cen.x + r < t.x1 - mx
+            && cen.y - r > t.y0 + my && cen.y + r < t.y1 - my) {
+          tri._mc = FINAL;
+          finals[3 * t.finalCount] = a;
+          finals[3 * t.finalCount + 1] = b;
+          finals[3 * t.finalCount + 2] = c;
+          t.finalCount++;
+        } else {
+          t.seam[a] = true;
+          t.seam[b] = true;
+          t.seam[c] = true;
+        }
+      }
+      if (!any) Arrays.fill(t.seam, true);
+      t.finals = finals;
+    }
+
+    int globalId(DT_Point p) {
+      Tile t = tiles[tileOf(p.x, p.y)];
+      Integer id = t.ids.get(p);
+      return id == null ? -1 : t.offset + id;
+    }
+
+    /**
+     * triangulates the seam vertices and collects the final triangles of all
+     * tiles and the seam triangles that are not covered by them.
+     */
+    private boolean mergeSeams() {
+      int seamCount = 0, finalCount = 0;
+      for (int i = 0; i < tiles.length; i++) {
+        Tile t = tiles[i];
+        finalCount += t.finalCount;
+        for (int j = 0; j < t.seam.length; j++) {
+          if (t.seam[j]) seamCount++;
+        }
+      }
+      DT_Point[] seamPoints = new DT_Point[seamCount];
+      seamCount = 0;
+      for (int i = 0; i < tiles.length; i++) {
+        Tile t = tiles[i];
+        for (int j = 0; j < t.seam.length; j++) {
+          if (t.seam[j]) seamPoints[seamCount++] = t.vertices[j];
+        }
+      }
+      DelaunayTriangulation seam = new DelaunayTriangulation();
+      seam.insertPoints(seamPoints);
+      if (seam.size() < 3) return false;
+
+      int m = finalCount;
+      int[] kept = new int[3 * seam.trianglesSize()];
+      int keptCount = 0;
+      DT_Point centroid = new DT_Point();
+      for (Iterator<DT_Triangle> it = seam.trianglesIterator(); it.hasNext();) {
+        DT_Triangle tri = it.next();
+        if (tri.halfplane) continue;
+        centroid.x = (tri.a.x + tri.b.x + tri.c.x) / 3;
+        centroid.y = (tri.a.y + tri.b.y + tri.c.y) / 3;
+        Tile t = tiles[tileOf(centroid.x, centroid.y)];
+        if (t.finalCount > 0) {
+          DT_Triangle f = t.dt.find(centroid, t.hint);
+          t.hint = f;
+          if (!f.halfplane && f._mc == FINAL) continue;
+        }
+        kept[keptCount++] = globalId(tri.a);
+        kept[keptCount++] = globalId(tri.b);
+        kept[keptCount++] = globalId(tri.c);
+      }
+      m += keptCount / 3;
+
+      tv = new int[3 * m];
+      int pos = 0;
+      for (int i = 0; i < tiles.length; i++) {
+        Tile t = tiles[i];
+        for (int j = 0; j < 3 * t.finalCount; j++) {
+          tv[pos++] = t.offset + t.finals[j];
+        }
+        t.dt = null;
+        t.finals = null;
+      }
+      System.arraycopy(kept, 0, tv, pos, keptCount);
+      for (int i = 0; i < tv.length; i++) {
+        if (tv[i] < 0) return false;
+      }
+      return true;
+    }
+
+    /**
+     * validates the merged mesh and links it into a triangulation, returns
+     * null if the mesh is not the unique Delaunay triangulation.
+     */
+    private DelaunayTriangulation link() {
+      int nv = vertices.length, m = tv.length / 3;
+      vstart = new int[nv + 1];
+      for (int i = 0; i < tv.length; i++) {
+        vstart[tv[i] + 1]++;
+      }
+      for (int i = 0; i < nv; i++) {
+        if (vstart[i + 1] == 0) return null; // unused vertex
+        vstart[i + 1] += vstart[i];
+      }
+      vtris = new int[tv.length];
+      int[] fill = new int[nv];
+      for (int i = 0; i < tv.length; i++) {
+        int v = tv[i];
+        vtris[vstart[v] + fill[v]++] = i;
+      }
+
+      nbr = new int[tv.length];
+      pool.invoke(new LinkTask(0, m));
+      if (invalid) return null;
+
+      // the hull, every hull vertex has exactly one outgoing hull edge
+      int[] hullNext = new int[nv];
+      Arrays.fill(hullNext, -1);
+      int hullCount = 0, hullStart = -1;
+      for (int i = 0; i < tv.length; i++) {
+        if (nbr[i] >= 0) continue;
+        int a = tv[i], b = tv[next(i)];
+        if (hullNext[a] >= 0) return null;
+        hullNext[a] = b;
+        hullStart = a;
+        hullCount++;
+      }
+      if (hullCount < 3 || m != 2 * nv - 2 - hullCount) return null;
+      int v = hullStart, steps = 0;
+      do {
+        int u = hullNext[v];
+        if (u < 0) return null;
+        int w = hullNext[u];
+        if (w < 0) return null;
+        // strictly convex, no hull vertex on a hull segment
+        int turn = vertices[w].pointLineTest(vertices[v], vertices[u]);
+        if (turn != DT_Point.LEFT) return null;
+        v = u;
+        steps++;
+      } while (v != hullStart && steps <= hullCount);
+      if (v != hullStart || steps != hullCount) return null;
+
+      DT_Triangle[] triangles = new DT_Triangle[m];
+      for (int i = 0; i < m; i++) {
+        triangles[i] = new DT_Triangle(vertices[tv[3 * i]],
+            vertices[tv[3 * i + 1]], vertices[tv[3 * i + 2]]);
+      }
+      DT_Triangle[] hull = new DT_Triangle[nv];
+      DT_Triangle hullTriangle = null;
+      for (int i = 0; i < m; i++) {
+        DT_Triangle t = triangles[i];
+        DT_Triangle ab, bc, ca;
+        ab = nbr[3 * i] >= 0 ? triangles[nbr[3 * i]] : null;
+        bc = nbr[3 * i + 1] >= 0 ? triangles[nbr[3 * i + 1]] : null;
+        ca = nbr[3 * i + 2] >= 0 ? triangles[nbr[3 * i + 2]] : null;
+        if (ab == null) ab = hullTriangle = halfplane(hull, t, tv[3 * i + 1]);
+        if (bc == null) bc = hullTriangle = halfplane(hull, t, tv[3 * i + 2]);
+        if (ca == null) ca = hullTriangle = halfplane(hull, t, tv[3 * i]);
+        t.abnext = ab;
+        t.bcnext = bc;
+        t.canext = ca;
+      }
+      // the half plane of the hull edge (u,v) is followed by the half plane
+      // of the hull edge ending at u
+      for (int u = 0; u < nv; u++) {
+        if (hullNext[u] < 0) continue;
+        DT_Triangle h = hull[hullNext[u]];
+        h.bcnext = hull[u];
+        hull[u].canext = h;
+      }
+      return new DelaunayTriangulation(vertices, triangles[0], hullTriangle);
+    }
+
+    /**
+     * creates the half plane outside the hull edge of t that ends at the
+     * given vertex, indexed by its first vertex.
+     */
+    private DT_Triangle halfplane(DT_Triangle[] hull, DT_Triangle t, int end) {
+      DT_Point b = vertices[end];
+      DT_Point a;
+      if (t.b == b) a = t.a;
+      else if (t.c == b) a = t.b;
+      else a = t.c;
+      DT_Triangle h = new DT_Triangle(b, a);
+      h.abnext = t;
+      hull[end] = h;
+      return h;
+    }
+
+    /**
+     * finds the neighbor across every edge and checks that the edge is
+     * strictly locally Delaunay.
+     */
+    void linkRange(int from, int to) {
+      for (int i = from; i < to && !invalid; i++) {
+        for (int j = 0; j < 3; j++) {
+          int e = 3 * i + j;
+          int a = tv[e], b = tv[next(e)];
+          if (!(vertices[tv[3 * i + (j + 2) % 3]].pointLineTest(
+              vertices[a], vertices[b]) == DT_Point.LEFT)) {
+            invalid = true;
+            return;
+          }
+          int twin = -1;
+          for (int s = vstart[b]; s < vstart[b + 1]; s++) {
+            int f = vtris[s];
+            if (tv[next(f)] == a) {
+              if (twin >= 0) {
+                invalid = true;
+                return;
+              }
+              twin = f;
+            }
+          }
+          for (int s = vstart[a]; s < vstart[a + 1]; s++) {
+            int f = vtris[s];
+            if (f != e && tv[next(f)] == b) {
+              invalid = true;
+              return;
+            }
+          }
+          nbr[e] = twin < 0 ? -1 : twin / 3;
+          if (twin >= 0) {
+            DT_Point opposite = vertices[tv[next(next(twin))]];
+            if (!outsideCircle(vertices[tv[3 * i]], vertices[tv[3 * i + 1]],
+                vertices[tv[3 * i + 2]], opposite)) {
+              invalid = true;
+              return;
+            }
+          }
+        }
+      }
+    }
+
+    private class TileTask extends RecursiveAction {
+      private static final long serialVersionUID = 1L;
+      private final int from, to;
+
+      TileTask(int from, int to) {
+        this.from = from;
+        this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+        if (to - from == 1) {
+          buildTile(tiles[from]);
+        } else {
+          int mid = (from + to) >>> 1;
+          invokeAll(new TileTask(from, mid), new TileTask(mid, to));
+        }
+      }
+    }
+
+    private class LinkTask extends RecursiveAction {
+      private static final long serialVersionUID = 1L;
+      private final int from, to;
+
+      LinkTask(int from, int to) {
+        this.from = from;
+        this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+        if (to - from <= 16384) {
+          linkRange(from, to);
+        } else {
+          int mid = (from + to) >>> 1;
+          invokeAll(new LinkTask(from, mid), new LinkTask(mid, to));
+        }
+      }
+    }
+  }
+
+  /**
+   * returns the index of the next corner of the same triangle.
+   */
+  private static int next(int corner) {
+    return corner % 3 == 2 ? corner - 2 : corner + 1;
+  }
+
+  /**
+   * returns true iff d is clearly outside the circumcircle of the
+   * counterclockwise triangle (a,b,c).
+   */
+  static boolean outsideCircle(DT_Point a, DT_Point b, DT_Point c, DT_Point d) {
+    double adx = a.x - d.x, ady = a.y - d.y;
+    double bdx = b.x - d.x, bdy = b.y - d.y;
+    double cdx = c.x - d.x, cdy = c.y - d.y;
+    double alift = adx * adx + ady * ady;
+    double blift = bdx * bdx + bdy * bdy;
+    double clift = cdx * cdx + cdy * cdy;
+    double bc = bdx * cdy - cdx * bdy;
+    double ca = cdx * ady - adx * cdy;
+    double ab = adx * bdy - bdx * ady;
+    double det = alift * bc + blift * ca + clift * ab;
+    double permanent = alift * (Math.abs(bdx * cdy) + Math.abs(cdx * bdy))
+        + blift * (Math.abs(cdx * ady) + Math.abs(adx * cdy)) + clift
+        * (Math.abs(adx * bdy) + Math.abs(bdx * ady));
+    return det < -INCIRCLE_EPSILON * permanent;
+  }
+}
@@ -0,0 +1,204 @@
+package com.sudoplay.math.delaunay;
+
+import java.util.Iterator;
+
+/**
+ * An adaptive spatial index for fast point location in a Delaunay
+ * Triangulation. <br>
+ * <br>
+ * The index is a quadtree over triangle representatives: every node holds a
+ * triangle of its square, a leaf is split in four once it received more than
+ * a few triangles. So the tree is deep where the triangulation is dense and
+ * shallow where it is sparse, a leaf covers only a handful of triangles
+ * whatever the distribution of the points, and a search is a descent of
+ * O(log n) nodes followed by a short walk. <br>
+ * <br>
+ * The index is updated incrementally from the triangles of every insert (see
+ * {@link DelaunayTriangulation#getLastUpdatedTriangles()}), the tree grows
+ * when triangles are added outside of it. A node may still hold a triangle
+ * that was flipped away or deleted since, such a triangle is detected (its
+ * neighbors no longer point back to it) and the search starts from the
+ * nearest ancestor with a live triangle instead.
+ */
+public class DT_QuadTreeIndex implements DT_SpatialIndex {
+
+  /**
+   * a leaf is split after it received that many triangles.
+   */
+  private static final int LEAF_CAPACITY = 16;
+
+  /**
+   * leaves this deep are not split any more (duplicated or extremely close
+   * points).
+   */
+  private static final int MAX_DEPTH = 48;
+
+  // the square of the root
+  private double x0, y0, size;
+  private int root;
+
+  // per node: the first of the 4 children (-1 for a leaf), the number of
+  // triangles a leaf received and the triangle of the node
+  private int[] first;
+  private int[] count;
+  private DT_Triangle[] triangles;
+  private int nodes;
+
+  /**
+   * Constructs a quadtree index holding the triangles of a delaunay
+   * triangulation.
+   *
+   * @param delaunay
+   *          delaunay triangulation to index
+   */
+  public DT_QuadTreeIndex(DelaunayTriangulation delaunay) {
+    first = new int[64];
+    count = new int[64];
+    triangles = new DT_Triangle[64];
+    if (delaunay.size() == 0) {
+      x0 = y0 = 0;
+      size = 1;
+    } else {
+      DT_BoundingBox box = delaunay.getBoundingBox();
+      x0 = box.minX();
+      y0 = box.minY();
+      size = Math.max(box.getWidth(), box.getHeight());
+      if (!(size > 0)) size = 1;
+      // keep the max edge inside the root
+      size *= 1 + 1e-9;
+    }
+    root = newNode(null);
+    if (delaunay.size() > 2) updateIndex(delaunay.trianglesIterator());
+  }
+
+  /**
+   * returns the number of nodes of the tree.
+   */
+  public int size() {
+    return nodes;
+  }
+
+  public DT_Triangle findStartTriangle(DT_Point point) {
+    double x = point.x, y = point.y;
+    DT_Triangle best = alive(triangles[root]) ? triangles[root] : null;
+    if (!(x >= x0 && y >= y0 && x < x0 + size && y < y0 + size)) return best;
+    int node = root;
+    double nx = x0, ny = y0, s = size;
+    while (first[node] >= 0) {
+      s *= 0.5;
+      int q = 0;
+      if (x >= nx + s) {
+        q |= 1;
+        nx += s;
+      }
+      if (y >= ny + s) {
+        q |= 2;
+        ny += s;
+      }
+      node = first[node] + q;
+      if (alive(triangles[node])) best = triangles[node];
+    }
+    return best;
+  }
+
+  public void updateIndex(Iterator<DT_Triangle> updatedTriangles) {
+    while (updatedTriangles.hasNext()) {
+      DT_Triangle t = updatedTriangles.next();
+      if (t.halfplane || !alive(t)) continue;
+      add(t, (t.a.x + t.b.x + t.c.x) / 3, (t.a.y + t.b.y + t.c.y) / 3);
+    }
+  }
+
+  // stores t in the leaf of (x,y) and all its ancestors
+  private void add(DT_Triangle t, double x, double y) {
+    if (!(Math.abs(x) <= Double.MAX_VALUE && Math.abs(y) <= Double.MAX_VALUE))
+      return;
+    while (!(x >= x0 && y >= y0 && x < x0 + size && y < y0 + size)) {
+      grow(x, y);
+    }
+    int node = root, depth = 0;
+    double nx = x0, ny = y0, s = size;
+    while (first[node] >= 0) {
+      triangles[node] = t;
+      s *= 0.5;
+      int q = 0;
+      if (x >= nx + s) {
+        q |= 1;
+        nx += s;
+      }
+      if (y >= ny + s) {
+        q |= 2;
+        ny += s;
+      }
+      node = first[node] + q;
+      depth++;
+    }
+    triangles[node] = t;
+    if (++count[node] > LEAF_CAPACITY && depth < MAX_DEPTH) {
+      int c = newNode(t);
+      newNode(t);
+      newNode(t);
+      newNode(t);
+      first[node] = c;
+    }
+  }
+
+  // doubles the root square towards (x,y), the old root becomes a child
+  private void grow(double x, double y) {
+    int q = 0;
+    if (x < x0) {
+      q |= 1;
+      x0 -= size;
+    }
+    if (y < y0) {
+      q |= 2;
+      y0 -= size;
+    }
+    DT_Triangle t = triangles[root];
+    int c = nodes;
+    for (int i = 0; i < 4; i++) {
+      if (i == q) {
+        // keep the children of one node consecutive, the old root is copied
+        int n = newNode(t);
+        first[n] = first[root];
+        count[n] = count[root];
+      } else {
+        newNode(t);
+      }
+    }
+    first[root] = c;
+    count[root] = 0;
+    size *= 2;
+  }
+
+  private int newNode(DT_Triangle t) {
+    if (nodes == first.length) {
+      int n = 2 * nodes;
+      int[] f = new int[n], k = new int[n];
+      DT_Triangle[] ts = new DT_Triangle[n];
+      System.arraycopy(first, 0, f, 0, nodes);
+      System.arraycopy(count, 0, k, 0, nodes);
+      System.arraycopy(triangles, 0, ts, 0, nodes);
+      first = f;
+      count = k;
+      triangles = ts;
+    }
+    first[nodes] = -1;
+    count[nodes] = 0;
+    triangles[nodes] = t;
+    return nodes++;
+  }
+
+  /**
+   * returns true if t is still part of the triangulation: a flipped away or
+   * deleted triangle has at least one neighbor that no longer points back.
+   */
+  private static boolean alive(DT_Triangle t) {
+    return t != null && pointsTo(t.abnext, t) && pointsTo(t.bcnext, t)
+        && pointsTo(t.canext, t);
+  }
+
+  private static boolean pointsTo(DT_Triangle n, DT_Triangle t) {
+    return n != null && (n.abnext == t || n.bcnext == t || n.canext == t);
+  }
+}
@@ -0,0 +1,249 @@
+package com.sudoplay.math.delaunay;
+
+import java.util.ArrayList;
+
+/**
+ * Inserts a constrained edge between two vertices of a Delaunay
+ * Triangulation. <br>
+ * <br>
+ * The triangles crossed by the segment are found by a walk from the first
+ * vertex to the second, they are removed and the two polygons left on both
+ * sides of the segment are triangulated again (each is the constrained
+ * Delaunay triangulation of its polygon: the triangle on an edge takes the
+ * polygon vertex whose circumcircle holds none of the other vertices). The
+ * cost is that of the walk plus the retriangulation of the crossed area,
+ * nothing else of the triangulation is touched. <br>
+ * <br>
+ * The walk changes nothing, so the insertion can stop when the segment runs
+ * through a vertex (vertex is set, the segment has to be split there) or
+ * crosses a constrained edge (crossed and crossedFrom are set, the edge has
+ * to be split at the crossing first).
+ */
+final class DT_SegmentInsertion {
+
+  private final DT_Point a, b;
+
+  /**
+   * a vertex the segment runs through, set if insert returned false.
+   */
+  DT_Point vertex;
+
+  /**
+   * a triangle with a constrained edge the segment crosses (the edge from
+   * the corner crossedFrom), set if insert returned false.
+   */
+  DT_Triangle crossed;
+  DT_Point crossedFrom;
+
+  /**
+   * the removed and the new triangles, set if insert returned true.
+   */
+  ArrayList<DT_Triangle> removed = new ArrayList<DT_Triangle>();
+  ArrayList<DT_Triangle> created = new ArrayList<DT_Triangle>();
+
+  // the vertices on the left and on the right of the segment, from a to b
+  private ArrayList<DT_Point> left = new ArrayList<DT_Point>();
+  private ArrayList<DT_Point> right = new ArrayList<DT_Point>();
+
+  DT_SegmentInsertion(DT_Point a, DT_Point b) {
+    this.a = a;
+    this.b = b;
+  }
+
+  /**
+   * inserts the segment as a constrained edge, start is a triangle (not a
+   * half plane) with the corner a. Returns false if the segment runs through
+   * a vertex or crosses a constrained edge, the triangulation is unchanged
+   * then.
+   */
+  boolean insert(DT_Triangle start) {
+    // the triangle around a the segment leaves a through
+    DT_Triangle t = start;
+    DT_Point p = null, q = null;
+    while (true) {
+      if (!t.halfplane) {
+        p = t.next(a);
+        q = t.next(p);
+        if (p == b) {
+          t.setFixed(a, true);
+          return true;
+        }
+        if (q == b) {
+          t.setFixed(q, true);
+          return true;
+        }
+        int rp = p.pointLineTest(a, b), rq = q.pointLineTest(a, b);
+        if (rp == DT_Point.ONSEGMENT) {
+          vertex = p;
+          return false;
+        }
+        if (rq == DT_Point.ONSEGMENT) {
+          vertex = q;
+          return false;
+        }
+        if (rp == DT_Point.RIGHT && rq == DT_Point.LEFT) break;
+      }
+      t = rotate(t, a);
+      if (t == start) throw new RuntimeException("Error in insert segment.");
+    }
+
+    // walk to b, the crossed edge is p (right of the segment) to q (left)
+    left.add(a);
+    right.add(a);
+    left.add(q);
+    right.add(p);
+    while (true) {
+      if (t.isFixed(p)) {
+        crossed = t;
+        crossedFrom = p;
+        return false;
+      }
+      removed.add(t);
+      t = t.edgeNeighbor(p);
+      DT_Point r = t.next(p);
+      if (r == b) break;
+      int res = r.pointLineTest(a, b);
+      if (res == DT_Point.LEFT) {
+        left.add(r);
+        q = r;
+      } else if (res == DT_Point.RIGHT) {
+        right.add(r);
+        p = r;
+      } else {
+        vertex = r;
+        return false;
+      }
+    }
+    removed.add(t);
+    left.add(b);
+    right.add(b);
+
+    // the left polygon counter clockwise is a, b and the left vertices back
+    // to a; the right one is b, a and the right vertices
+    int n = left.size() - 2;
+    DT_Point[] chain = new DT_Point[n];
+    for (int i = 0; i < n; i++) {
+      chain[i] = left.get(n - i);
+    }
+    triangulate(a, b, chain);
+    DT_Triangle upper = created.get(0);
+    n = right.size() - 2;
+    chain = new DT_Point[n];
+    for (int i = 0; i < n; i++) {
+      chain[i] = right.get(i + 1);
+    }
+    int first = created.size();
+    triangulate(b, a, chain);
+    DT_Triangle lower = created.get(first);
+    // the first triangle of each polygon is the one on the segment
+    upper.abnext = lower;
+    lower.abnext = upper;
+    upper.abfixed = lower.abfixed = true;
+
+    link();
+    return true;
+  }
+
+  /**
+   * triangulates the polygon s, e, chain (counter clockwise, all of chain is
+   * on the left of s, e), the first triangle is the one on s, e.
+   */
+  private void triangulate(DT_Point s, DT_Point e, DT_Point[] chain) {
+    // the polygons still to triangulate: the edge and a range of chain
+    ArrayList<DT_Point> edges = new ArrayList<DT_Point>();
+    ArrayList<int[]> ranges = new ArrayList<int[]>();
+    edges.add(s);
+    edges.add(e);
+    ranges.add(new int[] { 0, chain.length - 1 });
+    while (!ranges.isEmpty()) {
+      int[] range = ranges.remove(ranges.size() - 1);
+      e = edges.remove(edges.size() - 1);
+      s = edges.remove(edges.size() - 1);
+      int lo = range[0], hi = range[1];
+      if (lo > hi) continue;
+      int c = lo;
+      DT_Triangle t = new DT_Triangle(s, e, chain[c]);
+      for (int i = lo + 1; i <= hi; i++) {
+        if (t.circumcircle_contains(chain[i])) {
+          c = i;
+          t = new DT_Triangle(s, e, chain[c]);
+        }
+      }
+      created.add(t);
+      edges.add(chain[c]);
+      edges.add(e);
+      ranges.add(new int[] { lo, c - 1 });
+      edges.add(s);
+      edges.add(chain[c]);
+      ranges.add(new int[] { c + 1, hi });
+    }
+  }
+
+  /**
+   * links the new triangles with each other and with the triangles around
+   * the removed ones, the edges on the border keep their constrained flags.
+   */
+  private void link() {
+    boolean hole = removed.get(0).hole;
+    for (int i = 0; i < removed.size(); i++) {
+      removed.get(i)._mark = true;
+    }
+    for (int i = 0; i < created.size(); i++) {
+      DT_Triangle t = created.get(i);
+      t.hole = hole;
+      if (t.abnext == null) t.abnext = neighbor(t, t.a, t.b, i);
+      if (t.bcnext == null) t.bcnext = neighbor(t, t.b, t.c, i);
+      if (t.canext == null) t.canext = neighbor(t, t.c, t.a, i);
+    }
+    for (int i = 0; i < removed.size(); i++) {
+      removed.get(i)._mark = false;
+    }
+  }
+
+  /**
+   * returns the neighbor of the new triangle t (the i-th one) across the
+   * edge from x to y: a later new triangle (then linked both ways) or a
+   * triangle on the border of the removed ones.
+   */
+  private DT_Triangle neighbor(DT_Triangle t, DT_Point x, DT_Point y, int i) {
+    for (int j = i + 1; j < created.size(); j++) {
+      DT_Triangle n = created.get(j);
+      if (n.a == y && n.b == x) {
+        n.abnext = t;
+        return n;
+      }
+      if (n.b == y && n.c == x) {
+        n.bcnext = t;
+        return n;
+      }
+      if (n.c == y && n.a == x) {
+        n.canext = t;
+        return n;
+      }
+    }
+    for (int j = 0; j < removed.size(); j++) {
+      DT_Triangle r = removed.get(j);
+      if (r.a != x && r.b != x && r.c != x) continue;
+      if (r.next(x) != y) continue;
+      DT_Triangle n = r.edgeNeighbor(x);
+      if (n._mark) continue;
+      n.switchneighbors(r, t);
+      boolean fixed = r.isFixed(x);
+      if (t.a == x) {
+        t.abfixed = fixed;
+      } else if (t.b == x) {
+        t.bcfixed = fixed;
+      } else {
+        t.cafixed = fixed;
+      }
+      return n;
+    }
+    throw new RuntimeException("Error in insert segment, no neighbor.");
+  }
+
+  private static DT_Triangle rotate(DT_Triangle t, DT_Point v) {
+    if (v == t.a) return t.canext;
+    if (v == t.b) return t.abnext;
+    return t.bcnext;
+  }
+}
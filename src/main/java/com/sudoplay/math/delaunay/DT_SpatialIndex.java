@@ -0,0 +1,37 @@
+package com.sudoplay.math.delaunay;
+
+import java.util.Iterator;
+
+/**
+ * A spatial index for fast point location in a Delaunay Triangulation. The
+ * index does not have to find the triangle of a point, only a triangle close
+ * to it, the triangulation walks from there to the point. <br>
+ * <br>
+ * Implementations: {@link DT_GridIndex} - a fixed uniform grid,
+ * {@link DT_QuadTreeIndex} - an adaptive quadtree.
+ *
+ * @see DelaunayTriangulation#setSpatialIndex(DT_SpatialIndex)
+ */
+public interface DT_SpatialIndex {
+
+  /**
+   * returns a triangle of the triangulation close to the given point to start
+   * a search from, or null if the index has none (the triangulation then
+   * starts from its own start triangle).
+   *
+   * @param point
+   *          a query point
+   * @return a triangle near the point or null
+   */
+  DT_Triangle findStartTriangle(DT_Point point);
+
+  /**
+   * updates the index to reflect changes to the triangulation.
+   *
+   * @param updatedTriangles
+   *          changed triangles of the triangulation. This may be added
+   *          triangles, removed triangles or both. All that matter is that they
+   *          cover the changed area.
+   */
+  void updateIndex(Iterator<DT_Triangle> updatedTriangles);
+}
@@ -0,0 +1,164 @@
+package com.sudoplay.math.delaunay;
+
+import java.util.Arrays;
+
+/**
+ * Orders points for bulk insertion into a Delaunay Triangulation (BRIO -
+ * biased randomized insertion order). <br>
+ * <br>
+ * The points are divided into rounds of about 1/2, 1/4, 1/8 ... of the
+ * points, the small rounds are inserted first. Inside a round the points
+ * follow a Hilbert curve over the bounding box, so every point lands close to
+ * the previously inserted one and the walk in find is short. The rounds keep
+ * the randomization that the incremental algorithm needs to avoid long flip
+ * sequences on sorted input. <br>
+ * <br>
+ * The round of a point is taken from a hash of its coordinates instead of a
+ * random generator, so the order is deterministic and duplicated points always
+ * end up next to each other, in their original order.
+ */
+final class DT_SpatialSort {
+
+  /**
+   * bits per axis of the Hilbert curve.
+   */
+  private static final int ORDER = 14;
+
+  /**
+   * the first round holds at least about that many points.
+   */
+  private static final int FIRST_ROUND = 64;
+
+  private DT_SpatialSort() {
+  }
+
+  /**
+   * returns the points up to the first null in bulk insertion order.
+   *
+   * @param ps
+   *          the points to order
+   * @return a new array with the ordered points
+   */
+  static DT_Point[] order(DT_Point[] ps) {
+    int n = 0;
+    while (ps != null && n < ps.length && ps[n] != null) {
+      n++;
+    }
+    double[] xs = new double[n], ys = new double[n];
+    for (int i = 0; i < n; i++) {
+      xs[i] = ps[i].x;
+      ys[i] = ps[i].y;
+    }
+    int[] order = order(xs, ys, n);
+    DT_Point[] result = new DT_Point[n];
+    for (int i = 0; i < n; i++) {
+      result[i] = ps[order[i]];
+    }
+    return result;
+  }
+
+  /**
+   * returns the indices of the first n points of the coordinate arrays in bulk
+   * insertion order.
+   *
+   * @param xs
+   *          the x coordinates
+   * @param ys
+   *          the y coordinates
+   * @param n
+   *          the number of points
+   * @return a new array with the ordered indices
+   */
+  static int[] order(double[] xs, double[] ys, int n) {
+    int levels = 0;
+    while (levels < 15 && (n >>> (levels + 1)) >= FIRST_ROUND) {
+      levels++;
+    }
+    return sort(xs, ys, n, levels);
+  }
+
+  /**
+   * returns the indices of the first n points of the coordinate arrays along
+   * the Hilbert curve only (without rounds), the order for a batch of queries.
+   *
+   * @param xs
+   *          the x coordinates
+   * @param ys
+   *          the y coordinates
+   * @param n
+   *          the number of points
+   * @return a new array with the ordered indices
+   */
+  static int[] curveOrder(double[] xs, double[] ys, int n) {
+    return sort(xs, ys, n, 0);
+  }
+
+  private static int[] sort(double[] xs, double[] ys, int n, int levels) {
+    int[] result = new int[n];
+    if (n == 0) return result;
+
+    double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+    double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+    for (int i = 0; i < n; i++) {
+      if (xs[i] < minX) minX = xs[i];
+      if (xs[i] > maxX) maxX = xs[i];
+      if (ys[i] < minY) minY = ys[i];
+      if (ys[i] > maxY) maxY = ys[i];
+    }
+    int cells = 1 << ORDER;
+    double sx = maxX > minX ? (cells - 1) / (maxX - minX) : 0;
+    double sy = maxY > minY ? (cells - 1) / (maxY - minY) : 0;
+
+    // [round:4][hilbert:28][index:31]
+    long[] keys = new long[n];
+    for (int i = 0; i < n; i++) {
+      int level = Integer.numberOfTrailingZeros(hash(xs[i], ys[i]));
+      long round = levels - Math.min(level, levels);
+      int hx = (int) ((xs[i] - minX) * sx), hy = (int) ((ys[i] - minY) * sy);
+      long h = hilbert(hx, hy);
+      keys[i] = (round << 59) | (h << 31) | i;
+    }
+    Arrays.sort(keys);
+    for (int i = 0; i < n; i++) {
+      result[i] = (int) (keys[i] & 0x7fffffffL);
+    }
+    return result;
+  }
+
+  /**
+   * returns the index of the cell (x,y) along the Hilbert curve.
+   */
+  static int hilbert(int x, int y) {
+    int n = 1 << ORDER;
+    int d = 0;
+    for (int s = n >>> 1; s > 0; s >>>= 1) {
+      int rx = (x & s) != 0 ? 1 : 0;
+      int ry = (y & s) != 0 ? 1 : 0;
+      d += s * s * ((3 * rx) ^ ry);
+      if (ry == 0) {
+        if (rx == 1) {
+          x = n - 1 - x;
+          y = n - 1 - y;
+        }
+        int t = x;
+        x = y;
+        y = t;
+      }
+    }
+    return d;
+  }
+
+  /**
+   * mixes the coordinates of a point into well distributed bits, -0.0 and 0.0
+   * are the same coordinate.
+   */
+  static int hash(double x, double y) {
+    long h = Double.doubleToLongBits(x + 0.0) * 0x9E3779B97F4A7C15L;
+    h ^= Double.doubleToLongBits(y + 0.0);
+    h *= 0xC2B2AE3D27D4EB4FL;
+    h ^= h >>> 29;
+    h *= 0x165667B19E3779F9L;
+    h ^= h >>> 32;
+    return (int) h;
+  }
+}
@@ -12,6 +12,11 @@ public class DT_Triangle {
   int _mc = 0; // modcounter for triangulation fast update.
 
   boolean halfplane = false; // true iff it is an infinite face.
+  // true iff the edge is constrained (see
+  // DelaunayTriangulation.insertConstrainedEdge), set on both triangles of
+  // the edge.
+  boolean abfixed, bcfixed, cafixed;
+  boolean hole = false; // true iff it is inside a hole polygon.
   // public boolean visitflag;
   boolean _mark = false; // tag - for bfs algorithms
   // private static boolean visitValue=false;
@@ -113,6 +118,35 @@ public class DT_Triangle {
     return this.canext;
   }
 
+  /**
+   * returns true iff the p1,p2 edge is a constrained edge.
+   */
+  public boolean isConstrained_12() {
+    return this.abfixed;
+  }
+
+  /**
+   * returns true iff the p2,p3 edge is a constrained edge.
+   */
+  public boolean isConstrained_23() {
+    return this.bcfixed;
+  }
+
+  /**
+   * returns true iff the p3,p1 edge is a constrained edge.
+   */
+  public boolean isConstrained_31() {
+    return this.cafixed;
+  }
+
+  /**
+   * returns true iff this triangle is inside a hole of the triangulation (see
+   * DelaunayTriangulation.insertHole).
+   */
+  public boolean isHole() {
+    return this.hole;
+  }
+
   /**
    * @return The bounding rectangle between the minimum and maximum coordinates
    *         of the triangle
@@ -137,6 +171,67 @@ public class DT_Triangle {
       System.out.println("Error, switchneighbors can't find Old.");
   }
 
+  /**
+   * returns the corner after the corner p (counter clockwise).
+   */
+  DT_Point next(DT_Point p) {
+    if (a == p) return b;
+    if (b == p) return c;
+    return a;
+  }
+
+  /**
+   * returns the neighbor across the edge from the corner p to the next corner.
+   */
+  DT_Triangle edgeNeighbor(DT_Point p) {
+    if (a == p) return abnext;
+    if (b == p) return bcnext;
+    return canext;
+  }
+
+  /**
+   * returns true iff the edge from the corner p to the next corner is
+   * constrained.
+   */
+  boolean isFixed(DT_Point p) {
+    if (a == p) return abfixed;
+    if (b == p) return bcfixed;
+    return cafixed;
+  }
+
+  /**
+   * sets the constrained flag of the edge from the corner p to the next
+   * corner, on this triangle and on the neighbor across the edge.
+   */
+  void setFixed(DT_Point p, boolean fixed) {
+    DT_Triangle n = edgeNeighbor(p);
+    DT_Point q = next(p);
+    if (a == p) {
+      abfixed = fixed;
+    } else if (b == p) {
+      bcfixed = fixed;
+    } else {
+      cafixed = fixed;
+    }
+    if (n.a == q) {
+      n.abfixed = fixed;
+    } else if (n.b == q) {
+      n.bcfixed = fixed;
+    } else {
+      n.cafixed = fixed;
+    }
+  }
+
+  /**
+   * returns the corner with the x,y coordinates of p, null if there is none.
+   */
+  DT_Point corner(DT_Point p) {
+    if (p.x == a.x && p.y == a.y) return a;
+    if (p.x == b.x && p.y == b.y) return b;
+    if (c != null && p.x == c.x && p.y == c.y) return c;
+    return null;
+  }
+
   DT_Triangle neighbor(DT_Point p) {
     if (a == p) return canext;
     if (b == p) return abnext;
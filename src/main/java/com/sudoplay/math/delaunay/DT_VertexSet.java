@@ -0,0 +1,188 @@
+package com.sudoplay.math.delaunay;
+
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * The vertices of a Delaunay Triangulation, a hash set of points keyed by the
+ * primitive (x,y) coordinates. <br>
+ * <br>
+ * Two points with the same x and y are the same vertex (z is ignored), the
+ * same equality the triangulation used with a TreeSet ordered by
+ * {@link DT_Point#getComparator()}, but a lookup is a single hash probe
+ * instead of O(log n) comparisons. The points are kept in an array in
+ * insertion order (a removed point is replaced by the last one), the hash
+ * table only holds their indices (open addressing, linear probing).
+ */
+final class DT_VertexSet extends AbstractSet<DT_Point> {
+
+  private DT_Point[] points;
+  private int size;
+
+  // index + 1 of the point in points, 0 is an empty slot
+  private int[] table;
+
+  private int modCount;
+
+  DT_VertexSet() {
+    this(16);
+  }
+
+  DT_VertexSet(int capacity) {
+    points = new DT_Point[Math.max(capacity, 4)];
+    table = new int[tableSize(capacity)];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean contains(Object o) {
+    if (!(o instanceof DT_Point)) return false;
+    DT_Point p = (DT_Point) o;
+    return table[slot(p.x, p.y)] != 0;
+  }
+
+  /**
+   * returns the index of the point with the coordinates of p in the iteration
+   * order, -1 if there is none.
+   */
+  int indexOf(DT_Point p) {
+    return table[slot(p.x, p.y)] - 1;
+  }
+
+  /**
+   * returns the point with the coordinates of p, null if there is none.
+   */
+  DT_Point get(DT_Point p) {
+    int index = table[slot(p.x, p.y)] - 1;
+    return index < 0 ? null : points[index];
+  }
+
+  @Override
+  public boolean add(DT_Point p) {
+    int slot = slot(p.x, p.y);
+    if (table[slot] != 0) return false;
+    if (size == points.length) {
+      DT_Point[] tmp = new DT_Point[points.length * 2];
+      System.arraycopy(points, 0, tmp, 0, size);
+      points = tmp;
+    }
+    points[size++] = p;
+    table[slot] = size;
+    modCount++;
+    if (2 * size > table.length) rehash();
+    return true;
+  }
+
+  @Override
+  public boolean remove(Object o) {
+    if (!(o instanceof DT_Point)) return false;
+    DT_Point p = (DT_Point) o;
+    int slot = slot(p.x, p.y);
+    int index = table[slot] - 1;
+    if (index < 0) return false;
+    deleteSlot(slot);
+    size--;
+    if (index != size) {
+      // move the last point into the hole
+      DT_Point last = points[size];
+      points[index] = last;
+      table[slot(last.x, last.y)] = index + 1;
+    }
+    points[size] = null;
+    modCount++;
+    return true;
+  }
+
+  @Override
+  public void clear() {
+    for (int i = 0; i < size; i++) {
+      points[i] = null;
+    }
+    size = 0;
+    for (int i = 0; i < table.length; i++) {
+      table[i] = 0;
+    }
+    modCount++;
+  }
+
+  /**
+   * returns an iterator over the points in insertion order (up to removals),
+   * the iterator does not support remove.
+   */
+  @Override
+  public Iterator<DT_Point> iterator() {
+    return new Iterator<DT_Point>() {
+      private int next = 0;
+      private final int expected = modCount;
+
+      public boolean hasNext() {
+        return next < size;
+      }
+
+      public DT_Point next() {
+        if (expected != modCount) throw new ConcurrentModificationException();
+        if (next >= size) throw new NoSuchElementException();
+        return points[next++];
+      }
+
+      public void remove() {
+        throw new UnsupportedOperationException();
+      }
+    };
+  }
+
+  /**
+   * returns the slot of the point (x,y), or the empty slot it belongs to.
+   */
+  private int slot(double x, double y) {
+    int mask = table.length - 1;
+    int i = DT_SpatialSort.hash(x, y) & mask;
+    while (true) {
+      int v = table[i] - 1;
+      if (v < 0) return i;
+      DT_Point p = points[v];
+      if (p.x == x && p.y == y) return i;
+      i = (i + 1) & mask;
+    }
+  }
+
+  // empties a slot, moving back the following entries of the probe sequence
+  private void deleteSlot(int hole) {
+    int mask = table.length - 1;
+    int i = hole;
+    while (true) {
+      i = (i + 1) & mask;
+      int v = table[i] - 1;
+      if (v < 0) break;
+      DT_Point p = points[v];
+      int home = DT_SpatialSort.hash(p.x, p.y) & mask;
+      // the entry may move to the hole if its home is not in (hole, i]
+      if (((i - home) & mask) >= ((i - hole) & mask)) {
+        table[hole] = table[i];
+        hole = i;
+      }
+    }
+    table[hole] = 0;
+  }
+
+  private void rehash() {
+    table = new int[table.length * 2];
+    for (int v = 0; v < size; v++) {
+      table[slot(points[v].x, points[v].y)] = v + 1;
+    }
+  }
+
+  private static int tableSize(int capacity) {
+    int n = 16;
+    while (n < 2 * capacity) {
+      n <<= 1;
+    }
+    return n;
+  }
+}
@@ -0,0 +1,445 @@
+package com.sudoplay.math.delaunay;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+
+/**
+ * The Voronoi diagram of the vertices of a Delaunay Triangulation, built in
+ * one pass. <br>
+ * <br>
+ * Every Voronoi vertex is the circumcenter of a triangle, it is taken once
+ * from the triangle and stored in primitive coordinate arrays. A cell is the
+ * polygon of the circumcenters of the triangles around its site, in counter
+ * clockwise order; the cells are stored as int indices into the vertex arrays
+ * (cell i is cellVertices[cellStart[i] .. cellStart[i + 1]) and belongs to
+ * the i-th vertex of the triangulation's verticesIterator). <br>
+ * <br>
+ * The cell of a vertex on the convex hull is unbounded. Without a clip box
+ * such a cell holds only its finite vertices (a polyline, see isClosed).
+ * With a clip box every cell is clipped to the box and closed, the points
+ * where a cell crosses the box are added as extra vertices (per cell, they
+ * are not shared with the neighboring cell).
+ */
+public class DT_VoronoiDiagram {
+
+  private DT_Point[] sites;
+
+  private double[] vertexX, vertexY;
+  private int vertexCount;
+
+  private int[] cellStart;
+  private int[] cellVertices;
+  private int cellVertexCount;
+  private boolean[] closed;
+
+  // the clip box, null for none
+  private final DT_BoundingBox clip;
+
+  // the length of the rays of unbounded cells beyond the sites and the box
+  private double far;
+
+  // the Voronoi vertex of every triangle whose circumcenter is taken (by the
+  // first cell around it, so the vertices are numbered in the order of the
+  // cells); only while the diagram is built
+  private IdentityHashMap<DT_Triangle, Integer> ids;
+
+  // work buffers of the clipping
+  private double[] px = new double[16], py = new double[16];
+  private int[] pid = new int[16];
+  private double[] qx = new double[16], qy = new double[16];
+  private int[] qid = new int[16];
+
+  /**
+   * Constructs the (unclipped) Voronoi diagram of a delaunay triangulation.
+   *
+   * @param delaunay
+   *          delaunay triangulation of the sites
+   */
+  public DT_VoronoiDiagram(DelaunayTriangulation delaunay) {
+    this(delaunay, null);
+  }
+
+  /**
+   * Constructs the Voronoi diagram of a delaunay triangulation with every
+   * cell clipped to a box. Note: the triangulation must not be changed while
+   * the diagram is built; it is only read, so several diagrams may be built
+   * from it at the same time.
+   *
+   * @param delaunay
+   *          delaunay triangulation of the sites
+   * @param clip
+   *          the box to clip the cells to, null for none
+   */
+  public DT_VoronoiDiagram(DelaunayTriangulation delaunay,
+      DT_BoundingBox clip) {
+    this.clip = clip != null && !clip.isNull() ? clip : null;
+    int n = delaunay.size();
+    sites = new DT_Point[n];
+    int count = 0;
+    for (Iterator<DT_Point> it = delaunay.verticesIterator(); it.hasNext();) {
+      sites[count++] = it.next();
+    }
+    cellStart = new int[n + 1];
+    closed = new boolean[n];
+    vertexX = new double[Math.max(16, 2 * n)];
+    vertexY = new double[vertexX.length];
+    cellVertices = new int[Math.max(16, 6 * n)];
+    // with less than 3 sites there are no triangles, no Voronoi vertices
+    if (n >= 3) build(delaunay);
+    vertexX = Arrays.copyOf(vertexX, vertexCount);
+    vertexY = Arrays.copyOf(vertexY, vertexCount);
+    cellVertices = Arrays.copyOf(cellVertices, cellVertexCount);
+  }
+
+  private void build(DelaunayTriangulation delaunay) {
+    DT_Triangle[] triangles = new DT_Triangle[delaunay.trianglesSize()];
+    int m = 0;
+    Iterator<DT_Triangle> it = delaunay.trianglesIterator();
+    while (it.hasNext()) {
+      triangles[m++] = it.next();
+    }
+    ids = new IdentityHashMap<DT_Triangle, Integer>(m);
+    // a (none half plane) triangle around every site: the one whose corner at
+    // the site holds the direction +x, or the triangle of a half plane of the
+    // site (only a hull vertex may miss the first one). That is one vertex
+    // lookup per site instead of one per triangle corner.
+    DT_Triangle[] around = new DT_Triangle[sites.length];
+    boolean flat = true;
+    for (int i = 0; i < m; i++) {
+      DT_Triangle t = triangles[i];
+      if (t.halfplane) {
+        setAround(delaunay, around, t.a, t.abnext);
+        setAround(delaunay, around, t.b, t.abnext);
+        continue;
+      }
+      flat = false;
+      if (holdsPositiveX(t.a, t.b, t.c)) {
+        setAround(delaunay, around, t.a, t);
+      } else if (holdsPositiveX(t.b, t.c, t.a)) {
+        setAround(delaunay, around, t.b, t);
+      } else if (holdsPositiveX(t.c, t.a, t.b)) {
+        setAround(delaunay, around, t.c, t);
+      }
+    }
+    if (!flat) { // else all collinear
+      DT_BoundingBox box = delaunay.getBoundingBox();
+      if (clip != null) box = box.unionWith(clip);
+      far = 4 * (box.getWidth() + box.getHeight()) + 1;
+      for (int i = 0; i < sites.length; i++) {
+        cellStart[i] = cellVertexCount;
+        if (around[i] != null) cell(i, around[i]);
+      }
+      cellStart[sites.length] = cellVertexCount;
+    }
+    ids = null;
+  }
+
+  private static void setAround(DelaunayTriangulation delaunay,
+      DT_Triangle[] around, DT_Point v, DT_Triangle t) {
+    int i = delaunay.vertexIndex(v);
+    if (i >= 0 && around[i] == null) around[i] = t;
+  }
+
+  /**
+   * returns true if the corner v of the counter clockwise triangle v, p, q
+   * holds the direction +x (the ray from v along p included, along q not).
+   * The corners around a vertex split the directions, so exactly one of its
+   * triangles (or half planes) holds +x.
+   */
+  private static boolean holdsPositiveX(DT_Point v, DT_Point p, DT_Point q) {
+    return p.y <= v.y && q.y > v.y;
+  }
+
+  /**
+   * emits the cell of a site, start is a triangle (not a half plane) around
+   * it.
+   */
+  private void cell(int site, DT_Triangle start) {
+    DT_Point v = sites[site];
+    // the triangles around v counter clockwise, from the one after the half
+    // planes of an unbounded cell
+    DT_Triangle first = start;
+    DT_Triangle t = start;
+    do {
+      DT_Triangle next = rotate(t, v);
+      if (t.halfplane && !next.halfplane) {
+        first = next;
+        break;
+      }
+      t = next;
+    } while (t != start);
+    boolean bounded = first == start && !t.halfplane;
+
+    int size = 0;
+    t = first;
+    do {
+      if (!t.halfplane) {
+        int c = vertex(t);
+        size = add(size, vertexX[c], vertexY[c], c);
+      } else if (clip != null && !rotate(t, v).halfplane) {
+        // t is the second half plane, close the cell far outside the box
+        DT_Triangle h1 = previous(t, v), h2 = t;
+        double[] n1 = outward(h1), n2 = outward(h2);
+        double bx = n1[0] + n2[0], by = n1[1] + n2[1];
+        double len = Math.sqrt(bx * bx + by * by);
+        if (len < 1e-6) {
+          bx = -n1[1];
+          by = n1[0];
+        } else {
+          bx /= len;
+          by /= len;
+        }
+        int c1 = vertex(h1.abnext), c2 = vertex(h2.abnext);
+        double x1 = vertexX[c1], y1 = vertexY[c1];
+        double x2 = vertexX[c2], y2 = vertexY[c2];
+        // the circumcenters of flat hull triangles may be far out, go beyond
+        double reach = far + Math.abs(x1 - v.x) + Math.abs(y1 - v.y)
+            + Math.abs(x2 - v.x) + Math.abs(y2 - v.y);
+        size = add(size, x1 + reach * n1[0], y1 + reach * n1[1], -1);
+        size = add(size, v.x + reach * bx, v.y + reach * by, -1);
+        size = add(size, x2 + reach * n2[0], y2 + reach * n2[1], -1);
+      }
+      t = rotate(t, v);
+    } while (t != first);
+
+    if (clip == null) {
+      closed[site] = bounded;
+      for (int i = 0; i < size; i++) {
+        emit(pid[i]);
+      }
+      return;
+    }
+    closed[site] = true;
+    size = clip(size);
+    for (int i = 0; i < size; i++) {
+      emit(pid[i] >= 0 ? pid[i] : addVertex(px[i], py[i]));
+    }
+  }
+
+  /**
+   * returns the Voronoi vertex of a triangle, its circumcenter.
+   */
+  private int vertex(DT_Triangle t) {
+    Integer id = ids.get(t);
+    if (id == null) {
+      DT_Point c = (t.circum != null ? t.circum : t.circumcircle()).Center();
+      id = addVertex(c.x, c.y);
+      ids.put(t, id);
+    }
+    return id;
+  }
+
+  /**
+   * returns the next triangle counter clockwise around the corner v of t,
+   * through the half planes of the convex hull as well.
+   */
+  private static DT_Triangle rotate(DT_Triangle t, DT_Point v) {
+    if (v == t.a) return t.canext;
+    if (v == t.b) return t.abnext;
+    return t.bcnext;
+  }
+
+  /**
+   * returns the previous triangle counter clockwise around the corner v of t.
+   */
+  private static DT_Triangle previous(DT_Triangle t, DT_Point v) {
+    if (v == t.a) return t.abnext;
+    if (v == t.b) return t.bcnext;
+    return t.canext;
+  }
+
+  /**
+   * returns the outward unit normal of the hull edge of a half plane.
+   */
+  private static double[] outward(DT_Triangle h) {
+    double nx = h.a.y - h.b.y, ny = h.b.x - h.a.x;
+    double len = Math.sqrt(nx * nx + ny * ny);
+    return new double[] { nx / len, ny / len };
+  }
+
+  /**
+   * clips the polygon in px, py, pid to the clip box (Sutherland - Hodgman),
+   * a point cut by the box gets the id -1. Returns the new size.
+   */
+  private int clip(int size) {
+    size = clip(size, 0, clip.minX());
+    size = clip(size, 1, clip.maxX());
+    size = clip(size, 2, clip.minY());
+    return clip(size, 3, clip.maxY());
+  }
+
+  // clips against one side of the box: 0 x >= c, 1 x <= c, 2 y >= c, 3 y <= c
+  private int clip(int size, int side, double c) {
+    int out = 0;
+    for (int i = 0; i < size; i++) {
+      int j = i == 0 ? size - 1 : i - 1;
+      double di = inside(side, c, px[i], py[i]);
+      double dj = inside(side, c, px[j], py[j]);
+      if (di >= 0) {
+        if (dj < 0) {
+          out = cut(out, px[j], py[j], dj, px[i], py[i], di, side, c);
+        }
+        out = put(out, px[i], py[i], pid[i]);
+      } else if (dj >= 0) {
+        out = cut(out, px[j], py[j], dj, px[i], py[i], di, side, c);
+      }
+    }
+    // swap the buffers
+    double[] tx = px, ty = py;
+    int[] tid = pid;
+    px = qx;
+    py = qy;
+    pid = qid;
+    qx = tx;
+    qy = ty;
+    qid = tid;
+    return out;
+  }
+
+  private static double inside(int side, double c, double x, double y) {
+    switch (side) {
+    case 0:
+      return x - c;
+    case 1:
+      return c - x;
+    case 2:
+      return y - c;
+    default:
+      return c - y;
+    }
+  }
+
+  // puts the point where the segment (x0,y0) - (x1,y1) crosses the side
+  private int cut(int out, double x0, double y0, double d0, double x1,
+      double y1, double d1, int side, double c) {
+    double s = d0 / (d0 - d1);
+    double x = x0 + s * (x1 - x0), y = y0 + s * (y1 - y0);
+    // exactly on the side, whatever the rounding
+    if (side < 2) {
+      x = c;
+    } else {
+      y = c;
+    }
+    return put(out, x, y, -1);
+  }
+
+  private int put(int out, double x, double y, int id) {
+    if (out == qx.length) {
+      qx = Arrays.copyOf(qx, 2 * out);
+      qy = Arrays.copyOf(qy, 2 * out);
+      qid = Arrays.copyOf(qid, 2 * out);
+    }
+    qx[out] = x;
+    qy[out] = y;
+    qid[out] = id;
+    return out + 1;
+  }
+
+  // adds a point to the polygon buffer
+  private int add(int size, double x, double y, int id) {
+    if (size == px.length) {
+      px = Arrays.copyOf(px, 2 * size);
+      py = Arrays.copyOf(py, 2 * size);
+      pid = Arrays.copyOf(pid, 2 * size);
+    }
+    px[size] = x;
+    py[size] = y;
+    pid[size] = id;
+    return size + 1;
+  }
+
+  private int addVertex(double x, double y) {
+    if (vertexCount == vertexX.length) {
+      vertexX = Arrays.copyOf(vertexX, 2 * vertexCount);
+      vertexY = Arrays.copyOf(vertexY, 2 * vertexCount);
+    }
+    vertexX[vertexCount] = x;
+    vertexY[vertexCount] = y;
+    return vertexCount++;
+  }
+
+  private void emit(int vertex) {
+    if (cellVertexCount == cellVertices.length) {
+      cellVertices = Arrays.copyOf(cellVertices, 2 * cellVertexCount);
+    }
+    cellVertices[cellVertexCount++] = vertex;
+  }
+
+  /**
+   * returns the number of cells (the number of vertices of the
+   * triangulation).
+   */
+  public int getCellCount() {
+    return sites.length;
+  }
+
+  /**
+   * returns the site (vertex of the triangulation) of a cell.
+   */
+  public DT_Point getSite(int cell) {
+    return sites[cell];
+  }
+
+  /**
+   * returns true if the cell is a closed polygon, false for an unbounded cell
+   * of an unclipped diagram (its vertices are an open polyline).
+   */
+  public boolean isClosed(int cell) {
+    return closed[cell];
+  }
+
+  /**
+   * returns the number of Voronoi vertices.
+   */
+  public int getVertexCount() {
+    return vertexCount;
+  }
+
+  /**
+   * returns the x coordinates of the Voronoi vertices (not a copy).
+   */
+  public double[] getVerticesX() {
+    return vertexX;
+  }
+
+  /**
+   * returns the y coordinates of the Voronoi vertices (not a copy).
+   */
+  public double[] getVerticesY() {
+    return vertexY;
+  }
+
+  /**
+   * returns the start of every cell in getCellVertices, cell i ends where
+   * cell i + 1 starts (not a copy, getCellCount() + 1 long).
+   */
+  public int[] getCellStart() {
+    return cellStart;
+  }
+
+  /**
+   * returns the vertex indices of all the cells one after the other, every
+   * cell in counter clockwise order (not a copy).
+   */
+  public int[] getCellVertices() {
+    return cellVertices;
+  }
+
+  /**
+   * returns the polygon of a cell as points.
+   *
+   * @param cell
+   *          the index of the cell
+   * @return the vertices of the cell in counter clockwise order
+   */
+  public DT_Point[] getCell(int cell) {
+    int from = cellStart[cell], to = cellStart[cell + 1];
+    DT_Point[] result = new DT_Point[to - from];
+    for (int i = from; i < to; i++) {
+      int v = cellVertices[i];
+      result[i - from] = new DT_Point(vertexX[v], vertexY[v]);
+    }
+    return result;
+  }
+}
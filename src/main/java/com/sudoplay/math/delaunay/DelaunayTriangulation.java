@@ -4,14 +4,20 @@ import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.StringTokenizer;
-import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * This class represents a Delaunay Triangulation. The class was written for a
@@ -64,13 +70,13 @@ public class DelaunayTriangulation {
 
   private int nPoints = 0; // number of points
   // additional data 4/8/05 used by the iterators
-  private Set<DT_Point> _vertices;
-  private Vector<DT_Triangle> _triangles;
+  private DT_VertexSet _vertices;
+  private ArrayList<DT_Triangle> _triangles;
 
   // The triangles that were deleted in the last deletePoint iteration.
-  private Vector<DT_Triangle> deletedTriangles;
+  private List<DT_Triangle> deletedTriangles;
   // The triangles that were added in the last deletePoint iteration.
-  private Vector<DT_Triangle> addedTriangles;
+  private ArrayList<DT_Triangle> addedTriangles;
 
   private int _modCount = 0, _modCount2 = 0;
 
@@ -80,7 +86,16 @@ public class DelaunayTriangulation {
   /**
    * Index for faster point location searches
    */
-  private DT_GridIndex gridIndex = null;
+  private DT_SpatialIndex spatialIndex = null;
+
+  // reusable list of the triangles updated by insertPoint
+  private ArrayList<DT_Triangle> _updated = new ArrayList<DT_Triangle>();
+
+  // reusable work stack of flip and getLastUpdatedTriangles
+  private DT_Triangle[] _stack = new DT_Triangle[64];
+
+  // the number of batch queries a single task walks in a row
+  private static final int BATCH_CHUNK = 4096;
 
   /**
    * creates an empty Delaunay Triangulation.
@@ -98,16 +113,46 @@ public class DelaunayTriangulation {
     _modCount2 = 0;
     _bb_min = null;
     _bb_max = null;
-    this._vertices = new TreeSet<DT_Point>(DT_Point.getComparator());
-    _triangles = new Vector<DT_Triangle>();
+    this._vertices = new DT_VertexSet();
+    _triangles = new ArrayList<DT_Triangle>();
     deletedTriangles = null;
-    addedTriangles = new Vector<DT_Triangle>();
+    addedTriangles = new ArrayList<DT_Triangle>();
     allCollinear = true;
     for (int i = 0; ps != null && i < ps.length && ps[i] != null; i++) {
       this.insertPoint(ps[i]);
     }
   }
 
+  /**
+   * creates a Delaunay Triangulation from an already linked set of triangles
+   * (used by DT_ParallelBuilder).
+   *
+   * @param vertices
+   *          all the (different) vertices of the triangles
+   * @param start
+   *          a (none halfplane) triangle to start searches from
+   * @param hull
+   *          a half plane of the convex hull
+   */
+  DelaunayTriangulation(DT_Point[] vertices, DT_Triangle start,
+      DT_Triangle hull) {
+    this._vertices = new DT_VertexSet(vertices.length);
+    _triangles = new ArrayList<DT_Triangle>();
+    deletedTriangles = null;
+    addedTriangles = new ArrayList<DT_Triangle>();
+    allCollinear = false;
+    for (int i = 0; i < vertices.length; i++) {
+      updateBoundingBox(vertices[i]);
+      _vertices.add(vertices[i]);
+    }
+    nPoints = vertices.length;
+    _modCount = vertices.length;
+    _modCount2 = 0;
+    startTriangle = start;
+    startTriangleHull = hull;
+    currT = start;
+  }
+
   /**
    * creates a Delaunay Triangulation from all the points in the suggested tsin
    * file or from a smf file (off like). if the file name is .smf - read it as
@@ -177,7 +222,12 @@ public class DelaunayTriangulation {
     _modCount++;
     updateBoundingBox(p);
     this._vertices.add(p);
-    DT_Triangle t = insertPointSimple(p);
+    legalize(insertPointSimple(p));
+  }
+
+  // flips the triangles around the new vertex (the corner c of t and of the
+  // triangles clockwise from it) and updates the index
+  private void legalize(DT_Triangle t) {
     if (t == null) //
       return;
     DT_Triangle tt = t;
@@ -188,7 +238,234 @@ public class DelaunayTriangulation {
     } while (tt != t && !tt.halfplane);
 
     // Update index with changed triangles
-    if (gridIndex != null) gridIndex.updateIndex(getLastUpdatedTriangles());
+    if (spatialIndex != null) {
+      _updated.clear();
+      getLastUpdatedTriangles(_updated);
+      spatialIndex.updateIndex(_updated.iterator());
+    }
+  }
+
+  /**
+   * inserts all the points (up to the first null) to this Delaunay
+   * Triangulation in a biased randomized order along a Hilbert curve, each
+   * point is inserted close to the previous one so the searches are short.
+   * Note: duplicated points are ignored, of several equal points the first
+   * one in the array is kept. The triangles may differ from inserting the
+   * points in array order only where the triangulation is not unique (four or
+   * more cocircular points).
+   *
+   * @param ps
+   *          new vertices to be inserted the triangulation.
+   */
+  public void insertPoints(DT_Point[] ps) {
+    DT_Point[] ordered = DT_SpatialSort.order(ps);
+    for (int i = 0; i < ordered.length; i++) {
+      this.insertPoint(ordered[i]);
+    }
+  }
+
+  /**
+   * inserts a constrained edge between a and b (the points are inserted
+   * first if needed), the edge is kept by all later inserts: flips never
+   * remove a constrained edge, a point inserted on it splits it in two
+   * constrained edges. The triangulation stays Delaunay apart from the
+   * constrained edges (a constrained Delaunay triangulation). <br>
+   * If the segment runs through other vertices it is made of one constrained
+   * edge per piece between them, if it crosses a constrained edge both are
+   * split at a new vertex at the crossing (with a z value interpolated along
+   * the crossed edge). <br>
+   * Note: deleting a vertex removes the constrained edges it is an end of.
+   * 
+   * @param a
+   *          one end of the segment
+   * @param b
+   *          the other end of the segment
+   * @throws IllegalArgumentException
+   *           if a and b have the same x,y coordinates
+   */
+  public void insertConstrainedEdge(DT_Point a, DT_Point b) {
+    if (a.x == b.x && a.y == b.y)
+      throw new IllegalArgumentException("can't constrain an edge from a "
+          + "point to itself: " + a);
+    insertPoint(a);
+    insertPoint(b);
+    if (allCollinear)
+      throw new RuntimeException("can't constrain an edge while all the "
+          + "vertices are collinear (no triangles yet).");
+    _modCount++;
+    // the segments still to insert, as pairs of vertices
+    ArrayList<DT_Point> segments = new ArrayList<DT_Point>();
+    segments.add(vertex(a));
+    segments.add(vertex(b));
+    while (!segments.isEmpty()) {
+      DT_Point w = segments.remove(segments.size() - 1);
+      DT_Point v = segments.remove(segments.size() - 1);
+      DT_SegmentInsertion insertion = new DT_SegmentInsertion(v, w);
+      DT_Triangle start = find(v);
+      if (insertion.insert(start)) {
+        updateConstrained(insertion);
+        continue;
+      }
+      DT_Point x = insertion.vertex;
+      if (x == null) {
+        x = splitCrossing(v, w, insertion.crossed, insertion.crossedFrom);
+      }
+      segments.add(x);
+      segments.add(w);
+      segments.add(v);
+      segments.add(x);
+    }
+  }
+
+  /**
+   * inserts the polygon as a hole: its edges are inserted as constrained
+   * edges (see insertConstrainedEdge) and every triangle inside it is marked
+   * as a hole (see DT_Triangle.isHole). The hole triangles stay in the
+   * triangulation for point location, like the half planes of the convex
+   * hull, an application skips them when it iterates the triangles. A point
+   * inserted inside the hole splits a hole triangle, the new triangles are
+   * hole triangles as well.
+   * 
+   * @param polygon
+   *          the vertices of a simple polygon, clockwise or counter clockwise
+   * @throws IllegalArgumentException
+   *           if the polygon has less than three vertices
+   */
+  public void insertHole(DT_Point[] polygon) {
+    int n = polygon.length;
+    if (n < 3)
+      throw new IllegalArgumentException("a hole needs at least three "
+          + "vertices: " + n);
+    double area = 0;
+    for (int i = 0; i < n; i++) {
+      DT_Point p = polygon[i], q = polygon[(i + 1) % n];
+      insertConstrainedEdge(p, q);
+      area += p.x * q.y - q.x * p.y;
+    }
+
+    // the constrained edges of the polygon (its edges may be split in
+    // several), and a triangle inside the polygon on one of them
+    IdentityHashMap<DT_Point, ArrayList<DT_Point>> border;
+    border = new IdentityHashMap<DT_Point, ArrayList<DT_Point>>();
+    DT_Triangle seed = null;
+    for (int i = 0; i < n; i++) {
+      DT_Triangle t = find(polygon[i]);
+      DT_Point v = t.corner(polygon[i]), end = polygon[(i + 1) % n];
+      while (v.x != end.x || v.y != end.y) {
+        t = borderEdge(t, v, end);
+        DT_Point w = t.next(v);
+        addBorder(border, v, w);
+        addBorder(border, w, v);
+        // the polygon is on the left of its edges if it is counter clockwise
+        if (seed == null) seed = area > 0 ? t : t.edgeNeighbor(v);
+        v = w;
+      }
+    }
+    if (seed == null || seed.halfplane) return;
+
+    // flood fill up to the border of the polygon, through the triangles of
+    // holes inserted before as well (the polygon may overlap them)
+    _modCount++;
+    Set<DT_Triangle> visited = Collections
+        .newSetFromMap(new IdentityHashMap<DT_Triangle, Boolean>());
+    ArrayList<DT_Triangle> queue = new ArrayList<DT_Triangle>();
+    visited.add(seed);
+    queue.add(seed);
+    for (int i = 0; i < queue.size(); i++) {
+      DT_Triangle t = queue.get(i);
+      t.hole = true;
+      markHole(t.abnext, t.abfixed, t.a, t.b, border, visited, queue);
+      markHole(t.bcnext, t.bcfixed, t.b, t.c, border, visited, queue);
+      markHole(t.canext, t.cafixed, t.c, t.a, border, visited, queue);
+    }
+  }
+
+  /**
+   * returns the triangle with the constrained edge from its corner v (t is a
+   * triangle around v) which heads most directly to end.
+   */
+  private static DT_Triangle borderEdge(DT_Triangle t, DT_Point v,
+      DT_Point end) {
+    double dx = end.x - v.x, dy = end.y - v.y;
+    DT_Triangle start = t, best = null;
+    double bestCos = Double.NEGATIVE_INFINITY;
+    do {
+      if (!t.halfplane && t.isFixed(v)) {
+        DT_Point w = t.next(v);
+        double ex = w.x - v.x, ey = w.y - v.y;
+        double cos = (dx * ex + dy * ey) / Math.sqrt(ex * ex + ey * ey);
+        if (cos > bestCos) {
+          bestCos = cos;
+          best = t;
+        }
+      }
+      t = v == t.a ? t.canext : v == t.b ? t.abnext : t.bcnext;
+    } while (t != start);
+    if (best == null)
+      throw new RuntimeException("Error in insertHole, no border edge.");
+    return best;
+  }
+
+  private static void addBorder(
+      IdentityHashMap<DT_Point, ArrayList<DT_Point>> border, DT_Point v,
+      DT_Point w) {
+    ArrayList<DT_Point> list = border.get(v);
+    if (list == null) border.put(v, list = new ArrayList<DT_Point>(2));
+    list.add(w);
+  }
+
+  private static void markHole(DT_Triangle t, boolean fixed, DT_Point v,
+      DT_Point w, IdentityHashMap<DT_Point, ArrayList<DT_Point>> border,
+      Set<DT_Triangle> visited, ArrayList<DT_Triangle> queue) {
+    if (t.halfplane || visited.contains(t)) return;
+    if (fixed && border.containsKey(v) && border.get(v).contains(w)) return;
+    visited.add(t);
+    queue.add(t);
+  }
+
+  // returns the vertex with the x,y coordinates of p
+  private DT_Point vertex(DT_Point p) {
+    return _vertices.get(p);
+  }
+
+  /**
+   * inserts a vertex where the segment v,w crosses the constrained edge of t
+   * from its corner e, returns the vertex.
+   */
+  private DT_Point splitCrossing(DT_Point v, DT_Point w, DT_Triangle t,
+      DT_Point e) {
+    DT_Point f = t.next(e);
+    double dx = w.x - v.x, dy = w.y - v.y;
+    double ex = f.x - e.x, ey = f.y - e.y;
+    // e + s (f - e) is on the line v,w
+    double s = ((v.x - e.x) * dy - (v.y - e.y) * dx) / (ex * dy - ey * dx);
+    DT_Point x = new DT_Point(e.x + s * ex, e.y + s * ey, e.z + s
+        * (f.z - e.z));
+    if (x.x == e.x && x.y == e.y) return e;
+    if (x.x == f.x && x.y == f.y) return f;
+    _modCount++;
+    updateBoundingBox(x);
+    _vertices.add(x);
+    nPoints++;
+    legalize(startTriangle = splitEdge(t, e, x));
+    return x;
+  }
+
+  // updates the triangulation after a segment insertion
+  private void updateConstrained(DT_SegmentInsertion insertion) {
+    if (insertion.created.isEmpty()) return; // the edge was there
+    DT_Triangle first = insertion.created.get(0);
+    for (int i = 0; i < insertion.removed.size(); i++) {
+      DT_Triangle t = insertion.removed.get(i);
+      if (t == startTriangle) startTriangle = first;
+      if (t == currT) currT = first;
+    }
+    for (int i = 0; i < insertion.created.size(); i++) {
+      insertion.created.get(i)._mc = _modCount;
+    }
+    currT = first;
+    if (spatialIndex != null)
+      spatialIndex.updateIndex(insertion.created.iterator());
   }
 
   /**
@@ -227,18 +504,30 @@ public class DelaunayTriangulation {
     }
     // updating the trangulation
     deleteUpdate(pointToDelete);
+    // the new triangles take the constrained flags of the edges around the
+    // hole, the constrained edges of the deleted point are gone
+    boolean hole = true;
     for (DT_Triangle t : deletedTriangles) {
-      if (t == startTriangle) {
-        startTriangle = addedTriangles.elementAt(0);
-        break;
-      }
+      hole &= t.hole;
+    }
+    for (DT_Triangle t : addedTriangles) {
+      t.abfixed = t.abnext != null && t.abnext.isFixed(t.b);
+      t.bcfixed = t.bcnext != null && t.bcnext.isFixed(t.c);
+      t.cafixed = t.canext != null && t.canext.isFixed(t.a);
+      t.hole = hole;
     }
-    _triangles.removeAll(deletedTriangles);
+    Set<DT_Triangle> deleted = Collections
+        .newSetFromMap(new IdentityHashMap<DT_Triangle, Boolean>());
+    deleted.addAll(deletedTriangles);
+    if (deleted.contains(startTriangle)) {
+      startTriangle = addedTriangles.get(0);
+    }
+    _triangles.removeAll(deleted);
     _triangles.addAll(addedTriangles);
     _vertices.remove(pointToDelete);
     nPoints = nPoints + addedTriangles.size() - deletedTriangles.size();
-    addedTriangles.removeAllElements();
-    deletedTriangles.removeAllElements();
+    addedTriangles.clear();
+    deletedTriangles = null;
   }
 
   /**
@@ -275,6 +564,67 @@ public class DelaunayTriangulation {
     }
   }
 
+  /**
+   * returns the vertex of this triangulation nearest to (x,y), unlike
+   * findClosePoint this is the exact nearest vertex also when it is not a
+   * corner of the triangle of (x,y). The search walks the Delaunay graph
+   * from the triangle of the point, so it costs a find and a few steps.
+   * 
+   * @param x
+   *          - X cordination of the query point
+   * @param y
+   *          - Y cordination of the query point
+   * @return the nearest vertex, null if the triangulation is empty
+   */
+  public DT_Point nearestVertex(double x, double y) {
+    if (allCollinear || startTriangle == null) {
+      DT_Point[] out = new DT_Point[1];
+      return nearestBruteForce(x, y, 1, out) == 0 ? null : out[0];
+    }
+    DT_Triangle t = find(new DT_Point(x, y));
+    return new DT_NeighborSearch(x, y).nearest(t);
+  }
+
+  /**
+   * finds the k vertices of this triangulation nearest to (x,y), by a best
+   * first search over the Delaunay graph from the nearest vertex.
+   * 
+   * @param x
+   *          - X cordination of the query point
+   * @param y
+   *          - Y cordination of the query point
+   * @param k
+   *          the number of vertices to find
+   * @param out
+   *          receives the vertices in order of increasing distance, at least
+   *          k long
+   * @return the number of vertices written to out, less than k only if the
+   *         triangulation has less than k vertices
+   */
+  public int kNearest(double x, double y, int k, DT_Point[] out) {
+    if (k < 0 || out.length < k)
+      throw new IllegalArgumentException("k is negative or out is too short");
+    if (allCollinear || startTriangle == null) {
+      return nearestBruteForce(x, y, k, out);
+    }
+    DT_Triangle t = find(new DT_Point(x, y));
+    return new DT_NeighborSearch(x, y).kNearest(t, k, out);
+  }
+
+  // the nearest vertices while there are no triangles (all collinear)
+  private int nearestBruteForce(final double x, final double y, int k,
+      DT_Point[] out) {
+    DT_Point[] all = _vertices.toArray(new DT_Point[_vertices.size()]);
+    Arrays.sort(all, new Comparator<DT_Point>() {
+      public int compare(DT_Point p, DT_Point q) {
+        return Double.compare(p.distance2(x, y), q.distance2(x, y));
+      }
+    });
+    int count = Math.min(k, all.length);
+    System.arraycopy(all, 0, out, 0, count);
+    return count;
+  }
+
   // updates the trangulation after the triangles to be deleted and
   // the triangles to be added were found
   // by Doron Ganel & Eyal Roth(2009)
@@ -298,7 +648,8 @@ public class DelaunayTriangulation {
     }
 
     // Update index with changed triangles
-    if (gridIndex != null) gridIndex.updateIndex(addedTriangles.iterator());
+    if (spatialIndex != null)
+      spatialIndex.updateIndex(addedTriangles.iterator());
 
   }
 
@@ -762,29 +1113,73 @@ public class DelaunayTriangulation {
    *         only a half plane - returns an empty iterator
    */
   public Iterator<DT_Triangle> getLastUpdatedTriangles() {
-    Vector<DT_Triangle> tmp = new Vector<DT_Triangle>();
-    if (this.trianglesSize() > 1) {
-      DT_Triangle t = currT;
-      allTriangles(t, tmp, this._modCount);
-    }
+    ArrayList<DT_Triangle> tmp = new ArrayList<DT_Triangle>();
+    getLastUpdatedTriangles(tmp);
     return tmp.iterator();
   }
 
-  private void allTriangles(DT_Triangle curr, Vector<DT_Triangle> front, int mc) {
-    if (curr != null && curr._mc == mc && !front.contains(curr)) {
-      front.add(curr);
-      allTriangles(curr.abnext, front, mc);
-      allTriangles(curr.bcnext, front, mc);
-      allTriangles(curr.canext, front, mc);
+  /**
+   * adds all the triangles involved in the last update to the given
+   * collection, the collection is not cleared first. Note: works ONLY if there
+   * are triangles (if there is only a half plane - nothing is added).
+   * 
+   * @param result
+   *          the collection to add the updated triangles to
+   */
+  public void getLastUpdatedTriangles(Collection<? super DT_Triangle> result) {
+    if (currT != null) {
+      allTriangles(currT, result, this._modCount);
+    }
+  }
+
+  // collects the triangles of the given mod counter that are connected to
+  // curr, a breadth first search over the reusable stack.
+  private void allTriangles(DT_Triangle curr,
+      Collection<? super DT_Triangle> result, int mc) {
+    if (curr._mc != mc) return;
+    DT_Triangle[] found = _stack;
+    int size = 0;
+    curr._mark = true;
+    found[size++] = curr;
+    for (int i = 0; i < size; i++) {
+      DT_Triangle t = found[i];
+      if (size + 3 > found.length) {
+        found = _stack = Arrays.copyOf(found, found.length * 2);
+      }
+      size = visit(t.abnext, found, size, mc);
+      size = visit(t.bcnext, found, size, mc);
+      size = visit(t.canext, found, size, mc);
+    }
+    for (int i = 0; i < size; i++) {
+      found[i]._mark = false;
+      result.add(found[i]);
+      found[i] = null;
+    }
+  }
+
+  private static int visit(DT_Triangle t, DT_Triangle[] found, int size,
+      int mc) {
+    if (t != null && t._mc == mc && !t._mark) {
+      t._mark = true;
+      found[size++] = t;
     }
+    return size;
   }
 
   private DT_Triangle insertPointSimple(DT_Point p) {
     nPoints++;
     if (!allCollinear) {
-      DT_Triangle t = find(startTriangle, p);
+      DT_Triangle start = startTriangle;
+      if (spatialIndex != null) {
+        DT_Triangle indexTriangle = spatialIndex.findStartTriangle(p);
+        if (indexTriangle != null) start = indexTriangle;
+      }
+      DT_Triangle t = find(start, p);
+      DT_Point e;
       if (t.halfplane)
         startTriangle = extendOutside(t, p);
+      else if ((e = constrainedEdgeAt(t, p)) != null)
+        startTriangle = splitEdge(t, e, p);
       else
         startTriangle = extendInside(t, p);
       return startTriangle;
@@ -910,6 +1305,10 @@ public class DelaunayTriangulation {
 
     h1 = new DT_Triangle(t.c, t.a, p);
     h2 = new DT_Triangle(t.b, t.c, p);
+    h1.abfixed = t.cafixed;
+    h2.abfixed = t.bcfixed;
+    h1.hole = h2.hole = t.hole;
+    t.bcfixed = t.cafixed = false;
     t.c = p;
     t.circumcircle();
     h1.abnext = t.canext;
@@ -936,11 +1335,87 @@ public class DelaunayTriangulation {
     return null;
   }
 
+  // returns the corner of t the constrained edge p is on starts from, null if
+  // p is not on a constrained edge of t
+  private static DT_Point constrainedEdgeAt(DT_Triangle t, DT_Point p) {
+    if (t.abfixed && p.pointLineTest(t.a, t.b) == DT_Point.ONSEGMENT)
+      return t.a;
+    if (t.bcfixed && p.pointLineTest(t.b, t.c) == DT_Point.ONSEGMENT)
+      return t.b;
+    if (t.cafixed && p.pointLineTest(t.c, t.a) == DT_Point.ONSEGMENT)
+      return t.c;
+    return null;
+  }
+
+  /**
+   * inserts p on the edge of t from its corner e. The two triangles of the
+   * edge are replaced by four (or the triangle and the half plane of a hull
+   * edge by two triangles and two half planes), both halves of the edge keep
+   * its constrained flag. Returns a new triangle, all of them have p as their
+   * corner c.
+   */
+  private DT_Triangle splitEdge(DT_Triangle t, DT_Point e, DT_Point p) {
+    DT_Point a = e, b = t.next(a), c = t.next(b);
+    DT_Triangle u = t.edgeNeighbor(a);
+    boolean fixed = t.isFixed(a);
+
+    DT_Triangle t1 = new DT_Triangle(c, a, p);
+    DT_Triangle t2 = new DT_Triangle(b, c, p);
+    link(t1, t.edgeNeighbor(c), t.isFixed(c), t);
+    link(t2, t.edgeNeighbor(b), t.isFixed(b), t);
+    t1.canext = t2;
+    t2.bcnext = t1;
+    t1.hole = t2.hole = t.hole;
+
+    DT_Triangle s1, s2;
+    if (u.halfplane) {
+      // u is the half plane (b,a)
+      s1 = new DT_Triangle(p, a);
+      s2 = new DT_Triangle(b, p);
+      s1.abnext = t1;
+      s2.abnext = t2;
+      s2.canext = u.canext;
+      u.canext.bcnext = s2;
+      s2.bcnext = s1;
+      s1.canext = s2;
+      s1.bcnext = u.bcnext;
+      u.bcnext.canext = s1;
+      if (startTriangleHull == u) startTriangleHull = s1;
+    } else {
+      DT_Point d = u.next(a);
+      s1 = new DT_Triangle(a, d, p);
+      s2 = new DT_Triangle(d, b, p);
+      link(s1, u.edgeNeighbor(a), u.isFixed(a), u);
+      link(s2, u.edgeNeighbor(d), u.isFixed(d), u);
+      s1.bcnext = s2;
+      s2.canext = s1;
+      s1.canext = t1;
+      s2.bcnext = t2;
+      s1.hole = s2.hole = u.hole;
+      s1.cafixed = s2.bcfixed = fixed;
+    }
+    t1.bcnext = s1;
+    t2.canext = s2;
+    t1.bcfixed = t2.cafixed = fixed;
+    if (u.halfplane) s1.abfixed = s2.abfixed = fixed;
+    return t1;
+  }
+
+  // makes n the neighbor across the edge ab of the new triangle t, in place
+  // of the replaced triangle old
+  private static void link(DT_Triangle t, DT_Triangle n, boolean fixed,
+      DT_Triangle old) {
+    t.abnext = n;
+    t.abfixed = fixed;
+    n.switchneighbors(old, t);
+  }
+
   private DT_Triangle extendOutside(DT_Triangle t, DT_Point p) {
 
     if (p.pointLineTest(t.a, t.b) == DT_Point.ONSEGMENT) {
       DT_Triangle dg = new DT_Triangle(t.a, t.b, p);
       DT_Triangle hp = new DT_Triangle(p, t.b);
+      dg.hole = t.abnext.hole;
       t.b = p;
       dg.abnext = t.abnext;
       dg.abnext.switchneighbors(t, dg);
@@ -963,78 +1438,106 @@ public class DelaunayTriangulation {
   }
 
   private DT_Triangle extendcounterclock(DT_Triangle t, DT_Point p) {
-
-    t.halfplane = false;
-    t.c = p;
-    t.circumcircle();
-
-    DT_Triangle tca = t.canext;
-
-    if (p.pointLineTest(tca.a, tca.b) >= DT_Point.RIGHT) {
-      DT_Triangle nT = new DT_Triangle(t.a, p);
-      nT.abnext = t;
-      t.canext = nT;
-      nT.canext = tca;
-      tca.bcnext = nT;
-      return nT;
+    while (true) {
+      t.halfplane = false;
+      t.c = p;
+      t.circumcircle();
+
+      DT_Triangle tca = t.canext;
+
+      if (p.pointLineTest(tca.a, tca.b) >= DT_Point.RIGHT) {
+        DT_Triangle nT = new DT_Triangle(t.a, p);
+        nT.abnext = t;
+        t.canext = nT;
+        nT.canext = tca;
+        tca.bcnext = nT;
+        return nT;
+      }
+      t = tca;
     }
-    return extendcounterclock(tca, p);
   }
 
   private DT_Triangle extendclock(DT_Triangle t, DT_Point p) {
-
-    t.halfplane = false;
-    t.c = p;
-    t.circumcircle();
-
-    DT_Triangle tbc = t.bcnext;
-
-    if (p.pointLineTest(tbc.a, tbc.b) >= DT_Point.RIGHT) {
-      DT_Triangle nT = new DT_Triangle(p, t.b);
-      nT.abnext = t;
-      t.bcnext = nT;
-      nT.bcnext = tbc;
-      tbc.canext = nT;
-      return nT;
+    while (true) {
+      t.halfplane = false;
+      t.c = p;
+      t.circumcircle();
+
+      DT_Triangle tbc = t.bcnext;
+
+      if (p.pointLineTest(tbc.a, tbc.b) >= DT_Point.RIGHT) {
+        DT_Triangle nT = new DT_Triangle(p, t.b);
+        nT.abnext = t;
+        t.bcnext = nT;
+        nT.bcnext = tbc;
+        tbc.canext = nT;
+        return nT;
+      }
+      t = tbc;
     }
-    return extendclock(tbc, p);
   }
 
+  // legalizes the edge ab of t, the flipped triangles are pushed to the
+  // reusable stack (t on top) instead of recursing, so the order of the flips
+  // is the same as a depth first recursion.
   private void flip(DT_Triangle t, int mc) {
+    DT_Triangle[] stack = _stack;
+    int size = 0;
+    stack[size++] = t;
+    while (size > 0) {
+      t = stack[--size];
+      stack[size] = null;
+
+      DT_Triangle u = t.abnext, v;
+      t._mc = mc;
+      if (u.halfplane || t.abfixed || !u.circumcircle_contains(t.c)) continue;
+
+      // the constrained flags of the outer edges move along with the edges
+      boolean tfixed, vfixed;
+      if (t.a == u.a) {
+        v = new DT_Triangle(u.b, t.b, t.c);
+        v.abnext = u.bcnext;
+        t.abnext = u.abnext;
+        vfixed = u.bcfixed;
+        tfixed = u.abfixed;
+      } else if (t.a == u.b) {
+        v = new DT_Triangle(u.c, t.b, t.c);
+        v.abnext = u.canext;
+        t.abnext = u.bcnext;
+        vfixed = u.cafixed;
+        tfixed = u.bcfixed;
+      } else if (t.a == u.c) {
+        v = new DT_Triangle(u.a, t.b, t.c);
+        v.abnext = u.abnext;
+        t.abnext = u.canext;
+        vfixed = u.abfixed;
+        tfixed = u.cafixed;
+      } else {
+        throw new RuntimeException("Error in flip.");
+      }
 
-    DT_Triangle u = t.abnext, v;
-    t._mc = mc;
-    if (u.halfplane || !u.circumcircle_contains(t.c)) return;
-
-    if (t.a == u.a) {
-      v = new DT_Triangle(u.b, t.b, t.c);
-      v.abnext = u.bcnext;
-      t.abnext = u.abnext;
-    } else if (t.a == u.b) {
-      v = new DT_Triangle(u.c, t.b, t.c);
-      v.abnext = u.canext;
-      t.abnext = u.bcnext;
-    } else if (t.a == u.c) {
-      v = new DT_Triangle(u.a, t.b, t.c);
-      v.abnext = u.abnext;
-      t.abnext = u.canext;
-    } else {
-      throw new RuntimeException("Error in flip.");
+      v._mc = mc;
+      v.abfixed = vfixed;
+      v.bcfixed = t.bcfixed;
+      v.hole = t.hole;
+      t.abfixed = tfixed;
+      t.bcfixed = false;
+      v.bcnext = t.bcnext;
+      v.abnext.switchneighbors(u, v);
+      v.bcnext.switchneighbors(t, v);
+      t.bcnext = v;
+      v.canext = t;
+      t.b = v.a;
+      t.abnext.switchneighbors(u, t);
+      t.circumcircle();
+
+      currT = v;
+      if (size + 2 > stack.length) {
+        stack = _stack = Arrays.copyOf(stack, stack.length * 2);
+      }
+      stack[size++] = v;
+      stack[size++] = t;
     }
-
-    v._mc = mc;
-    v.bcnext = t.bcnext;
-    v.abnext.switchneighbors(u, v);
-    v.bcnext.switchneighbors(t, v);
-    t.bcnext = v;
-    v.canext = t;
-    t.b = v.a;
-    t.abnext.switchneighbors(u, t);
-    t.circumcircle();
-
-    currT = v;
-    flip(t, mc);
-    flip(v, mc);
   }
 
   /**
@@ -1219,8 +1722,8 @@ public class DelaunayTriangulation {
     // If triangulation has a spatial index try to use it as the starting
     // triangle
     DT_Triangle searchTriangle = startTriangle;
-    if (gridIndex != null) {
-      DT_Triangle indexTriangle = gridIndex.findCellTriangleOf(p);
+    if (spatialIndex != null) {
+      DT_Triangle indexTriangle = spatialIndex.findStartTriangle(p);
       if (indexTriangle != null) searchTriangle = indexTriangle;
     }
 
@@ -1493,6 +1996,170 @@ public class DelaunayTriangulation {
     return t.z_value(q);
   }
 
+  /**
+   * finds the triangles of many query points, out[i] is the triangle
+   * queries[i] falls in as in find(DT_Point) (null for a null query). The
+   * queries are walked in the order of a Hilbert curve and each search starts
+   * from the triangle of the previous query, so a batch is much faster than
+   * the same number of single searches.
+   * 
+   * @param queries
+   *          the query points
+   * @param out
+   *          receives the triangles, at least as long as queries
+   */
+  public void findAll(DT_Point[] queries, DT_Triangle[] out) {
+    findAll(queries, out, null);
+  }
+
+  /**
+   * finds the triangles of many query points (see findAll(DT_Point[],
+   * DT_Triangle[])), the work is split across the given pool. Note: the
+   * triangulation must not be changed while the searches run.
+   * 
+   * @param queries
+   *          the query points
+   * @param out
+   *          receives the triangles, at least as long as queries
+   * @param pool
+   *          the pool to run the searches on, null to search in the calling
+   *          thread
+   */
+  public void findAll(DT_Point[] queries, DT_Triangle[] out,
+      ForkJoinPool pool) {
+    if (out.length < queries.length)
+      throw new IllegalArgumentException("out is shorter than queries");
+    int n = 0;
+    int[] index = new int[queries.length];
+    double[] xs = new double[queries.length], ys = new double[queries.length];
+    for (int i = 0; i < queries.length; i++) {
+      if (queries[i] == null) {
+        out[i] = null;
+      } else {
+        index[n] = i;
+        xs[n] = queries[i].x;
+        ys[n] = queries[i].y;
+        n++;
+      }
+    }
+    int[] order = DT_SpatialSort.curveOrder(xs, ys, n);
+    for (int k = 0; k < n; k++) {
+      order[k] = index[order[k]];
+    }
+    new Batch(queries, null, null, order, out, null).run(pool);
+  }
+
+  /**
+   * computes the z values of many query points, out[i] is z(xs[i], ys[i]).
+   * The queries are walked in the order of a Hilbert curve and each search
+   * starts from the triangle of the previous query. Like z(double, double) an
+   * exception is thrown for a query outside the convex hull.
+   * 
+   * @param xs
+   *          the x coordinates of the query points
+   * @param ys
+   *          the y coordinates of the query points
+   * @param out
+   *          receives the z values, at least as long as xs
+   */
+  public void z(double[] xs, double[] ys, double[] out) {
+    z(xs, ys, out, null);
+  }
+
+  /**
+   * computes the z values of many query points (see z(double[], double[],
+   * double[])), the work is split across the given pool. Note: the
+   * triangulation must not be changed while the searches run.
+   * 
+   * @param xs
+   *          the x coordinates of the query points
+   * @param ys
+   *          the y coordinates of the query points
+   * @param out
+   *          receives the z values, at least as long as xs
+   * @param pool
+   *          the pool to run the searches on, null to search in the calling
+   *          thread
+   */
+  public void z(double[] xs, double[] ys, double[] out, ForkJoinPool pool) {
+    if (ys.length < xs.length || out.length < xs.length)
+      throw new IllegalArgumentException("ys or out is shorter than xs");
+    int[] order = DT_SpatialSort.curveOrder(xs, ys, xs.length);
+    new Batch(null, xs, ys, order, null, out).run(pool);
+  }
+
+  /**
+   * a batch of queries (either points or coordinates) in walk order, the
+   * results go to either triangles or zs.
+   */
+  private class Batch {
+    private final DT_Point[] points;
+    private final double[] xs, ys;
+    private final int[] order;
+    private final DT_Triangle[] triangles;
+    private final double[] zs;
+
+    Batch(DT_Point[] points, double[] xs, double[] ys, int[] order,
+        DT_Triangle[] triangles, double[] zs) {
+      this.points = points;
+      this.xs = xs;
+      this.ys = ys;
+      this.order = order;
+      this.triangles = triangles;
+      this.zs = zs;
+    }
+
+    void run(ForkJoinPool pool) {
+      if (pool == null || order.length <= BATCH_CHUNK) {
+        walk(0, order.length);
+      } else {
+        pool.invoke(new WalkTask(0, order.length));
+      }
+    }
+
+    // walks the queries order[from..to), the first search starts at the
+    // grid index (or startTriangle), every other at the previous triangle.
+    void walk(int from, int to) {
+      DT_Point q = new DT_Point(0, 0);
+      DT_Triangle t = null;
+      for (int k = from; k < to; k++) {
+        int i = order[k];
+        if (points != null) {
+          q = points[i];
+        } else {
+          q.x = xs[i];
+          q.y = ys[i];
+        }
+        t = t == null ? find(q) : find(t, q);
+        if (triangles != null) {
+          triangles[i] = t;
+        } else {
+          zs[i] = t.z_value(q);
+        }
+      }
+    }
+
+    private class WalkTask extends RecursiveAction {
+      private static final long serialVersionUID = 1L;
+      private final int from, to;
+
+      WalkTask(int from, int to) {
+        this.from = from;
+        this.to = to;
+      }
+
+      @Override
+      protected void compute() {
+        if (to - from <= BATCH_CHUNK) {
+          walk(from, to);
+        } else {
+          int mid = (from + to) >>> 1;
+          invokeAll(new WalkTask(from, mid), new WalkTask(mid, to));
+        }
+      }
+    }
+  }
+
   private void updateBoundingBox(DT_Point p) {
     double x = p.x(), y = p.y(), z = p.z();
     if (_bb_min == null) {
@@ -1539,7 +2206,7 @@ public class DelaunayTriangulation {
    * @return an iterator to the current set of all triangles.
    */
   public Iterator<DT_Triangle> trianglesIterator() {
-    if (this.size() <= 2) _triangles = new Vector<DT_Triangle>();
+    if (this.size() <= 2) _triangles = new ArrayList<DT_Triangle>();
     initTriangles();
     return _triangles.iterator();
   }
@@ -1577,32 +2244,41 @@ public class DelaunayTriangulation {
     return this._vertices.iterator();
   }
 
+  /**
+   * returns the position of the vertex p in verticesIterator (used by
+   * DT_VoronoiDiagram), -1 if p is not a vertex.
+   */
+  int vertexIndex(DT_Point p) {
+    return _vertices.indexOf(p);
+  }
+
   private void initTriangles() {
     if (_modCount == _modCount2) return;
     if (this.size() > 2) {
       _modCount2 = _modCount;
-      Vector<DT_Triangle> front = new Vector<DT_Triangle>();
-      _triangles = new Vector<DT_Triangle>();
-      front.add(this.startTriangle);
-      while (front.size() > 0) {
-        DT_Triangle t = front.remove(0);
-        if (t._mark == false) {
-          t._mark = true;
-          _triangles.add(t);
-          if (t.abnext != null && !t.abnext._mark) {
-            front.add(t.abnext);
-          }
-          if (t.bcnext != null && !t.bcnext._mark) {
-            front.add(t.bcnext);
-          }
-          if (t.canext != null && !t.canext._mark) {
-            front.add(t.canext);
-          }
+      _triangles = new ArrayList<DT_Triangle>();
+      // all collinear - no triangles yet
+      if (this.startTriangle == null) return;
+      // breadth first search, _triangles is also the queue
+      this.startTriangle._mark = true;
+      _triangles.add(this.startTriangle);
+      for (int i = 0; i < _triangles.size(); i++) {
+        DT_Triangle t = _triangles.get(i);
+        if (t.abnext != null && !t.abnext._mark) {
+          t.abnext._mark = true;
+          _triangles.add(t.abnext);
+        }
+        if (t.bcnext != null && !t.bcnext._mark) {
+          t.bcnext._mark = true;
+          _triangles.add(t.bcnext);
+        }
+        if (t.canext != null && !t.canext._mark) {
+          t.canext._mark = true;
+          _triangles.add(t.canext);
         }
       }
-      // _triNum = _triangles.size();
       for (int i = 0; i < _triangles.size(); i++) {
-        _triangles.elementAt(i)._mark = false;
+        _triangles.get(i)._mark = false;
       }
     }
   }
@@ -1616,13 +2292,39 @@ public class DelaunayTriangulation {
    *          number of grid cells in a column
    */
   public void IndexData(int xCellCount, int yCellCount) {
-    gridIndex = new DT_GridIndex(this, xCellCount, yCellCount);
+    spatialIndex = new DT_GridIndex(this, xCellCount, yCellCount);
+  }
+
+  /**
+   * Index the triangulation using an adaptive quadtree index, which keeps
+   * searches fast on clustered data (see DT_QuadTreeIndex).
+   */
+  public void IndexDataAdaptive() {
+    spatialIndex = new DT_QuadTreeIndex(this);
+  }
+
+  /**
+   * sets the spatial index used to start searches, the index is updated by
+   * every insert and delete from now on.
+   * 
+   * @param index
+   *          an index of this triangulation, null to remove the index
+   */
+  public void setSpatialIndex(DT_SpatialIndex index) {
+    spatialIndex = index;
+  }
+
+  /**
+   * returns the spatial index used to start searches, null if none.
+   */
+  public DT_SpatialIndex getSpatialIndex() {
+    return spatialIndex;
   }
 
   /**
    * Remove any existing spatial indexing
    */
   public void RemoveIndex() {
-    gridIndex = null;
+    spatialIndex = null;
   }
 }
\ No newline at end of file
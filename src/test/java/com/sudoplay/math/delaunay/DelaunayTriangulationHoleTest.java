@@ -0,0 +1,75 @@
+package com.sudoplay.math.delaunay;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Checks that {@link DelaunayTriangulation#insertHole(DT_Point[])} marks
+ * exactly the union of the holes, whatever holes were inserted before and
+ * whichever corner a polygon is listed from.
+ */
+public class DelaunayTriangulationHoleTest {
+
+  private static final double EPSILON = 1e-6;
+
+  @Test
+  public void overlappingAndAdjacentHoles() {
+    DelaunayTriangulation dt = points();
+    dt.insertHole(rectangle(2, 2, 10, 10, 0));
+    // starts on an edge inside the first hole
+    dt.insertHole(rectangle(6, 2, 14, 10, 0));
+    // shares an edge with the second hole
+    dt.insertHole(rectangle(14, 2, 18, 10, 3));
+    assertEquals(128, holeArea(dt), EPSILON);
+  }
+
+  @Test
+  public void overlappingHoleFromEveryCorner() {
+    for (int first = 0; first < 4; first++) {
+      DelaunayTriangulation dt = points();
+      dt.insertHole(rectangle(0, 0, 10, 10, 0));
+      dt.insertHole(rectangle(5, 0, 15, 10, first));
+      assertEquals("first corner " + first, 150, holeArea(dt), EPSILON);
+    }
+  }
+
+  // 2000 random points in [-1, 21)^2
+  private static DelaunayTriangulation points() {
+    Random random = new Random(42);
+    DelaunayTriangulation dt = new DelaunayTriangulation();
+    for (int i = 0; i < 2000; i++) {
+      dt.insertPoint(new DT_Point(random.nextDouble() * 22 - 1,
+          random.nextDouble() * 22 - 1));
+    }
+    return dt;
+  }
+
+  // the corners of a rectangle, counter clockwise from corner first
+  private static DT_Point[] rectangle(double x0, double y0, double x1,
+      double y1, int first) {
+    DT_Point[] corners = { new DT_Point(x0, y0), new DT_Point(x1, y0),
+        new DT_Point(x1, y1), new DT_Point(x0, y1) };
+    DT_Point[] polygon = new DT_Point[4];
+    for (int i = 0; i < 4; i++) {
+      polygon[i] = corners[(first + i) & 3];
+    }
+    return polygon;
+  }
+
+  private static double holeArea(DelaunayTriangulation dt) {
+    double area = 0;
+    Iterator<DT_Triangle> it = dt.trianglesIterator();
+    while (it.hasNext()) {
+      DT_Triangle t = it.next();
+      if (t.isHalfplane() || !t.isHole()) continue;
+      DT_Point a = t.p1(), b = t.p2(), c = t.p3();
+      area += Math.abs((b.x - a.x) * (c.y - a.y) - (c.x - a.x) * (b.y - a.y));
+    }
+    return area / 2;
+  }
+
+}